@@ -0,0 +1,90 @@
+package com.assesment.spacex.benchmark;
+
+import com.assesment.spacex.aggregation.LaunchAggregator;
+import com.assesment.spacex.domain.Launch;
+import com.assesment.spacex.store.LaunchColumnStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Grouping of already enriched launches into the by-year and by-site counts: the original
+ * {@code collectList()} + {@link Collectors#groupingBy} approach against the streaming {@link LaunchAggregator}
+ * and the scans of the {@link LaunchColumnStore}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int launchCount;
+
+    private List<Launch> launches;
+    private LaunchColumnStore store;
+
+    @Setup
+    public void setUp() {
+        launches = BenchmarkData.launches(launchCount, true);
+        store = new LaunchColumnStore();
+        launches.forEach(store::append);
+    }
+
+    @Benchmark
+    public Map<String, Map<Integer, Long>> groupingByYear() {
+        return Flux.fromIterable(launches).collectList()
+                .map(list -> list.stream().collect(Collectors.groupingBy(
+                        Launch::getRocketType,
+                        Collectors.groupingBy(
+                                launch -> launch.getDate().atZone(ZoneId.of("UTC")).getYear(),
+                                Collectors.counting()))))
+                .block();
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Long>> groupingBySite() {
+        return Flux.fromIterable(launches).collectList()
+                .map(list -> list.stream().collect(Collectors.groupingBy(
+                        Launch::getRocketType,
+                        Collectors.groupingBy(Launch::getLaunchPadName, Collectors.counting()))))
+                .block();
+    }
+
+    @Benchmark
+    public LaunchAggregator streamingAggregator() {
+        return LaunchAggregator.aggregate(Flux.fromIterable(launches), 1).block();
+    }
+
+    @Benchmark
+    public LaunchAggregator streamingAggregatorParallel() {
+        return LaunchAggregator.aggregate(Flux.fromIterable(launches), Runtime.getRuntime().availableProcessors()).block();
+    }
+
+    @Benchmark
+    public Map<String, Map<Integer, Long>> columnStoreByYear() {
+        return store.countByRocketAndYear();
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Long>> columnStoreBySite() {
+        return store.countByRocketAndSite();
+    }
+}
@@ -0,0 +1,97 @@
+package com.assesment.spacex.benchmark;
+
+import com.assesment.spacex.domain.Launch;
+import com.assesment.spacex.domain.LaunchPad;
+import com.assesment.spacex.domain.Rocket;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Deterministic synthetic SpaceX data shared by the benchmarks.
+ */
+final class BenchmarkData {
+    static final List<Rocket> ROCKETS = List.of(
+            rocket("5e9d0d95eda69955f709d1eb", "Falcon 1"),
+            rocket("5e9d0d95eda69973a809d1ec", "Falcon 9"),
+            rocket("5e9d0d95eda69974db09d1ed", "Falcon Heavy"),
+            rocket("5e9d0d96eda699382d09d1ee", "Starship"));
+    static final List<LaunchPad> LAUNCH_PADS = List.of(
+            launchPad("5e9e4501f5090910d4566f83", "VAFB SLC 3W"),
+            launchPad("5e9e4501f509094ba4566f84", "CCSFS SLC 40"),
+            launchPad("5e9e4502f5090927f8566f85", "STLS"),
+            launchPad("5e9e4502f5090995de566f86", "Kwajalein Atoll"),
+            launchPad("5e9e4502f509092b78566f87", "VAFB SLC 4E"),
+            launchPad("5e9e4502f509094188566f88", "KSC LC 39A"));
+
+    private static final long FIRST_LAUNCH = Instant.parse("2006-03-24T22:30:00Z").toEpochMilli();
+    private static final long LAST_LAUNCH = Instant.parse("2030-12-31T00:00:00Z").toEpochMilli();
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @param count  number of launches
+     * @param enrich whether the rocket type and launch pad name are set, as after enrichment
+     * @return launches with a fixed seed, referencing {@link #ROCKETS} and {@link #LAUNCH_PADS}
+     */
+    static List<Launch> launches(int count, boolean enrich) {
+        Random random = new Random(42);
+        List<Launch> launches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Rocket rocket = ROCKETS.get(random.nextInt(ROCKETS.size()));
+            LaunchPad launchPad = LAUNCH_PADS.get(random.nextInt(LAUNCH_PADS.size()));
+            launches.add(Launch.builder()
+                    .rocketId(rocket.getRocketId())
+                    .launchPadId(launchPad.getLaunchPadId())
+                    .date(Instant.ofEpochMilli(random.nextLong(FIRST_LAUNCH, LAST_LAUNCH)))
+                    .rocketType(enrich ? rocket.getRocketName() : null)
+                    .launchPadName(enrich ? launchPad.getLaunchPadName() : null)
+                    .build());
+        }
+        return launches;
+    }
+
+    /**
+     * @param count number of launches
+     * @return a /launches style JSON array, each launch padded with fields the service ignores
+     */
+    static byte[] launchesJson(int count) {
+        StringBuilder json = new StringBuilder("[");
+        List<Launch> launches = launches(count, false);
+        IntStream.range(0, count).forEach(i -> {
+            Launch launch = launches.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("""
+                    {"fairings":{"reused":false,"recovery_attempt":false,"recovered":false,"ships":[]},\
+                    "links":{"patch":{"small":"https://images2.imgbox.com/3c/0e/T8iJcSN3_o.png",\
+                    "large":"https://images2.imgbox.com/40/e3/GypSkayF_o.png"},"reddit":{"campaign":null,\
+                    "launch":null,"media":null,"recovery":null},"flickr":{"small":[],"original":[]},\
+                    "presskit":null,"webcast":"https://www.youtube.com/watch?v=0a_00nJ_Y88",\
+                    "youtube_id":"0a_00nJ_Y88","article":null,"wikipedia":"https://en.wikipedia.org/wiki/DemoSat"},\
+                    "static_fire_date_utc":null,"tbd":false,"net":false,"window":0,"rocket":"%s",\
+                    "success":true,"failures":[],"details":"Synthetic launch","crew":[],"ships":[],\
+                    "capsules":[],"payloads":["5eb0e4b6b6c3bb0006eeb1e2"],"launchpad":"%s","flight_number":%d,\
+                    "name":"Launch %d","date_utc":"%s","date_precision":"hour","upcoming":false,\
+                    "cores":[{"core":"5e9e289df35918033d3b2623","flight":1,"gridfins":false,"legs":false,\
+                    "reused":false,"landing_attempt":false,"landing_success":null,"landing_type":null,\
+                    "landpad":null}],"auto_update":true,"launch_library_id":null,"id":"%024x"}"""
+                    .formatted(launch.getRocketId(), launch.getLaunchPadId(), i + 1, i + 1, launch.getDate(), i));
+        });
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Rocket rocket(String id, String name) {
+        return Rocket.builder().rocketId(id).rocketName(name).build();
+    }
+
+    private static LaunchPad launchPad(String id, String name) {
+        return LaunchPad.builder().launchPadId(id).launchPadName(name).build();
+    }
+}
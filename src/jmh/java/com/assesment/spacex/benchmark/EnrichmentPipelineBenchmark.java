@@ -0,0 +1,120 @@
+package com.assesment.spacex.benchmark;
+
+import com.assesment.spacex.domain.Launch;
+import com.assesment.spacex.domain.LaunchAggregates;
+import com.assesment.spacex.domain.LaunchPad;
+import com.assesment.spacex.domain.Rocket;
+import com.assesment.spacex.service.EnrichmentMode;
+import com.assesment.spacex.service.SpacexClientService;
+import com.assesment.spacex.service.TaskService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The reactive fetch + enrich + aggregate pipelines of {@link TaskService}, against an in-process stub of
+ * {@link SpacexClientService} answering from memory, so only the pipeline's own cost is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnrichmentPipelineBenchmark {
+
+    @Param({"1000", "100000"})
+    private int launchCount;
+
+    @Param({"PER_ID", "BULK"})
+    private EnrichmentMode enrichmentMode;
+
+    private TaskService taskService;
+    private StubSpacexClientService spacexClientService;
+
+    @Setup
+    public void setUp() {
+        spacexClientService = new StubSpacexClientService(BenchmarkData.launches(launchCount, false));
+        taskService = new TaskService(spacexClientService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(taskService, "enrichmentMode", enrichmentMode);
+    }
+
+    @Benchmark
+    public Map<String, Map<Integer, Long>> launchesByYear() {
+        return taskService.getRocketsLaunchedByYear().block();
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Long>> launchesBySite() {
+        return taskService.getLaunchesPerSite().block();
+    }
+
+    @Benchmark
+    public LaunchAggregates aggregateLaunches() {
+        return taskService.aggregateLaunches(spacexClientService.getAllLaunches()).block();
+    }
+
+    /**
+     * Serves launches, rockets and launch pads from memory. Launches are copied per call since the pipeline
+     * enriches them in place.
+     */
+    static class StubSpacexClientService extends SpacexClientService {
+        private final List<Launch> launches;
+        private final Map<String, Rocket> rockets = BenchmarkData.ROCKETS.stream()
+                .collect(Collectors.toMap(Rocket::getRocketId, Function.identity()));
+        private final Map<String, LaunchPad> launchPads = BenchmarkData.LAUNCH_PADS.stream()
+                .collect(Collectors.toMap(LaunchPad::getLaunchPadId, Function.identity()));
+
+        StubSpacexClientService(List<Launch> launches) {
+            super(null, null, null, new SimpleMeterRegistry());
+            this.launches = launches;
+        }
+
+        @Override
+        public Flux<Launch> getAllLaunches() {
+            return Flux.fromIterable(launches).map(launch -> Launch.builder()
+                    .rocketId(launch.getRocketId())
+                    .launchPadId(launch.getLaunchPadId())
+                    .date(launch.getDate())
+                    .build());
+        }
+
+        @Override
+        public Mono<Rocket> getRocketById(String rocketId) {
+            return Mono.justOrEmpty(rockets.get(rocketId));
+        }
+
+        @Override
+        public Mono<LaunchPad> getLaunchPadById(String launchPadId) {
+            return Mono.justOrEmpty(launchPads.get(launchPadId));
+        }
+
+        @Override
+        public Flux<Rocket> getAllRockets() {
+            return Flux.fromIterable(BenchmarkData.ROCKETS);
+        }
+
+        @Override
+        public Flux<LaunchPad> getAllLaunchPads() {
+            return Flux.fromIterable(BenchmarkData.LAUNCH_PADS);
+        }
+    }
+}
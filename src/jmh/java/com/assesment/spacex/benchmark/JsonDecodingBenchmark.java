@@ -0,0 +1,84 @@
+package com.assesment.spacex.benchmark;
+
+import com.assesment.spacex.domain.Launch;
+import com.assesment.spacex.domain.LaunchPad;
+import com.assesment.spacex.domain.Rocket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson decoding of the SpaceX payloads into the domain POJOs, with the object mapper configured the way
+ * Spring configures the WebClient codecs (unknown properties ignored).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonDecodingBenchmark {
+
+    @Param({"200", "2000"})
+    private int launchCount;
+
+    private byte[] launchesJson;
+    private byte[] rocketJson;
+    private byte[] launchPadJson;
+    private ObjectReader launchesReader;
+    private ObjectReader rocketReader;
+    private ObjectReader launchPadReader;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        launchesJson = BenchmarkData.launchesJson(launchCount);
+        rocketJson = """
+                {"height":{"meters":70,"feet":229.6},"diameter":{"meters":3.7,"feet":12},"mass":{"kg":549054,"lb":1207920},\
+                "first_stage":{"reusable":true,"engines":9},"engines":{"number":9,"type":"merlin"},"name":"Falcon 9",\
+                "type":"rocket","active":true,"stages":2,"boosters":0,"cost_per_launch":50000000,\
+                "description":"Falcon 9 is a two-stage rocket","id":"5e9d0d95eda69973a809d1ec"}"""
+                .getBytes(StandardCharsets.UTF_8);
+        launchPadJson = """
+                {"images":{"large":["https://i.imgur.com/7uXe1Kv.png"]},"name":"KSC LC 39A",\
+                "full_name":"Kennedy Space Center Historic Launch Complex 39A","locality":"Cape Canaveral",\
+                "region":"Florida","latitude":28.6080585,"longitude":-80.6039558,"launch_attempts":55,\
+                "launch_successes":55,"rockets":["5e9d0d95eda69973a809d1ec"],"timezone":"America/New_York",\
+                "launches":[],"status":"active","id":"5e9e4502f509094188566f88"}"""
+                .getBytes(StandardCharsets.UTF_8);
+        launchesReader = objectMapper.readerForListOf(Launch.class);
+        rocketReader = objectMapper.readerFor(Rocket.class);
+        launchPadReader = objectMapper.readerFor(LaunchPad.class);
+    }
+
+    @Benchmark
+    public List<Launch> decodeLaunches() throws IOException {
+        return launchesReader.readValue(launchesJson);
+    }
+
+    @Benchmark
+    public Rocket decodeRocket() throws IOException {
+        return rocketReader.readValue(rocketJson);
+    }
+
+    @Benchmark
+    public LaunchPad decodeLaunchPad() throws IOException {
+        return launchPadReader.readValue(launchPadJson);
+    }
+}
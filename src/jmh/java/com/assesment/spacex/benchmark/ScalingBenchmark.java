@@ -0,0 +1,247 @@
+package com.assesment.spacex.benchmark;
+
+import com.assesment.spacex.domain.Launch;
+import com.assesment.spacex.domain.LaunchPad;
+import com.assesment.spacex.domain.LaunchRollup;
+import com.assesment.spacex.domain.Rocket;
+import com.assesment.spacex.service.EnrichmentMode;
+import com.assesment.spacex.service.SpacexClientService;
+import com.assesment.spacex.service.TaskService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Scaling runner of the {@link TaskService} aggregation paths over {@link SyntheticLaunchData} of growing size.
+ * <p>
+ * For every enrichment mode, path and dataset size the path is run against an in-process stub
+ * {@link SpacexClientService} generating the launches on the fly, and three figures are recorded per run: the
+ * latency, the heap high-water mark (sum of the peak usage of the heap pools, reset after a GC before each run) and
+ * the GC time spent during the run. The median latency, highest heap mark and mean GC time per dataset size are
+ * printed as a table and as charts against dataset size, and written as CSV for plotting.
+ * </p>
+ * <p>Paths: by-year, by-site, report (all rollups) and refresh (aggregates retaining the launches).</p>
+ * <p>Arguments (key=value):</p>
+ * <ul>
+ *   <li><b>sizes</b>: comma separated launch counts (default 1000,10000,100000,1000000; up to 10000000 with -Xmx4g)</li>
+ *   <li><b>paths</b>: comma separated paths (default all)</li>
+ *   <li><b>modes</b>: comma separated enrichment modes (default PER_ID,BULK)</li>
+ *   <li><b>iterations</b>, <b>warmup</b>: measured and unmeasured runs per size (default 3 and 1)</li>
+ *   <li><b>rockets</b>, <b>launchPads</b>, <b>skew</b>: dataset cardinalities and Zipf exponent (default 4, 6, 1.0)</li>
+ *   <li><b>out</b>: CSV file (default target/scaling-benchmark.csv)</li>
+ * </ul>
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.assesment.spacex.benchmark.ScalingBenchmark \
+ *     -Dexec.args="sizes=1000,100000,1000000 modes=BULK rockets=50 launchPads=200 skew=1.2"
+ * </pre>
+ */
+public class ScalingBenchmark {
+    private static final Map<String, Function<Pipeline, Mono<?>>> PATHS = Map.of(
+            "by-year", pipeline -> pipeline.taskService.getRocketsLaunchedByYear(),
+            "by-site", pipeline -> pipeline.taskService.getLaunchesPerSite(),
+            "report", pipeline -> pipeline.taskService.getLaunchReport(EnumSet.allOf(LaunchRollup.class)),
+            "refresh", pipeline -> pipeline.taskService.aggregateLaunches(pipeline.spacexClientService.getAllLaunches()));
+    private static final int CHART_WIDTH = 50;
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+        List<Long> sizes = Arrays.stream(options.getOrDefault("sizes", "1000,10000,100000,1000000").split(","))
+                .map(Long::parseLong).toList();
+        List<String> paths = List.of(options.getOrDefault("paths", "by-year,by-site,report,refresh").split(","));
+        List<EnrichmentMode> modes = Arrays.stream(options.getOrDefault("modes", "PER_ID,BULK").split(","))
+                .map(EnrichmentMode::valueOf).toList();
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "3"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "1"));
+        SyntheticLaunchData.SyntheticLaunchDataBuilder data = SyntheticLaunchData.builder()
+                .rocketCount(Integer.parseInt(options.getOrDefault("rockets", "4")))
+                .launchPadCount(Integer.parseInt(options.getOrDefault("launchPads", "6")))
+                .rocketSkew(Double.parseDouble(options.getOrDefault("skew", "1.0")))
+                .launchPadSkew(Double.parseDouble(options.getOrDefault("skew", "1.0")));
+
+        List<Result> results = new ArrayList<>();
+        for (EnrichmentMode mode : modes) {
+            for (String path : paths) {
+                Function<Pipeline, Mono<?>> run = PATHS.get(path);
+                if (run == null) {
+                    throw new IllegalArgumentException("Unknown path %s, expected one of %s".formatted(path, PATHS.keySet()));
+                }
+                for (long size : sizes) {
+                    Pipeline pipeline = new Pipeline(data.launchCount(size).build(), mode);
+                    for (int i = 0; i < warmup; i++) {
+                        run.apply(pipeline).block();
+                    }
+                    List<Sample> samples = new ArrayList<>();
+                    for (int i = 0; i < iterations; i++) {
+                        samples.add(measure(() -> run.apply(pipeline).block()));
+                    }
+                    Result result = Result.of(path, mode, size, samples);
+                    System.out.println(result.row());
+                    results.add(result);
+                }
+            }
+        }
+        printCharts(results);
+        Path out = Path.of(options.getOrDefault("out", "target/scaling-benchmark.csv"));
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        Files.write(out, results.stream().map(Result::csv).collect(Collectors.toCollection(() ->
+                new ArrayList<>(List.of("path,mode,launches,latency_ms,heap_peak_mb,gc_ms")))));
+        System.out.printf("%nWrote %s%n", out.toAbsolutePath());
+    }
+
+    /**
+     * Runs once after a GC, recording latency, heap high-water mark and GC time of the run.
+     */
+    private static Sample measure(Runnable run) {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long gcBefore = gcMillis();
+        long start = System.nanoTime();
+        run.run();
+        long latencyNanos = System.nanoTime() - start;
+        long heapPeak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        return new Sample(latencyNanos, heapPeak, gcMillis() - gcBefore);
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .filter(time -> time > 0)
+                .sum();
+    }
+
+    /**
+     * Prints, per path and mode, a bar chart of each figure against dataset size, scaled to the largest value of
+     * the series.
+     */
+    private static void printCharts(List<Result> results) {
+        Map<String, List<Result>> series = results.stream()
+                .collect(Collectors.groupingBy(result -> result.path() + " " + result.mode(),
+                        LinkedHashMap::new, Collectors.toList()));
+        series.forEach((name, points) -> {
+            System.out.printf("%n%s%n", name);
+            chart("latency ms", points, Result::latencyMillis);
+            chart("heap peak MB", points, Result::heapPeakMegabytes);
+            chart("gc ms", points, Result::gcMillis);
+        });
+    }
+
+    private static void chart(String figure, List<Result> points, Function<Result, Double> value) {
+        double max = points.stream().mapToDouble(value::apply).max().orElse(0);
+        System.out.printf("  %s%n", figure);
+        for (Result point : points) {
+            double v = value.apply(point);
+            int width = max > 0 ? (int) Math.round(v / max * CHART_WIDTH) : 0;
+            System.out.printf("  %,12d | %-" + CHART_WIDTH + "s %.1f%n", point.launches(), "#".repeat(width), v);
+        }
+    }
+
+    private record Sample(long latencyNanos, long heapPeakBytes, long gcMillis) {
+    }
+
+    private record Result(String path, EnrichmentMode mode, long launches,
+                          double latencyMillis, double heapPeakMegabytes, double gcMillis) {
+
+        static Result of(String path, EnrichmentMode mode, long launches, List<Sample> samples) {
+            long[] latencies = samples.stream().mapToLong(Sample::latencyNanos).sorted().toArray();
+            return new Result(path, mode, launches,
+                    latencies[latencies.length / 2] / 1e6,
+                    samples.stream().mapToLong(Sample::heapPeakBytes).max().orElse(0) / (1024d * 1024),
+                    samples.stream().mapToLong(Sample::gcMillis).average().orElse(0));
+        }
+
+        String row() {
+            return "%-8s %-6s %,12d launches  latency %,10.1f ms  heap peak %,8.1f MB  gc %,8.1f ms"
+                    .formatted(path, mode, launches, latencyMillis, heapPeakMegabytes, gcMillis);
+        }
+
+        String csv() {
+            return "%s,%s,%d,%.3f,%.3f,%.3f".formatted(path, mode, launches, latencyMillis, heapPeakMegabytes, gcMillis);
+        }
+    }
+
+    /**
+     * A {@link TaskService} over a {@link SyntheticSpacexClientService}, with the deadline budget lifted so large
+     * datasets are not cut short by it.
+     */
+    private static final class Pipeline {
+        private final SyntheticSpacexClientService spacexClientService;
+        private final TaskService taskService;
+
+        private Pipeline(SyntheticLaunchData data, EnrichmentMode mode) {
+            spacexClientService = new SyntheticSpacexClientService(data);
+            taskService = new TaskService(spacexClientService, new SimpleMeterRegistry());
+            ReflectionTestUtils.setField(taskService, "enrichmentMode", mode);
+            ReflectionTestUtils.setField(taskService, "deadlineBudget", Duration.ofDays(1));
+        }
+    }
+
+    /**
+     * Serves a {@link SyntheticLaunchData} set from memory: launches are generated per call, rockets and launch
+     * pads looked up by id.
+     */
+    static class SyntheticSpacexClientService extends SpacexClientService {
+        private final SyntheticLaunchData data;
+        private final Map<String, Rocket> rockets;
+        private final Map<String, LaunchPad> launchPads;
+
+        SyntheticSpacexClientService(SyntheticLaunchData data) {
+            super(null, null, null, new SimpleMeterRegistry());
+            this.data = data;
+            this.rockets = data.rockets().stream().collect(Collectors.toMap(Rocket::getRocketId, Function.identity()));
+            this.launchPads = data.launchPads().stream()
+                    .collect(Collectors.toMap(LaunchPad::getLaunchPadId, Function.identity()));
+        }
+
+        @Override
+        public Flux<Launch> getAllLaunches() {
+            return data.launches();
+        }
+
+        @Override
+        public Mono<Rocket> getRocketById(String rocketId) {
+            return Mono.justOrEmpty(rockets.get(rocketId));
+        }
+
+        @Override
+        public Mono<LaunchPad> getLaunchPadById(String launchPadId) {
+            return Mono.justOrEmpty(launchPads.get(launchPadId));
+        }
+
+        @Override
+        public Flux<Rocket> getAllRockets() {
+            return Flux.fromIterable(rockets.values());
+        }
+
+        @Override
+        public Flux<LaunchPad> getAllLaunchPads() {
+            return Flux.fromIterable(launchPads.values());
+        }
+    }
+}
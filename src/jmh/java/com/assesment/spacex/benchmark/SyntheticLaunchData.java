@@ -0,0 +1,124 @@
+package com.assesment.spacex.benchmark;
+
+import com.assesment.spacex.domain.Launch;
+import com.assesment.spacex.domain.LaunchPad;
+import com.assesment.spacex.domain.Rocket;
+import lombok.Builder;
+import lombok.Value;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Deterministic generator of synthetic SpaceX datasets of any size, from a thousand to tens of millions of launches.
+ * <p>
+ * Rockets and launch pads are referenced with a Zipf distribution (rocketSkew and launchPadSkew are the exponents,
+ * 0 for uniform), as in the real data where a few rockets and pads account for most launches. Launch dates are
+ * uniform over firstYear to lastYear. Launches are generated lazily on each subscription, from the same seed, so
+ * every run sees the same launches without the dataset ever being held in memory.
+ * </p>
+ */
+@Value
+@Builder
+class SyntheticLaunchData {
+    @Builder.Default
+    long launchCount = 1_000;
+    @Builder.Default
+    int rocketCount = 4;
+    @Builder.Default
+    int launchPadCount = 6;
+    @Builder.Default
+    double rocketSkew = 1.0;
+    @Builder.Default
+    double launchPadSkew = 1.0;
+    @Builder.Default
+    int firstYear = 2006;
+    @Builder.Default
+    int lastYear = 2030;
+    @Builder.Default
+    long seed = 42;
+
+    /**
+     * @return the rockets, named "Rocket 1" onwards, in order of popularity
+     */
+    List<Rocket> rockets() {
+        return IntStream.rangeClosed(1, rocketCount)
+                .mapToObj(i -> Rocket.builder().rocketId(rocketId(i)).rocketName("Rocket " + i).build())
+                .toList();
+    }
+
+    /**
+     * @return the launch pads, named "Pad 1" onwards, in order of popularity
+     */
+    List<LaunchPad> launchPads() {
+        return IntStream.rangeClosed(1, launchPadCount)
+                .mapToObj(i -> LaunchPad.builder().launchPadId(launchPadId(i)).launchPadName("Pad " + i).build())
+                .toList();
+    }
+
+    /**
+     * @return a cold {@link Flux} generating the launchCount launches, unenriched as /launches returns them
+     */
+    Flux<Launch> launches() {
+        return Flux.defer(() -> {
+            Random random = new Random(seed);
+            Zipf rockets = new Zipf(rocketCount, rocketSkew);
+            Zipf launchPads = new Zipf(launchPadCount, launchPadSkew);
+            String[] rocketIds = rockets().stream().map(Rocket::getRocketId).toArray(String[]::new);
+            String[] launchPadIds = launchPads().stream().map(LaunchPad::getLaunchPadId).toArray(String[]::new);
+            long from = LocalDate.of(firstYear, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            long to = LocalDate.of(lastYear + 1, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            return Flux.<Launch, Long>generate(() -> 0L, (generated, sink) -> {
+                if (generated == launchCount) {
+                    sink.complete();
+                    return generated;
+                }
+                sink.next(Launch.builder()
+                        .rocketId(rocketIds[rockets.sample(random)])
+                        .launchPadId(launchPadIds[launchPads.sample(random)])
+                        .date(Instant.ofEpochMilli(random.nextLong(from, to)))
+                        .build());
+                return generated + 1;
+            });
+        });
+    }
+
+    private static String rocketId(int rank) {
+        return "%024x".formatted(0x5e9d0000L + rank);
+    }
+
+    private static String launchPadId(int rank) {
+        return "%024x".formatted(0x5e9e0000L + rank);
+    }
+
+    /**
+     * Zipf distribution over ranks 1..n: rank k is drawn with a probability proportional to 1 / k^exponent.
+     * Samples are 0-based indexes of the rank.
+     */
+    private static final class Zipf {
+        private final double[] cumulative;
+
+        private Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 1; k <= n; k++) {
+                sum += 1 / Math.pow(k, exponent);
+                cumulative[k - 1] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        private int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+        }
+    }
+}
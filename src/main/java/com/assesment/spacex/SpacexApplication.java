@@ -2,12 +2,18 @@ package com.assesment.spacex;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SpacexApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(SpacexApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(SpacexApplication.class, args);
+		if (context.getEnvironment().matchesProfiles("cli")) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
@@ -0,0 +1,219 @@
+package com.assesment.spacex.aggregation;
+
+import com.assesment.spacex.domain.Launch;
+import com.assesment.spacex.domain.LaunchAggregates;
+import com.assesment.spacex.domain.LaunchReport;
+import com.assesment.spacex.domain.LaunchRollup;
+import com.assesment.spacex.store.LaunchColumnStore;
+import com.assesment.spacex.store.UtcCalendar;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single-pass, mutable accumulator of launch counts per rocket and year and per rocket and launch site, and, when
+ * asked for, per launch site and year.
+ * <p>
+ * Launches are counted as they arrive from a {@link Flux}, into primitive counters, so the enriched launches never
+ * have to be collected into a list and no boxed {@link Long} is created per launch. Boxing only happens once per
+ * distinct (rocket, year) / (rocket, site) cell in {@link #toAggregates()}.
+ * </p>
+ * <p>
+ * The live request path counts with this aggregator rather than a {@link LaunchColumnStore}: its state grows with
+ * the number of distinct cells, not of launches, while the store retains 16 bytes per launch. Retaining the
+ * launches only pays off for a snapshot that is queried many times (launch index, timeline, report by site and year)
+ * and folded incrementally, which is why the refresher builds a store and a one-off request does not.
+ * </p>
+ * <p>
+ * Instances are not thread safe. Partial aggregators filled on separate rails are combined with
+ * {@link #merge(LaunchAggregator)}.
+ * </p>
+ */
+public class LaunchAggregator {
+    private final Map<String, YearCounts> countsByYear = new HashMap<>();
+    private final Map<String, Map<String, Counter>> countsBySite = new HashMap<>();
+    private final Map<String, YearCounts> countsBySiteAndYear = new HashMap<>();
+    private final boolean countSiteYears;
+    private Instant latestLaunchDate;
+
+    public LaunchAggregator() {
+        this(EnumSet.of(LaunchRollup.BY_YEAR, LaunchRollup.BY_SITE));
+    }
+
+    /**
+     * @param rollups rollups the aggregator will be asked for; launches per site and year are only counted when
+     *                {@link LaunchRollup#BY_SITE_AND_YEAR} is one of them
+     */
+    public LaunchAggregator(Set<LaunchRollup> rollups) {
+        this.countSiteYears = rollups.contains(LaunchRollup.BY_SITE_AND_YEAR);
+    }
+
+    /**
+     * Aggregates the given enriched launches without collecting them.
+     * <p>
+     * With a parallelism above 1 the launches are spread over that many parallel rails, each filling its own
+     * aggregator, which are merged once all launches are counted.
+     * </p>
+     *
+     * @param launches    launches with their rocket type (and, to be counted by site, launch pad name) set
+     * @param parallelism number of rails to aggregate on
+     * @return a {@link Mono} of the filled aggregator
+     */
+    public static Mono<LaunchAggregator> aggregate(Flux<Launch> launches, int parallelism) {
+        return aggregate(launches, EnumSet.of(LaunchRollup.BY_YEAR, LaunchRollup.BY_SITE), parallelism);
+    }
+
+    /**
+     * Aggregates the given enriched launches without collecting them, counting what the given rollups need.
+     *
+     * @param launches    launches with their rocket type (and, to be counted by site, launch pad name) set
+     * @param rollups     rollups the result will be asked for with {@link #toReport(Set)}
+     * @param parallelism number of rails to aggregate on
+     * @return a {@link Mono} of the filled aggregator
+     */
+    public static Mono<LaunchAggregator> aggregate(Flux<Launch> launches, Set<LaunchRollup> rollups, int parallelism) {
+        if (parallelism <= 1) {
+            return launches.collect(() -> new LaunchAggregator(rollups), LaunchAggregator::accept);
+        }
+        return launches.parallel(parallelism)
+                .runOn(Schedulers.parallel())
+                .collect(() -> new LaunchAggregator(rollups), LaunchAggregator::accept)
+                .reduce(LaunchAggregator::merge)
+                .defaultIfEmpty(new LaunchAggregator(rollups));
+    }
+
+    /**
+     * Counts one launch by rocket and year, and by rocket and site when its launch pad name is set.
+     *
+     * @param launch an enriched {@link Launch}
+     */
+    public void accept(Launch launch) {
+        String rocketType = launch.getRocketType();
+        int year = UtcCalendar.yearOf(launch.getDate().toEpochMilli());
+        countsByYear.computeIfAbsent(rocketType, ignored -> new YearCounts()).increment(year, 1);
+        if (launch.getLaunchPadName() != null) {
+            countsBySite.computeIfAbsent(rocketType, ignored -> new HashMap<>())
+                    .computeIfAbsent(launch.getLaunchPadName(), ignored -> new Counter())
+                    .value++;
+            if (countSiteYears) {
+                countsBySiteAndYear.computeIfAbsent(launch.getLaunchPadName(), ignored -> new YearCounts())
+                        .increment(year, 1);
+            }
+        }
+        if (latestLaunchDate == null || launch.getDate().isAfter(latestLaunchDate)) {
+            latestLaunchDate = launch.getDate();
+        }
+    }
+
+    /**
+     * Adds the counts of another aggregator to this one.
+     *
+     * @param other a partial aggregator, not modified
+     * @return this aggregator
+     */
+    public LaunchAggregator merge(LaunchAggregator other) {
+        other.countsByYear.forEach((rocketType, counts) ->
+                countsByYear.computeIfAbsent(rocketType, ignored -> new YearCounts()).addAll(counts));
+        other.countsBySite.forEach((rocketType, counts) -> {
+            Map<String, Counter> target = countsBySite.computeIfAbsent(rocketType, ignored -> new HashMap<>());
+            counts.forEach((site, counter) -> target.computeIfAbsent(site, ignored -> new Counter()).value += counter.value);
+        });
+        other.countsBySiteAndYear.forEach((site, counts) ->
+                countsBySiteAndYear.computeIfAbsent(site, ignored -> new YearCounts()).addAll(counts));
+        if (latestLaunchDate == null
+                || (other.latestLaunchDate != null && other.latestLaunchDate.isAfter(latestLaunchDate))) {
+            latestLaunchDate = other.latestLaunchDate;
+        }
+        return this;
+    }
+
+    /**
+     * @return the counted launches as {@link LaunchAggregates}, with the date of the latest launch as watermark
+     *         and no refresh times set
+     */
+    public LaunchAggregates toAggregates() {
+        Map<String, Map<Integer, Long>> launchesByYear = new HashMap<>();
+        countsByYear.forEach((rocketType, counts) -> launchesByYear.put(rocketType, counts.toMap()));
+        Map<String, Map<String, Long>> launchesBySite = new HashMap<>();
+        countsBySite.forEach((rocketType, counts) -> {
+            Map<String, Long> siteCounts = new HashMap<>();
+            counts.forEach((site, counter) -> siteCounts.put(site, counter.value));
+            launchesBySite.put(rocketType, siteCounts);
+        });
+        return LaunchAggregates.builder()
+                .launchesByYear(launchesByYear)
+                .launchesBySite(launchesBySite)
+                .latestLaunchDate(latestLaunchDate)
+                .build();
+    }
+
+    /**
+     * @param rollups rollups to include, counted by an aggregator created for (at least) the same rollups
+     * @return the counted launches as a {@link LaunchReport}
+     */
+    public LaunchReport toReport(Set<LaunchRollup> rollups) {
+        LaunchAggregates aggregates = toAggregates();
+        Map<String, Map<Integer, Long>> launchesBySiteAndYear = new HashMap<>();
+        countsBySiteAndYear.forEach((site, counts) -> launchesBySiteAndYear.put(site, counts.toMap()));
+        return LaunchReport.builder()
+                .launchesByYear(rollups.contains(LaunchRollup.BY_YEAR) ? aggregates.getLaunchesByYear() : null)
+                .launchesBySite(rollups.contains(LaunchRollup.BY_SITE) ? aggregates.getLaunchesBySite() : null)
+                .launchesPerRocket(rollups.contains(LaunchRollup.PER_ROCKET)
+                        ? LaunchReport.totals(aggregates.getLaunchesByYear())
+                        : null)
+                .launchesBySiteAndYear(rollups.contains(LaunchRollup.BY_SITE_AND_YEAR) ? launchesBySiteAndYear : null)
+                .build();
+    }
+
+    private static final class Counter {
+        private long value;
+    }
+
+    /**
+     * Launch counts of one rocket indexed by year - firstYear, grown on both ends as new years show up.
+     */
+    private static final class YearCounts {
+        private int firstYear;
+        private long[] counts = new long[0];
+
+        private void increment(int year, long delta) {
+            if (counts.length == 0) {
+                firstYear = year;
+                counts = new long[1];
+            } else if (year < firstYear) {
+                long[] grown = new long[counts.length + firstYear - year];
+                System.arraycopy(counts, 0, grown, firstYear - year, counts.length);
+                counts = grown;
+                firstYear = year;
+            } else if (year >= firstYear + counts.length) {
+                counts = Arrays.copyOf(counts, year - firstYear + 1);
+            }
+            counts[year - firstYear] += delta;
+        }
+
+        private void addAll(YearCounts other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    increment(other.firstYear + i, other.counts[i]);
+                }
+            }
+        }
+
+        private Map<Integer, Long> toMap() {
+            Map<Integer, Long> map = new HashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    map.put(firstYear + i, counts[i]);
+                }
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.assesment.spacex.batch;
+
+import com.assesment.spacex.aggregation.LaunchAggregator;
+import com.assesment.spacex.batch.LaunchDumpFile.Chunk;
+import com.assesment.spacex.client.LaunchJsonDecoder;
+import com.assesment.spacex.domain.Launch;
+import com.assesment.spacex.domain.LaunchPad;
+import com.assesment.spacex.domain.LaunchReport;
+import com.assesment.spacex.domain.LaunchRollup;
+import com.assesment.spacex.domain.Rocket;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Offline batch mode (profile cli): computes the launch report from a local dump of the SpaceX API instead of the
+ * live API, then exits.
+ * <p>
+ * The dump directory (spacex.batch.dump) holds the /launches, /rockets and /launchpads responses as launches.json,
+ * rockets.json and launchpads.json. The launches file is memory-mapped and split into chunks of whole launches
+ * ({@link LaunchDumpFile}); the chunks are decoded by the streaming {@link LaunchJsonDecoder}, enriched from the
+ * rocket and launch pad names and counted by a {@link LaunchAggregator} each, in a fork/join pool of
+ * spacex.batch.parallelism threads, and the partial aggregators are merged pairwise as the tasks join.
+ * Launches whose rocket or launch pad is not in the dump get the same ROCKET_NAME_NA and LAUNCHPAD_NAME_NA names
+ * as in the web mode.
+ * </p>
+ * <p>
+ * The rollups of spacex.batch.include are written to spacex.batch.output as report.json (the {@link LaunchReport}
+ * the report endpoint serves) and/or report.csv (one rollup,key,subkey,count row per cell), per
+ * spacex.batch.formats.
+ * </p>
+ */
+@Component
+@Profile("cli")
+@RequiredArgsConstructor
+@Slf4j
+public class BatchAnalyticsRunner implements CommandLineRunner {
+    static final String LAUNCHES_FILE = "launches.json";
+    static final String ROCKETS_FILE = "rockets.json";
+    static final String LAUNCH_PADS_FILE = "launchpads.json";
+    private static final String ROCKET_NAME_NA = "ROCKET_NAME_NA";
+    private static final String LAUNCHPAD_NAME_NA = "LAUNCHPAD_NAME_NA";
+    private static final long MAX_CHUNK_SIZE = 64L << 20;
+
+    private final ObjectMapper objectMapper;
+    private final LaunchJsonDecoder launchJsonDecoder = new LaunchJsonDecoder();
+
+    @Value("${spacex.batch.dump:spacex-dump}")
+    private Path dump = Path.of("spacex-dump");
+    @Value("${spacex.batch.output:spacex-report}")
+    private Path output = Path.of("spacex-report");
+    @Value("${spacex.batch.formats:json,csv}")
+    private Set<String> formats = Set.of("json", "csv");
+    @Value("${spacex.batch.include:byYear,bySite,perRocket,bySiteAndYear}")
+    private List<String> include = List.of("byYear", "bySite", "perRocket", "bySiteAndYear");
+    @Value("${spacex.batch.parallelism:0}")
+    private int parallelism = 0;
+
+    @Override
+    public void run(String... args) throws IOException {
+        Set<LaunchRollup> rollups = include.stream()
+                .map(LaunchRollup::fromParameter)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(LaunchRollup.class)));
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+
+        Map<String, String> rocketNames = readNames(ROCKETS_FILE, new TypeReference<List<Rocket>>() {
+        }, Rocket::getRocketId, Rocket::getRocketName);
+        Map<String, String> launchPadNames = LaunchRollup.needLaunchPads(rollups)
+                ? readNames(LAUNCH_PADS_FILE, new TypeReference<List<LaunchPad>>() {
+                }, LaunchPad::getLaunchPadId, LaunchPad::getLaunchPadName)
+                : null;
+        LaunchDumpFile launches = LaunchDumpFile.map(dump.resolve(LAUNCHES_FILE));
+        List<Chunk> chunks = launches.split((int) Math.max(threads * 4L, launches.size() / MAX_CHUNK_SIZE));
+
+        LongAdder launchCount = new LongAdder();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        LaunchAggregator aggregator;
+        try {
+            aggregator = pool.invoke(new AggregateTask(launches, chunks, rollups, rocketNames, launchPadNames, launchCount));
+        } finally {
+            pool.shutdown();
+        }
+        LaunchReport report = aggregator.toReport(rollups);
+
+        Files.createDirectories(output);
+        if (formats.contains("json")) {
+            writeJson(report, output.resolve("report.json"));
+        }
+        if (formats.contains("csv")) {
+            writeCsv(report, output.resolve("report.csv"));
+        }
+        log.info("Aggregated %d launches (%d MB) from %s in %d chunks on %d threads in %d ms, report written to %s"
+                .formatted(launchCount.sum(), launches.size() >> 20, dump, chunks.size(), threads,
+                        (System.nanoTime() - start) / 1_000_000, output));
+    }
+
+    private <T> Map<String, String> readNames(String file, TypeReference<List<T>> type,
+                                              Function<T, String> id, Function<T, String> name) throws IOException {
+        try (InputStream json = LaunchDumpFile.map(dump.resolve(file)).inputStream()) {
+            return objectMapper.readValue(json, type).stream()
+                    .filter(value -> id.apply(value) != null && name.apply(value) != null)
+                    .collect(Collectors.toMap(id, name, (first, second) -> first));
+        }
+    }
+
+    private void writeJson(LaunchReport report, Path file) throws IOException {
+        objectMapper.writer()
+                .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .with(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(file.toFile(), report);
+    }
+
+    private static void writeCsv(LaunchReport report, Path file) throws IOException {
+        try (Writer csv = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            csv.write("rollup,key,subkey,count\n");
+            writeCells(csv, LaunchRollup.BY_YEAR, report.getLaunchesByYear());
+            writeCells(csv, LaunchRollup.BY_SITE, report.getLaunchesBySite());
+            if (report.getLaunchesPerRocket() != null) {
+                for (Map.Entry<String, Long> rocket : new TreeMap<>(report.getLaunchesPerRocket()).entrySet()) {
+                    csv.write(row(LaunchRollup.PER_ROCKET, rocket.getKey(), "", rocket.getValue()));
+                }
+            }
+            writeCells(csv, LaunchRollup.BY_SITE_AND_YEAR, report.getLaunchesBySiteAndYear());
+        }
+    }
+
+    private static <K> void writeCells(Writer csv, LaunchRollup rollup, Map<String, Map<K, Long>> cells) throws IOException {
+        if (cells == null) {
+            return;
+        }
+        for (Map.Entry<String, Map<K, Long>> key : new TreeMap<>(cells).entrySet()) {
+            for (Map.Entry<K, Long> subkey : new TreeMap<>(key.getValue()).entrySet()) {
+                csv.write(row(rollup, key.getKey(), String.valueOf(subkey.getKey()), subkey.getValue()));
+            }
+        }
+    }
+
+    private static String row(LaunchRollup rollup, String key, String subkey, long count) {
+        return "%s,%s,%s,%d\n".formatted(rollup.getParameter(), csvField(key), csvField(subkey), count);
+    }
+
+    private static String csvField(String value) {
+        return value.contains(",") || value.contains("\"") || value.contains("\n")
+                ? "\"" + value.replace("\"", "\"\"") + "\""
+                : value;
+    }
+
+    /**
+     * Counts a range of chunks: a single chunk is decoded and counted directly, a larger range is split in halves
+     * counted in parallel and merged.
+     */
+    private final class AggregateTask extends RecursiveTask<LaunchAggregator> {
+        private final LaunchDumpFile launches;
+        private final List<Chunk> chunks;
+        private final Set<LaunchRollup> rollups;
+        private final Map<String, String> rocketNames;
+        private final Map<String, String> launchPadNames;
+        private final LongAdder launchCount;
+
+        private AggregateTask(LaunchDumpFile launches, List<Chunk> chunks, Set<LaunchRollup> rollups,
+                              Map<String, String> rocketNames, Map<String, String> launchPadNames, LongAdder launchCount) {
+            this.launches = launches;
+            this.chunks = chunks;
+            this.rollups = rollups;
+            this.rocketNames = rocketNames;
+            this.launchPadNames = launchPadNames;
+            this.launchCount = launchCount;
+        }
+
+        @Override
+        protected LaunchAggregator compute() {
+            if (chunks.size() > 1) {
+                int middle = chunks.size() / 2;
+                AggregateTask left = subtask(chunks.subList(0, middle));
+                left.fork();
+                LaunchAggregator right = subtask(chunks.subList(middle, chunks.size())).compute();
+                return left.join().merge(right);
+            }
+            LaunchAggregator aggregator = new LaunchAggregator(rollups);
+            List<Launch> decoded = chunks.isEmpty() ? List.of() : launchJsonDecoder.decodeAll(launches.arrayOf(chunks.get(0)));
+            for (Launch launch : decoded) {
+                launch.setRocketType(rocketNames.getOrDefault(launch.getRocketId(), ROCKET_NAME_NA));
+                if (launchPadNames != null) {
+                    launch.setLaunchPadName(launchPadNames.getOrDefault(launch.getLaunchPadId(), LAUNCHPAD_NAME_NA));
+                }
+                aggregator.accept(launch);
+            }
+            launchCount.add(decoded.size());
+            return aggregator;
+        }
+
+        private AggregateTask subtask(List<Chunk> range) {
+            return new AggregateTask(launches, range, rollups, rocketNames, launchPadNames, launchCount);
+        }
+    }
+}
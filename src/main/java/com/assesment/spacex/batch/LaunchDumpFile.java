@@ -0,0 +1,177 @@
+package com.assesment.spacex.batch;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A local JSON dump file of a SpaceX API response (e.g. /launches), read through memory-mapped buffers.
+ * <p>
+ * The file is mapped read-only in regions of at most 1 GiB, so files of several gigabytes are read without copying
+ * them onto the heap. A top-level JSON array can be split into chunks of whole elements with {@link #split(int)};
+ * each chunk is handed out as buffers forming a JSON array of its own, so chunks can be parsed independently and
+ * in parallel.
+ * </p>
+ */
+public final class LaunchDumpFile {
+    private static final long MAX_REGION_SIZE = 1L << 30;
+    private static final byte[] ARRAY_START = "[".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ARRAY_END = "]".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path path;
+    private final List<ByteBuffer> regions;
+    private final long size;
+
+    private LaunchDumpFile(Path path, List<ByteBuffer> regions, long size) {
+        this.path = path;
+        this.regions = regions;
+        this.size = size;
+    }
+
+    /**
+     * Maps a dump file. The mapping stays valid after the file channel is closed.
+     *
+     * @param path the dump file
+     * @return the mapped file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static LaunchDumpFile map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<ByteBuffer> regions = new ArrayList<>();
+            for (long position = 0; position < size; position += MAX_REGION_SIZE) {
+                regions.add(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_REGION_SIZE, size - position)));
+            }
+            return new LaunchDumpFile(path, regions, size);
+        }
+    }
+
+    /**
+     * @return size of the file in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the whole file as a stream, e.g. for databinding a small file
+     */
+    public InputStream inputStream() {
+        List<InputStream> streams = regions.stream()
+                .map(region -> (InputStream) new ByteBufferBackedInputStream(region.duplicate()))
+                .toList();
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    /**
+     * Splits the top-level JSON array of the file into at most the given number of chunks of roughly equal size.
+     * <p>
+     * The file is scanned once for the commas separating the array's elements, skipping over strings and nested
+     * values, and each chunk ends at the first separator past its share of the bytes. Fewer chunks are returned
+     * when the array has fewer elements.
+     * </p>
+     *
+     * @param chunks number of chunks wanted
+     * @return the chunks in file order, together covering every element of the array
+     * @throws IOException if the file does not hold a JSON array
+     */
+    public List<Chunk> split(int chunks) throws IOException {
+        long step = Math.max(1, size / Math.max(1, chunks));
+        List<Chunk> result = new ArrayList<>();
+        long arrayStart = -1;
+        long elementStart = -1;
+        long nextSplit = step;
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        long offset = 0;
+        for (ByteBuffer region : regions) {
+            for (int i = 0, limit = region.limit(); i < limit; i++, offset++) {
+                byte b = region.get(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                    continue;
+                }
+                switch (b) {
+                    case '"' -> inString = true;
+                    case '[', '{' -> {
+                        if (depth == 0) {
+                            if (b != '[') {
+                                throw new IOException("Dump %s does not hold a JSON array".formatted(path));
+                            }
+                            arrayStart = offset + 1;
+                            elementStart = arrayStart;
+                        }
+                        depth++;
+                    }
+                    case ']', '}' -> {
+                        depth--;
+                        if (depth == 0) {
+                            result.add(new Chunk(elementStart, offset));
+                            return result;
+                        }
+                    }
+                    case ',' -> {
+                        if (depth == 1 && offset >= nextSplit) {
+                            result.add(new Chunk(elementStart, offset));
+                            elementStart = offset + 1;
+                            nextSplit = offset + step;
+                        }
+                    }
+                    default -> {
+                        // whitespace and scalar values
+                    }
+                }
+            }
+        }
+        throw new IOException(arrayStart < 0
+                ? "Dump %s does not hold a JSON array".formatted(path)
+                : "Dump %s ends before its closing bracket".formatted(path));
+    }
+
+    /**
+     * @param chunk a chunk of this file's array
+     * @return buffers holding the chunk's elements wrapped in brackets, forming a JSON array
+     */
+    public List<ByteBuffer> arrayOf(Chunk chunk) {
+        List<ByteBuffer> buffers = new ArrayList<>();
+        buffers.add(ByteBuffer.wrap(ARRAY_START));
+        long regionStart = 0;
+        for (ByteBuffer region : regions) {
+            long regionEnd = regionStart + region.limit();
+            long from = Math.max(chunk.start(), regionStart);
+            long to = Math.min(chunk.end(), regionEnd);
+            if (from < to) {
+                buffers.add(region.slice((int) (from - regionStart), (int) (to - from)));
+            }
+            regionStart = regionEnd;
+        }
+        buffers.add(ByteBuffer.wrap(ARRAY_END));
+        return buffers;
+    }
+
+    /**
+     * Byte range of whole array elements, separators included between them.
+     *
+     * @param start offset of the first byte of the chunk
+     * @param end   offset past the last byte of the chunk
+     */
+    public record Chunk(long start, long end) {
+    }
+}
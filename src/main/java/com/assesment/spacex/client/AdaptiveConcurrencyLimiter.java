@@ -0,0 +1,216 @@
+package com.assesment.spacex.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * WebClient filter limiting the number of concurrent calls to the SpaceX API with an adaptive (AIMD) limit.
+ * <p>
+ * At most {@link #limit()} calls are in flight; further calls wait in a FIFO queue of at most maxQueued entries and
+ * fail with a {@link RejectedExecutionException} beyond that. After every call the limit is adjusted:
+ * </p>
+ * <ul>
+ *   <li>multiplicative decrease by backoffRatio when the call was throttled (429/503), failed without a response
+ *   (connect or response timeout) or took longer than latencyTolerance times the baseline latency</li>
+ *   <li>additive increase by one per limit's worth of calls otherwise, as long as at least half the limit was in
+ *   use, so an idle client does not grow its limit</li>
+ * </ul>
+ * <p>
+ * The baseline is an exponentially weighted average of the call latencies, so a lasting latency increase first
+ * shrinks the limit and is then accepted as the new baseline. Calls cancelled before their response arrives release
+ * their slot without adjusting the limit. A call holds its slot until its response body has been read (or releasing
+ * it completed, failed or was cancelled), as the connection is busy until then, and its latency is measured from the
+ * start of the exchange until that point, excluding the time waited in the queue.
+ * </p>
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter implements ExchangeFilterFunction {
+    private static final double BASELINE_SMOOTHING = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final int maxQueued;
+    private final Deque<MonoSink<Permit>> queue = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private double baselineNanos = Double.NaN;
+
+    /**
+     * @param initialLimit     concurrency limit to start with
+     * @param minLimit         lowest limit the limiter backs off to
+     * @param maxLimit         highest limit the limiter grows to
+     * @param backoffRatio     factor (0..1) the limit is multiplied with on overload
+     * @param latencyTolerance latency as multiple of the baseline above which a call counts as overload
+     * @param maxQueued        maximum number of calls waiting for a slot
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, double latencyTolerance, int maxQueued) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits initial %d min %d max %d"
+                    .formatted(initialLimit, minLimit, maxLimit));
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.maxQueued = maxQueued;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return acquire().flatMap(permit -> next.exchange(request)
+                .map(response -> {
+                    permit.responded(response.statusCode());
+                    return response.mutate()
+                            .body(body -> body
+                                    .doOnError(error -> permit.failed())
+                                    .doFinally(signal -> permit.release()))
+                            .build();
+                })
+                .doOnError(error -> {
+                    permit.failed();
+                    permit.release();
+                })
+                .doOnCancel(permit::release));
+    }
+
+    /**
+     * @return the current concurrency limit
+     */
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return number of calls currently holding a slot
+     */
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return number of calls waiting for a slot
+     */
+    public synchronized int queued() {
+        return queue.size();
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.<Permit>create(sink -> {
+                    boolean granted = false;
+                    boolean rejected = false;
+                    synchronized (this) {
+                        if (queue.isEmpty() && inFlight < (int) limit) {
+                            inFlight++;
+                            granted = true;
+                        } else if (queue.size() >= maxQueued) {
+                            rejected = true;
+                        } else {
+                            queue.addLast(sink);
+                        }
+                    }
+                    if (granted) {
+                        sink.success(new Permit());
+                    } else if (rejected) {
+                        sink.error(new RejectedExecutionException(
+                                "SpaceX call rejected, %d calls already waiting for the concurrency limit".formatted(maxQueued)));
+                    } else {
+                        sink.onCancel(() -> dequeue(sink));
+                    }
+                })
+                .doOnDiscard(Permit.class, Permit::release);
+    }
+
+    private void dequeue(MonoSink<Permit> sink) {
+        synchronized (this) {
+            queue.remove(sink);
+        }
+    }
+
+    private void released(Permit permit) {
+        List<MonoSink<Permit>> granted = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            adjustLimit(permit);
+            while (!queue.isEmpty() && inFlight < (int) limit) {
+                granted.add(queue.pollFirst());
+                inFlight++;
+            }
+        }
+        granted.forEach(sink -> sink.success(new Permit()));
+    }
+
+    private void adjustLimit(Permit permit) {
+        if (permit.outcome == Outcome.CANCELLED) {
+            return;
+        }
+        double previousLimit = limit;
+        if (permit.outcome == Outcome.OVERLOADED || isSlow(permit.latencyNanos)) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (permit.inFlightAtStart * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        if (permit.outcome != Outcome.OVERLOADED) {
+            baselineNanos = Double.isNaN(baselineNanos)
+                    ? permit.latencyNanos
+                    : baselineNanos + BASELINE_SMOOTHING * (permit.latencyNanos - baselineNanos);
+        }
+        if ((int) previousLimit != (int) limit) {
+            log.debug("SpaceX concurrency limit changed from %d to %d".formatted((int) previousLimit, (int) limit));
+        }
+    }
+
+    private boolean isSlow(long latencyNanos) {
+        return !Double.isNaN(baselineNanos) && latencyNanos > baselineNanos * latencyTolerance;
+    }
+
+    private enum Outcome {
+        SUCCEEDED, OVERLOADED, CANCELLED
+    }
+
+    /**
+     * A slot held by one call, released exactly once.
+     */
+    private class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart = inFlight();
+        private Outcome outcome = Outcome.CANCELLED;
+        private long latencyNanos;
+
+        void responded(HttpStatusCode status) {
+            outcome = status.value() == HttpStatus.TOO_MANY_REQUESTS.value()
+                    || status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                    ? Outcome.OVERLOADED
+                    : Outcome.SUCCEEDED;
+        }
+
+        void failed() {
+            outcome = Outcome.OVERLOADED;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                latencyNanos = System.nanoTime() - startNanos;
+                released(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.assesment.spacex.client;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Time budget of one incoming request, carried in the Reactor {@link Context} of its pipeline so every upstream
+ * call made on its behalf can be bounded by the time left rather than by a fixed timeout.
+ */
+public final class Deadline {
+    private static final Class<Deadline> KEY = Deadline.class;
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * Starts a deadline in the given context, unless it already carries one (the outer request's budget wins).
+     *
+     * @param context context of the pipeline
+     * @param budget  time the request may take from now
+     * @return the context with a deadline
+     */
+    public static Context start(Context context, Duration budget) {
+        return context.hasKey(KEY) ? context : context.put(KEY, new Deadline(System.nanoTime() + budget.toNanos()));
+    }
+
+    /**
+     * @param context context of the pipeline
+     * @return the time left until the context's deadline, zero once it passed, empty without a deadline
+     */
+    public static Optional<Duration> remaining(ContextView context) {
+        return context.<Deadline>getOrEmpty(KEY)
+                .map(deadline -> Duration.ofNanos(Math.max(0, deadline.expiresAtNanos - System.nanoTime())));
+    }
+
+    /**
+     * Bounds a call by the deadline of the subscribing pipeline, failing it with a
+     * {@link java.util.concurrent.TimeoutException} once the deadline passes. Without a deadline the call is
+     * left unbounded.
+     *
+     * @param call the upstream call
+     * @return the call bounded by the deadline
+     */
+    public static <T> Mono<T> within(Mono<T> call) {
+        return Mono.deferContextual(context -> remaining(context).map(call::timeout).orElse(call));
+    }
+
+    /**
+     * Bounds a streamed call by the deadline of the subscribing pipeline: the whole stream, not each element, has
+     * to complete before the deadline passes, or it fails with a {@link java.util.concurrent.TimeoutException}.
+     * Without a deadline the call is left unbounded.
+     *
+     * @param call the upstream call
+     * @return the call bounded by the deadline
+     */
+    public static <T> Flux<T> within(Flux<T> call) {
+        return Flux.deferContextual(context -> remaining(context)
+                .map(budget -> call.timeout(Mono.delay(budget),
+                        element -> Mono.delay(remaining(context).orElse(Duration.ZERO))))
+                .orElse(call));
+    }
+}
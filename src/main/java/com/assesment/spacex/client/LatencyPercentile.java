@@ -0,0 +1,51 @@
+package com.assesment.spacex.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Percentile of the latest latencies of a call, kept in a fixed size ring of samples.
+ * <p>
+ * Used to derive the hedging delay of upstream lookups from their own recent latency distribution. Thread safe.
+ * </p>
+ */
+public class LatencyPercentile {
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    /**
+     * @param capacity number of latest samples the percentile is computed over
+     */
+    public LatencyPercentile(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    /**
+     * @param latency latency of one completed call
+     */
+    public synchronized void record(Duration latency) {
+        samples[next] = latency.toNanos();
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * @param percentile  percentile between 0 and 1, e.g. 0.95
+     * @param minSamples  number of samples needed for a meaningful percentile
+     * @return the percentile of the recorded latencies, empty with fewer than minSamples samples
+     */
+    public Optional<Duration> percentile(double percentile, int minSamples) {
+        long[] sorted;
+        synchronized (this) {
+            if (count < Math.max(1, minSamples)) {
+                return Optional.empty();
+            }
+            sorted = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.min(sorted.length - 1, Math.max(0, Math.ceil(percentile * sorted.length) - 1));
+        return Optional.of(Duration.ofNanos(sorted[index]));
+    }
+}
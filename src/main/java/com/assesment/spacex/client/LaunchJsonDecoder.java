@@ -0,0 +1,200 @@
+package com.assesment.spacex.client;
+
+import com.assesment.spacex.domain.Launch;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractDecoder;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming decoder of {@link Launch}es from the /launches JSON array (or a single launch object).
+ * <p>
+ * The bytes are fed as they arrive into Jackson's non-blocking parser, which is read token by token: only the
+ * rocket, launchpad and date_utc strings of each launch are read, every other value, including the nested links,
+ * cores, crew and payload subtrees, is passed over without building any object for it. Each {@link Launch} is
+ * emitted as soon as its closing brace has been read, without databinding and without waiting for the rest of
+ * the array.
+ * </p>
+ * <p>
+ * Registered as a custom codec of the SpaceX WebClient, so it takes precedence over the generic Jackson decoder for
+ * {@link Launch} bodies only. {@link #decodeAll(List)} decodes launches from plain byte buffers, e.g. regions of a
+ * memory-mapped dump file.
+ * </p>
+ */
+public class LaunchJsonDecoder extends AbstractDecoder<Launch> {
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public LaunchJsonDecoder() {
+        super(MimeTypeUtils.APPLICATION_JSON);
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+        return elementType.toClass() == Launch.class && super.canDecode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<Launch> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType, MimeType mimeType,
+                               Map<String, Object> hints) {
+        return Flux.defer(() -> {
+            LaunchParser parser = new LaunchParser();
+            return Flux.from(inputStream)
+                    .concatMapIterable(parser::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(parser.endOfInput())))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        });
+    }
+
+    @Override
+    public Mono<Launch> decodeToMono(Publisher<DataBuffer> inputStream, ResolvableType elementType, MimeType mimeType,
+                                     Map<String, Object> hints) {
+        return decode(inputStream, elementType, mimeType, hints).singleOrEmpty();
+    }
+
+    /**
+     * Decodes the launches of one JSON document split over consecutive buffers, read in order without copying.
+     *
+     * @param buffers consecutive parts of a launches JSON array (or a single launch object)
+     * @return the decoded launches, in document order
+     * @throws DecodingException if the JSON is invalid or ends before its closing bracket
+     */
+    public List<Launch> decodeAll(List<ByteBuffer> buffers) {
+        LaunchParser parser = new LaunchParser();
+        List<Launch> launches = new ArrayList<>();
+        try {
+            for (ByteBuffer buffer : buffers) {
+                parser.feed(buffer, launches);
+            }
+        } catch (IOException e) {
+            throw new DecodingException("Invalid launches JSON", e);
+        }
+        launches.addAll(parser.endOfInput());
+        return launches;
+    }
+
+    /**
+     * Parsing state of one response: the nesting depth and the launch being read.
+     */
+    private final class LaunchParser {
+        private final JsonParser parser;
+        private int depth;
+        private int launchDepth;
+        private Launch.LaunchBuilder launch;
+        private String field;
+
+        private LaunchParser() {
+            try {
+                this.parser = jsonFactory.createNonBlockingByteBufferParser();
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create non-blocking JSON parser", e);
+            }
+        }
+
+        private List<Launch> feed(DataBuffer buffer) {
+            List<Launch> launches = new ArrayList<>();
+            try (DataBuffer.ByteBufferIterator byteBuffers = buffer.readableByteBuffers()) {
+                while (byteBuffers.hasNext()) {
+                    feed(byteBuffers.next(), launches);
+                }
+            } catch (IOException e) {
+                throw new DecodingException("Invalid launches JSON", e);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+            return launches;
+        }
+
+        private void feed(ByteBuffer buffer, List<Launch> launches) throws IOException {
+            ((ByteBufferFeeder) parser.getNonBlockingInputFeeder()).feedInput(buffer);
+            readAvailable(launches);
+        }
+
+        private List<Launch> endOfInput() {
+            List<Launch> launches = new ArrayList<>();
+            try {
+                parser.getNonBlockingInputFeeder().endOfInput();
+                readAvailable(launches);
+            } catch (IOException e) {
+                throw new DecodingException("Invalid launches JSON", e);
+            }
+            if (depth != 0) {
+                throw new DecodingException("Launches JSON ended before its closing bracket");
+            }
+            return launches;
+        }
+
+        /**
+         * Reads the tokens parsed so far, adding each launch whose object ended to the given list.
+         */
+        private void readAvailable(List<Launch> launches) throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                switch (token) {
+                    case START_ARRAY, START_OBJECT -> {
+                        if (depth == 0) {
+                            launchDepth = token == JsonToken.START_ARRAY ? 2 : 1;
+                        }
+                        depth++;
+                        if (depth == launchDepth) {
+                            if (token != JsonToken.START_OBJECT) {
+                                throw new DecodingException("Expected a launch object, got an array");
+                            }
+                            launch = Launch.builder();
+                        }
+                    }
+                    case END_ARRAY, END_OBJECT -> {
+                        if (depth == launchDepth) {
+                            launches.add(launch.build());
+                            launch = null;
+                        }
+                        depth--;
+                    }
+                    case FIELD_NAME -> field = depth == launchDepth ? parser.currentName() : null;
+                    case VALUE_STRING -> {
+                        if (depth == launchDepth) {
+                            readField(parser.getText());
+                        }
+                    }
+                    default -> {
+                        // numbers, booleans and nulls, of launches or of their nested values, are not mapped
+                    }
+                }
+            }
+        }
+
+        private void readField(String value) {
+            switch (field) {
+                case "rocket" -> launch.rocketId(value);
+                case "launchpad" -> launch.launchPadId(value);
+                case "date_utc" -> {
+                    try {
+                        launch.date(Instant.parse(value));
+                    } catch (DateTimeParseException e) {
+                        throw new DecodingException("Invalid launch date_utc '%s'".formatted(value), e);
+                    }
+                }
+                default -> {
+                    // other string properties of the launch are not mapped
+                }
+            }
+        }
+    }
+}
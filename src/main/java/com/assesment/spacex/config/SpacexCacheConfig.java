@@ -0,0 +1,99 @@
+package com.assesment.spacex.config;
+
+import com.assesment.spacex.domain.LaunchPad;
+import com.assesment.spacex.domain.Rocket;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Configuration
+@Slf4j
+public class SpacexCacheConfig {
+
+    /**
+     * Configures the async cache sitting in front of the SpaceX /rockets/{id} api.
+     * <p>
+     * Entries are bounded by size and expire after the configured ttl. A rocket that SpaceX answered
+     * with 404 is cached as {@link Optional#empty()} for the (shorter) negative ttl so unknown ids are not
+     * looked up again on every launch.
+     * </p>
+     * <p>
+     * Hit, miss, load and eviction statistics are published as cache metrics named rocket.
+     * </p>
+     *
+     * @param maximumSize maximum number of rockets kept in memory
+     * @param ttl         time a found rocket is kept before it is looked up again
+     * @param negativeTtl time a missing rocket is kept before it is looked up again
+     * @param meterRegistry registry the cache statistics are published to
+     * @return an {@link AsyncCache} of rocket id to {@link Rocket}
+     */
+    @Bean
+    public AsyncCache<String, Optional<Rocket>> rocketCache(@Value("${spacex.cache.maximumSize:1000}") long maximumSize,
+                                                            @Value("${spacex.cache.ttl:6h}") Duration ttl,
+                                                            @Value("${spacex.cache.negativeTtl:5m}") Duration negativeTtl,
+                                                            MeterRegistry meterRegistry) {
+        log.info("Rocket cache - maximumSize %d ttl %s negativeTtl %s".formatted(maximumSize, ttl, negativeTtl));
+        return CaffeineCacheMetrics.monitor(meterRegistry, buildCache(maximumSize, ttl, negativeTtl), "rocket");
+    }
+
+    /**
+     * Configures the async cache sitting in front of the SpaceX /launchpads/{id} api.
+     * <p>
+     * Same bounds and expiry rules as {@link #rocketCache(long, Duration, Duration, MeterRegistry)}, published as
+     * cache metrics named launchpad.
+     * </p>
+     *
+     * @param maximumSize maximum number of launch pads kept in memory
+     * @param ttl         time a found launch pad is kept before it is looked up again
+     * @param negativeTtl time a missing launch pad is kept before it is looked up again
+     * @param meterRegistry registry the cache statistics are published to
+     * @return an {@link AsyncCache} of launch pad id to {@link LaunchPad}
+     */
+    @Bean
+    public AsyncCache<String, Optional<LaunchPad>> launchPadCache(@Value("${spacex.cache.maximumSize:1000}") long maximumSize,
+                                                                  @Value("${spacex.cache.ttl:6h}") Duration ttl,
+                                                                  @Value("${spacex.cache.negativeTtl:5m}") Duration negativeTtl,
+                                                                  MeterRegistry meterRegistry) {
+        log.info("LaunchPad cache - maximumSize %d ttl %s negativeTtl %s".formatted(maximumSize, ttl, negativeTtl));
+        return CaffeineCacheMetrics.monitor(meterRegistry, buildCache(maximumSize, ttl, negativeTtl), "launchpad");
+    }
+
+    private static <T> AsyncCache<String, Optional<T>> buildCache(long maximumSize, Duration ttl, Duration negativeTtl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PresenceAwareExpiry<T>(ttl, negativeTtl))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Expires found values after the ttl and missing (404) values after the negative ttl.
+     * Reads do not extend the lifetime of an entry.
+     */
+    private record PresenceAwareExpiry<T>(Duration ttl, Duration negativeTtl) implements Expiry<String, Optional<T>> {
+
+        @Override
+        public long expireAfterCreate(String key, Optional<T> value, long currentTime) {
+            return value.isPresent() ? ttl.toNanos() : negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<T> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<T> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
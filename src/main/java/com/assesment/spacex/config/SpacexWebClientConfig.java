@@ -1,10 +1,22 @@
 package com.assesment.spacex.config;
 
+import com.assesment.spacex.client.AdaptiveConcurrencyLimiter;
+import com.assesment.spacex.client.LaunchJsonDecoder;
+import com.assesment.spacex.metrics.UpstreamMetricsFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -13,6 +25,36 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 @Slf4j
 public class SpacexWebClientConfig {
 
+    @Value("${spacex.client.maxConnections:50}")
+    private int maxConnections = 50;
+    @Value("${spacex.client.pendingAcquireMaxCount:500}")
+    private int pendingAcquireMaxCount = 500;
+    @Value("${spacex.client.pendingAcquireTimeout:PT10S}")
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+    @Value("${spacex.client.maxIdleTime:PT30S}")
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    @Value("${spacex.client.connectTimeout:PT2S}")
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    @Value("${spacex.client.responseTimeout:PT10S}")
+    private Duration responseTimeout = Duration.ofSeconds(10);
+    @Value("${spacex.client.compression:true}")
+    private boolean compression = true;
+    @Value("${spacex.client.http2:false}")
+    private boolean http2 = false;
+
+    @Value("${spacex.client.limit.initial:20}")
+    private int initialLimit = 20;
+    @Value("${spacex.client.limit.min:2}")
+    private int minLimit = 2;
+    @Value("${spacex.client.limit.max:100}")
+    private int maxLimit = 100;
+    @Value("${spacex.client.limit.backoffRatio:0.9}")
+    private double backoffRatio = 0.9;
+    @Value("${spacex.client.limit.latencyTolerance:2.0}")
+    private double latencyTolerance = 2.0;
+    @Value("${spacex.client.limit.maxQueued:1000}")
+    private int maxQueued = 1000;
+
     /**
      * Configures and provides a WebClient bean for making API requests to SpaceX's exposed APIs.
      * <p>
@@ -23,16 +65,93 @@ public class SpacexWebClientConfig {
      *
      * <p>logged baser uri for debugging purposes</p>
      *
+     * <p>Calls go over the pooled {@link #spacexConnectionProvider()} with connect and response timeouts, gzip
+     * and optionally HTTP/2 (spacex.client.*). They are admitted by the {@link AdaptiveConcurrencyLimiter} and
+     * then timed per endpoint and status by an {@link UpstreamMetricsFilter}, so the upstream latency excludes the
+     * time waited for the limiter.</p>
+     *
+     * <p>Launch bodies are decoded by the streaming {@link LaunchJsonDecoder} instead of Jackson databinding.</p>
+     *
      * @param baseUri the base URI for SpaceX API, sourced from the application.yaml configuration file
      *                based on the active Spring profile.
+     * @param spacexConnectionProvider connection pool for the SpaceX API
+     * @param spacexConcurrencyLimiter limiter of concurrent calls to the SpaceX API
+     * @param meterRegistry registry the upstream call metrics are published to
      * @return a configured {@link WebClient} instance for interacting with SpaceX APIs
      */
     @Bean
-    public WebClient spacexWebClient(@Value("${spacex.baseUri}") String baseUri) {
+    public WebClient spacexWebClient(@Value("${spacex.baseUri}") String baseUri,
+                                     ConnectionProvider spacexConnectionProvider,
+                                     AdaptiveConcurrencyLimiter spacexConcurrencyLimiter,
+                                     MeterRegistry meterRegistry) {
         log.info("Base uri being used - %s".formatted(baseUri));
+        log.info("SpaceX client - connectTimeout %s responseTimeout %s compression %s http2 %s"
+                .formatted(connectTimeout, responseTimeout, compression, http2));
+        HttpClient httpClient = HttpClient.create(spacexConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout)
+                .compress(compression);
+        if (http2) {
+            httpClient = baseUri.startsWith("https")
+                    ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure()
+                    : httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
         return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .defaultHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
                 .baseUrl(baseUri)
+                .codecs(codecs -> codecs.customCodecs().register(new LaunchJsonDecoder()))
+                .filter(spacexConcurrencyLimiter)
+                .filter(new UpstreamMetricsFilter(meterRegistry))
                 .build();
     }
+
+    /**
+     * Configures the connection pool of the SpaceX WebClient.
+     * <p>
+     * At most maxConnections connections are opened; further requests wait for a connection in a queue of at most
+     * pendingAcquireMaxCount for up to pendingAcquireTimeout. Connections idle for longer than maxIdleTime are
+     * closed, also in the background, so a restarted or rebalanced upstream is not called on a dead connection.
+     * </p>
+     *
+     * @return the {@link ConnectionProvider} of the SpaceX WebClient
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider spacexConnectionProvider() {
+        log.info("SpaceX connection pool - maxConnections %d pendingAcquireMaxCount %d maxIdleTime %s"
+                .formatted(maxConnections, pendingAcquireMaxCount, maxIdleTime));
+        return ConnectionProvider.builder("spacex")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Configures the adaptive limit of concurrent calls to the SpaceX API (spacex.client.limit.*).
+     * <p>
+     * The current limit, the calls in flight and the calls waiting for a slot are published as the
+     * spacex.upstream.concurrency.limit, .in.flight and .queued gauges.
+     * </p>
+     *
+     * @param meterRegistry registry the limiter gauges are published to
+     * @return the {@link AdaptiveConcurrencyLimiter} of the SpaceX WebClient
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter spacexConcurrencyLimiter(MeterRegistry meterRegistry) {
+        log.info("SpaceX concurrency limit - initial %d min %d max %d backoffRatio %s latencyTolerance %s"
+                .formatted(initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                backoffRatio, latencyTolerance, maxQueued);
+        Gauge.builder("spacex.upstream.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .register(meterRegistry);
+        Gauge.builder("spacex.upstream.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .register(meterRegistry);
+        Gauge.builder("spacex.upstream.concurrency.queued", limiter, AdaptiveConcurrencyLimiter::queued)
+                .register(meterRegistry);
+        return limiter;
+    }
 }
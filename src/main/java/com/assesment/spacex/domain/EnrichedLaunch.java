@@ -0,0 +1,30 @@
+package com.assesment.spacex.domain;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Launch as streamed by the enriched launches endpoint: the date of the launch with the names of its rocket and
+ * launch pad resolved.
+ */
+@Value
+@Builder
+public class EnrichedLaunch {
+    String rocketName;
+    String launchPadName;
+    Instant date;
+
+    /**
+     * @param launch a {@link Launch} with its rocket type and launch pad name set
+     * @return the enriched view of the launch
+     */
+    public static EnrichedLaunch of(Launch launch) {
+        return EnrichedLaunch.builder()
+                .rocketName(launch.getRocketType())
+                .launchPadName(launch.getLaunchPadName())
+                .date(launch.getDate())
+                .build();
+    }
+}
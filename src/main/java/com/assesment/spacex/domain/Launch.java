@@ -15,7 +15,7 @@ import java.time.Instant;
  * </p>
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class Launch {
 
     @JsonProperty("rocket")
@@ -0,0 +1,105 @@
+package com.assesment.spacex.domain;
+
+import com.assesment.spacex.store.LaunchColumnStore;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the launch aggregates served by the task endpoints.
+ * <p>
+ * Computed off the request path by the aggregate refresher and swapped in as a whole, so readers always see
+ * launches by year and launches by site computed from the same refresh.
+ * </p>
+ * <p>
+ * {@code latestLaunchDate} is the high-water mark of the past launches folded in so far, {@code reconciledAt} the
+ * time of the last full recomputation from /launches. {@code launches} holds the enriched launches the aggregates
+ * were computed from, when they were retained.
+ * </p>
+ */
+@Value
+@Builder(toBuilder = true)
+public class LaunchAggregates {
+    Map<String, Map<Integer, Long>> launchesByYear;
+    Map<String, Map<String, Long>> launchesBySite;
+    Instant latestLaunchDate;
+    Instant refreshedAt;
+    Instant reconciledAt;
+    LaunchColumnStore launches;
+
+    /**
+     * Splits the retained launches at the given time, as of which they were fetched: launches dated after it are
+     * upcoming and kept as pending launches of the store. The watermark becomes the date of the latest launch at or
+     * before that time, so the next incremental refresh fetches the upcoming launches again along with any launch
+     * added since, instead of skipping everything dated before the furthest scheduled launch.
+     *
+     * @param cutoff time the launches were fetched at
+     * @return these aggregates with their launches settled, or this instance when no launches were retained
+     */
+    public LaunchAggregates settledAt(Instant cutoff) {
+        if (launches == null) {
+            return this;
+        }
+        long epochMilli = cutoff.toEpochMilli();
+        return toBuilder()
+                .latestLaunchDate(launches.latestLaunchDateUpTo(epochMilli))
+                .launches(new LaunchColumnStore().settle(launches, epochMilli))
+                .build();
+    }
+
+    /**
+     * Folds the aggregates of newly ingested launches into these aggregates.
+     * <p>
+     * Counts of the same rocket and year/site are added up. When both retain their launches, the pending (upcoming)
+     * launches of this instance are taken back out first, since the delta, fetched past the watermark, holds them
+     * again; the launches of the delta are settled at {@code cutoff} into an extension of this instance's store,
+     * which shares its columns rather than copying them, and the watermark moves to the latest launch at or before
+     * {@code cutoff}. Otherwise the later of both watermarks is kept. Neither instance is modified.
+     * </p>
+     *
+     * @param delta  aggregates computed over the launches fetched past the watermark of these aggregates
+     * @param cutoff time the delta was fetched at
+     * @return the combined aggregates, with the refresh times of this instance
+     */
+    public LaunchAggregates plus(LaunchAggregates delta, Instant cutoff) {
+        if (launches == null || delta.getLaunches() == null) {
+            return toBuilder()
+                    .launchesByYear(addCounts(launchesByYear, delta.getLaunchesByYear(), 1))
+                    .launchesBySite(addCounts(launchesBySite, delta.getLaunchesBySite(), 1))
+                    .latestLaunchDate(latest(latestLaunchDate, delta.getLatestLaunchDate()))
+                    .launches(launches == null ? delta.getLaunches() : launches)
+                    .build();
+        }
+        LaunchColumnStore pending = launches.pendingRows();
+        long epochMilli = cutoff.toEpochMilli();
+        return toBuilder()
+                .launchesByYear(addCounts(addCounts(launchesByYear, pending.countByRocketAndYear(), -1),
+                        delta.getLaunchesByYear(), 1))
+                .launchesBySite(addCounts(addCounts(launchesBySite, pending.countByRocketAndSite(), -1),
+                        delta.getLaunchesBySite(), 1))
+                .latestLaunchDate(latest(latestLaunchDate, delta.getLaunches().latestLaunchDateUpTo(epochMilli)))
+                .launches(launches.settle(delta.getLaunches(), epochMilli))
+                .build();
+    }
+
+    private static <K> Map<String, Map<K, Long>> addCounts(Map<String, Map<K, Long>> base,
+                                                         Map<String, Map<K, Long>> delta, int sign) {
+        Map<String, Map<K, Long>> sum = new HashMap<>();
+        base.forEach((rocket, counts) -> sum.put(rocket, new HashMap<>(counts)));
+        delta.forEach((rocket, counts) -> counts.forEach((key, count) ->
+                sum.computeIfAbsent(rocket, ignored -> new HashMap<>()).merge(key, sign * count, Long::sum)));
+        sum.values().forEach(counts -> counts.values().removeIf(count -> count == 0));
+        sum.values().removeIf(Map::isEmpty);
+        return sum;
+    }
+
+    private static Instant latest(Instant first, Instant second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null || first.isAfter(second) ? first : second;
+    }
+}
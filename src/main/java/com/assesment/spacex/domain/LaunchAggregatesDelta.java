@@ -0,0 +1,80 @@
+package com.assesment.spacex.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cells of the launches by year and launches by site aggregates that changed between two snapshots.
+ * <p>
+ * Each cell holds the new count of its rocket and year/site, 0 when the cell no longer exists, so applying a delta
+ * to the aggregates it was computed from yields the newer aggregates. Unchanged rockets are left out; a delta from
+ * no aggregates at all holds every cell.
+ * </p>
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class LaunchAggregatesDelta {
+    Map<String, Map<Integer, Long>> launchesByYear;
+    Map<String, Map<String, Long>> launchesBySite;
+    Instant refreshedAt;
+
+    /**
+     * @param aggregates the aggregates
+     * @return a delta holding every cell of the aggregates
+     */
+    public static LaunchAggregatesDelta of(LaunchAggregates aggregates) {
+        return between(null, aggregates);
+    }
+
+    /**
+     * @param previous aggregates the delta applies to, null for none
+     * @param current  aggregates the delta leads to
+     * @return the cells whose count differs between both aggregates
+     */
+    public static LaunchAggregatesDelta between(LaunchAggregates previous, LaunchAggregates current) {
+        return LaunchAggregatesDelta.builder()
+                .launchesByYear(changedCells(previous == null ? Map.of() : previous.getLaunchesByYear(),
+                        current.getLaunchesByYear()))
+                .launchesBySite(changedCells(previous == null ? Map.of() : previous.getLaunchesBySite(),
+                        current.getLaunchesBySite()))
+                .refreshedAt(current.getRefreshedAt())
+                .build();
+    }
+
+    /**
+     * @return true if no cell changed
+     */
+    @JsonIgnore
+    public boolean isEmpty() {
+        return launchesByYear.isEmpty() && launchesBySite.isEmpty();
+    }
+
+    private static <K> Map<String, Map<K, Long>> changedCells(Map<String, Map<K, Long>> previous,
+                                                              Map<String, Map<K, Long>> current) {
+        Map<String, Map<K, Long>> changed = new HashMap<>();
+        Set<String> rockets = new HashSet<>(previous.keySet());
+        rockets.addAll(current.keySet());
+        for (String rocket : rockets) {
+            Map<K, Long> before = previous.getOrDefault(rocket, Map.of());
+            Map<K, Long> after = current.getOrDefault(rocket, Map.of());
+            Set<K> keys = new HashSet<>(before.keySet());
+            keys.addAll(after.keySet());
+            for (K key : keys) {
+                long count = after.getOrDefault(key, 0L);
+                if (count != before.getOrDefault(key, 0L)) {
+                    changed.computeIfAbsent(rocket, ignored -> new HashMap<>()).put(key, count);
+                }
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,26 @@
+package com.assesment.spacex.domain;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Dimension of a launch that the aggregate query can group by or filter on.
+ */
+public enum LaunchDimension {
+    ROCKET,
+    SITE,
+    YEAR;
+
+    /**
+     * @param name dimension name as used in query parameters, case insensitive (e.g. "rocket")
+     * @return the matching dimension
+     * @throws IllegalArgumentException if no dimension has that name
+     */
+    public static LaunchDimension fromParameter(String name) {
+        return Arrays.stream(values())
+                .filter(dimension -> dimension.name().equals(name.trim().toUpperCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown dimension '%s', expected one of %s"
+                        .formatted(name, Arrays.toString(values()).toLowerCase(Locale.ROOT))));
+    }
+}
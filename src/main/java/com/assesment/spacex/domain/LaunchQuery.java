@@ -0,0 +1,27 @@
+package com.assesment.spacex.domain;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generic group-by/filter query over the launch dimensions.
+ * <p>
+ * Launches are filtered by the given values per dimension (values of one dimension are OR-ed, dimensions are
+ * AND-ed) and by an inclusive UTC year range, then counted grouped by the {@code groupBy} dimensions in order.
+ * </p>
+ */
+@Value
+@Builder
+public class LaunchQuery {
+    @Singular("groupBy")
+    List<LaunchDimension> groupBy;
+    @Singular
+    Map<LaunchDimension, Set<String>> filters;
+    Integer fromYear;
+    Integer toYear;
+}
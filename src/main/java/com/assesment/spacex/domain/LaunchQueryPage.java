@@ -0,0 +1,23 @@
+package com.assesment.spacex.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page POJO to map the paginated response of the /launches/query api from spacex.
+ * <p>
+ * Only the matched launches and the number of pages are mapped, other paging metadata is ignored.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LaunchQueryPage {
+    private List<Launch> docs;
+    private int totalPages;
+}
@@ -0,0 +1,55 @@
+package com.assesment.spacex.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Several launch rollups computed from one pass over the enriched launches, as served by the report endpoint.
+ * <p>
+ * Only the requested {@link LaunchRollup}s are set; the others are null and left out of the JSON.
+ * </p>
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LaunchReport {
+    Map<String, Map<Integer, Long>> launchesByYear;
+    Map<String, Map<String, Long>> launchesBySite;
+    Map<String, Long> launchesPerRocket;
+    Map<String, Map<Integer, Long>> launchesBySiteAndYear;
+
+    /**
+     * Builds the report from an aggregates snapshot. Launches by site and year are counted from the snapshot's
+     * launch store.
+     *
+     * @param aggregates snapshot with its launches retained
+     * @param rollups    rollups to include
+     * @return the report of the snapshot
+     */
+    public static LaunchReport from(LaunchAggregates aggregates, Set<LaunchRollup> rollups) {
+        return LaunchReport.builder()
+                .launchesByYear(rollups.contains(LaunchRollup.BY_YEAR) ? aggregates.getLaunchesByYear() : null)
+                .launchesBySite(rollups.contains(LaunchRollup.BY_SITE) ? aggregates.getLaunchesBySite() : null)
+                .launchesPerRocket(rollups.contains(LaunchRollup.PER_ROCKET) ? totals(aggregates.getLaunchesByYear()) : null)
+                .launchesBySiteAndYear(rollups.contains(LaunchRollup.BY_SITE_AND_YEAR)
+                        ? aggregates.getLaunches().countBySiteAndYear()
+                        : null)
+                .build();
+    }
+
+    /**
+     * @param launchesByYear launch counts per rocket and year
+     * @return launch counts per rocket
+     */
+    public static Map<String, Long> totals(Map<String, Map<Integer, Long>> launchesByYear) {
+        Map<String, Long> totals = new HashMap<>();
+        launchesByYear.forEach((rocket, counts) ->
+                totals.put(rocket, counts.values().stream().mapToLong(Long::longValue).sum()));
+        return totals;
+    }
+}
@@ -0,0 +1,55 @@
+package com.assesment.spacex.domain;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Rollup of the launches that the launch report can include.
+ */
+public enum LaunchRollup {
+    /** launches per rocket and UTC year */
+    BY_YEAR("byYear", false),
+    /** launches per rocket and launch site */
+    BY_SITE("bySite", true),
+    /** launches per rocket */
+    PER_ROCKET("perRocket", false),
+    /** launches per launch site and UTC year */
+    BY_SITE_AND_YEAR("bySiteAndYear", true);
+
+    private final String parameter;
+    private final boolean needsLaunchPad;
+
+    LaunchRollup(String parameter, boolean needsLaunchPad) {
+        this.parameter = parameter;
+        this.needsLaunchPad = needsLaunchPad;
+    }
+
+    /**
+     * @param name rollup name as used in query parameters, case insensitive (e.g. "bySite")
+     * @return the matching rollup
+     * @throws IllegalArgumentException if no rollup has that name
+     */
+    public static LaunchRollup fromParameter(String name) {
+        return Arrays.stream(values())
+                .filter(rollup -> rollup.parameter.toLowerCase(Locale.ROOT).equals(name.trim().toLowerCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown rollup '%s', expected one of %s"
+                        .formatted(name, Arrays.stream(values()).map(rollup -> rollup.parameter).toList())));
+    }
+
+    /**
+     * @return rollup name as used in query parameters (e.g. "bySite")
+     */
+    public String getParameter() {
+        return parameter;
+    }
+
+    /**
+     * @param rollups rollups to compute
+     * @return true if any of the rollups needs the launch pad names of the launches, not only the rocket names
+     */
+    public static boolean needLaunchPads(Set<LaunchRollup> rollups) {
+        return rollups.stream().anyMatch(rollup -> rollup.needsLaunchPad);
+    }
+}
@@ -0,0 +1,26 @@
+package com.assesment.spacex.domain;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Time range query over the launch dates, per rocket.
+ * <p>
+ * Counts the launches of the given rockets (all rockets when none is given) dated from {@code from} inclusive to
+ * {@code to} exclusive; an open bound is unbounded. With a granularity the counts are broken down into UTC time
+ * buckets of that width, buckets overlapping the range being counted whole.
+ * </p>
+ */
+@Value
+@Builder
+public class LaunchTimelineQuery {
+    @Singular
+    Set<String> rockets;
+    TimeGranularity granularity;
+    Instant from;
+    Instant to;
+}
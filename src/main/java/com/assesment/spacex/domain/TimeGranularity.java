@@ -0,0 +1,65 @@
+package com.assesment.spacex.domain;
+
+import com.assesment.spacex.store.UtcCalendar;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Width of the UTC time buckets the launch timeline counts launches in.
+ * <p>
+ * Buckets are numbered consecutively so that neighbouring buckets have neighbouring numbers: days and weeks since
+ * the epoch (weeks start on Monday), months as year * 12 + (month - 1) and years as is.
+ * </p>
+ */
+public enum TimeGranularity {
+    DAY,
+    WEEK,
+    MONTH,
+    YEAR;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * @param epochMilli milliseconds since 1970-01-01T00:00:00Z
+     * @return number of the bucket holding the instant
+     */
+    public long bucketOf(long epochMilli) {
+        long epochDay = Math.floorDiv(epochMilli, MILLIS_PER_DAY);
+        return switch (this) {
+            case DAY -> epochDay;
+            // 1970-01-01 was a Thursday, so shifting by three days makes weeks start on Monday
+            case WEEK -> Math.floorDiv(epochDay + 3, 7);
+            case MONTH -> UtcCalendar.yearMonthOf(epochMilli);
+            case YEAR -> UtcCalendar.yearOf(epochMilli);
+        };
+    }
+
+    /**
+     * @param bucket a bucket number as returned by {@link #bucketOf(long)}
+     * @return the ISO label of the bucket: 2024-01-21 for days, the date of its Monday for weeks, 2024-01 for
+     *         months and 2024 for years
+     */
+    public String label(long bucket) {
+        return switch (this) {
+            case DAY -> LocalDate.ofEpochDay(bucket).toString();
+            case WEEK -> LocalDate.ofEpochDay(bucket * 7 - 3).toString();
+            case MONTH -> "%04d-%02d".formatted(Math.floorDiv(bucket, 12), Math.floorMod(bucket, 12) + 1);
+            case YEAR -> String.valueOf(bucket);
+        };
+    }
+
+    /**
+     * @param name granularity name as used in query parameters, case insensitive (e.g. "month")
+     * @return the matching granularity
+     * @throws IllegalArgumentException if no granularity has that name
+     */
+    public static TimeGranularity fromParameter(String name) {
+        return Arrays.stream(values())
+                .filter(granularity -> granularity.name().equals(name.trim().toUpperCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown granularity '%s', expected one of %s"
+                        .formatted(name, Arrays.toString(values()).toLowerCase(Locale.ROOT))));
+    }
+}
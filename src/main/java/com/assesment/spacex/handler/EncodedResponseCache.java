@@ -0,0 +1,119 @@
+package com.assesment.spacex.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes aggregate results into response bodies once per dataset version.
+ * <p>
+ * A result is serialized with map entries ordered by key (so equal results give equal bytes), given a strong ETag
+ * from a SHA-256 digest of the bytes and gzip compressed; the gzip variant is a different representation and gets
+ * its own strong ETag, the JSON one with a -gzip suffix. Bodies of results taken from an aggregates snapshot are
+ * kept per endpoint key until the snapshot is replaced, so repeated requests skip serialization, hashing and
+ * compression altogether. Cache hits and misses are counted in {@value #BODIES} by result.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class EncodedResponseCache {
+    static final String BODIES = "spacex.handler.encoded.bodies";
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, EncodedBody> bodies = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the body of an endpoint for a dataset version, encoding it only when the version changed.
+     *
+     * @param key     endpoint (and parameters) the body is served for; one body is kept per key
+     * @param version dataset the result is computed from, compared by identity (e.g. the aggregates snapshot)
+     * @param result  computes the result when the body is not cached for this version
+     * @return the encoded body
+     */
+    public EncodedBody encode(String key, Object version, Supplier<Object> result) {
+        EncodedBody cached = bodies.get(key);
+        if (cached != null && cached.version() == version) {
+            count("hit");
+            return cached;
+        }
+        count("miss");
+        EncodedBody encoded = encode(version, result.get());
+        bodies.put(key, encoded);
+        return encoded;
+    }
+
+    /**
+     * Encodes a result without caching it, e.g. one computed live.
+     *
+     * @param result the result to encode
+     * @return the encoded body
+     */
+    public EncodedBody encode(Object result) {
+        return encode(null, result);
+    }
+
+    private EncodedBody encode(Object version, Object result) {
+        try {
+            byte[] json = objectMapper.writer()
+                    .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsBytes(result);
+            String digest = digest(json);
+            return new EncodedBody(version, json, gzip(json), "\"%s\"".formatted(digest), "\"%s-gzip\"".formatted(digest));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void count(String result) {
+        Counter.builder(BODIES)
+                .description("Aggregate response bodies reused from or added to the encoded response cache")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(json);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String digest(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Serialized response body with its gzip variant and their ETags. The arrays are never modified once encoded.
+     *
+     * @param version  dataset version the body was encoded for, null when not cached
+     * @param json     the JSON bytes
+     * @param gzip     the JSON bytes gzip compressed
+     * @param eTag     quoted strong ETag of the JSON bytes
+     * @param gzipETag quoted strong ETag of the gzip bytes
+     */
+    public record EncodedBody(Object version, byte[] json, byte[] gzip, String eTag, String gzipETag) {
+    }
+}
@@ -1,21 +1,79 @@
 package com.assesment.spacex.handler;
 
+import com.assesment.spacex.domain.EnrichedLaunch;
+import com.assesment.spacex.domain.LaunchAggregates;
+import com.assesment.spacex.domain.LaunchAggregatesDelta;
+import com.assesment.spacex.domain.LaunchDimension;
+import com.assesment.spacex.domain.LaunchQuery;
+import com.assesment.spacex.domain.LaunchReport;
+import com.assesment.spacex.domain.LaunchRollup;
+import com.assesment.spacex.domain.LaunchTimelineQuery;
+import com.assesment.spacex.domain.TimeGranularity;
+import com.assesment.spacex.handler.EncodedResponseCache.EncodedBody;
+import com.assesment.spacex.service.LaunchAggregateFeed;
+import com.assesment.spacex.service.LaunchAggregateRefresher;
+import com.assesment.spacex.service.LaunchQueryService;
+import com.assesment.spacex.service.RequestCoalescer;
 import com.assesment.spacex.service.TaskService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.VARY;
 import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class TaskHandler {
+    private static final String RESPONSES = "spacex.handler.responses";
+    private static final int MIN_YEAR = 1;
+    private static final int MAX_YEAR = 9999;
+    private static final ParameterizedTypeReference<ServerSentEvent<EnrichedLaunch>> LAUNCH_EVENT =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final ParameterizedTypeReference<ServerSentEvent<LaunchAggregatesDelta>> AGGREGATES_EVENT =
+            new ParameterizedTypeReference<>() {
+            };
 
     private final TaskService taskService;
+    private final LaunchAggregateRefresher launchAggregateRefresher;
+    private final LaunchQueryService launchQueryService;
+    private final RequestCoalescer requestCoalescer;
+    private final MeterRegistry meterRegistry;
+    private final EncodedResponseCache encodedResponseCache;
+    private final LaunchAggregateFeed launchAggregateFeed;
+
+    @Value("${spacex.refresh.manualTriggerEnabled:true}")
+    private boolean manualRefreshEnabled = true;
 
     /**
      * Handles the HTTP GET request to retrieve the number of rocket launches grouped by year.
@@ -23,6 +81,15 @@ public class TaskHandler {
      * which processes data from the SpaceX API. The result is then returned as a JSON response
      * with an HTTP 200 OK status.</p>
      *
+     * <p>When the {@link LaunchAggregateRefresher} holds a snapshot within the staleness limit, the result is
+     * served from that snapshot instead. Responses are counted in spacex.handler.responses by source (snapshot
+     * or live); latency and status are recorded by the actuator's http.server.requests timer. Concurrent live
+     * requests share one computation through the {@link RequestCoalescer}.</p>
+     *
+     * <p>The response carries an ETag of its content; a request whose If-None-Match matches it is answered with
+     * HTTP 304 and no body. The body is encoded (and gzip compressed for clients accepting gzip) once per snapshot
+     * by the {@link EncodedResponseCache}.</p>
+     *
      * <p>Logs the completion of the operation for monitoring purposes.</p>
      *
      * <p>Example response:</p>
@@ -42,8 +109,12 @@ public class TaskHandler {
      * @return a {@link Mono} of {@link ServerResponse} containing a map of rocket names to their yearly launch counts
      */
     public Mono<ServerResponse> getRocketsLaunchedByYear(ServerRequest serverRequest) {
-        return taskService.getRocketsLaunchedByYear()
-                .flatMap(result -> ServerResponse.status(OK).bodyValue(result))
+        return freshSnapshot("launches-by-year")
+                .map(aggregates -> Mono.fromCallable(() -> encodedResponseCache.encode("launches-by-year", aggregates,
+                        aggregates::getLaunchesByYear)))
+                .orElseGet(() -> requestCoalescer.coalesce("launches-by-year", () -> taskService.getRocketsLaunchedByYear()
+                        .map(encodedResponseCache::encode)))
+                .flatMap(body -> okWithETag(serverRequest, body))
                 .doOnNext(response -> log.info("calculated Launches by year"));
     }
 
@@ -53,6 +124,15 @@ public class TaskHandler {
      * which processes data from the SpaceX API. The result is then returned as a JSON response
      * with an HTTP 200 OK status.</p>
      *
+     * <p>When the {@link LaunchAggregateRefresher} holds a snapshot within the staleness limit, the result is
+     * served from that snapshot instead. Responses are counted in spacex.handler.responses by source (snapshot
+     * or live); latency and status are recorded by the actuator's http.server.requests timer. Concurrent live
+     * requests share one computation through the {@link RequestCoalescer}.</p>
+     *
+     * <p>The response carries an ETag of its content; a request whose If-None-Match matches it is answered with
+     * HTTP 304 and no body. Bodies are encoded once per snapshot like
+     * {@link #getRocketsLaunchedByYear(ServerRequest)}.</p>
+     *
      * <p>Logs the completion of the operation for monitoring purposes.</p>
      *
      * <p>Example response:</p>
@@ -72,11 +152,358 @@ public class TaskHandler {
      * @return a {@link Mono} of {@link ServerResponse} containing a map of rocket names to their site counts
      */
     public Mono<ServerResponse> getLaunchesPerSite(ServerRequest serverRequest) {
-        return taskService.getLaunchesPerSite()
-                .flatMap(result -> ServerResponse.status(OK).bodyValue(result))
+        return freshSnapshot("launches-by-site")
+                .map(aggregates -> Mono.fromCallable(() -> encodedResponseCache.encode("launches-by-site", aggregates,
+                        aggregates::getLaunchesBySite)))
+                .orElseGet(() -> requestCoalescer.coalesce("launches-by-site", () -> taskService.getLaunchesPerSite()
+                        .map(encodedResponseCache::encode)))
+                .flatMap(body -> okWithETag(serverRequest, body))
                 .doOnNext(response -> log.info("calculated Launches by site"));
     }
 
+    /**
+     * Handles the HTTP GET request for a report of several launch rollups computed in one pass.
+     * <p>The optional <b>include</b> query parameter lists the rollups to compute, comma separated (byYear,
+     * bySite, perRocket, bySiteAndYear); all of them by default. Unknown rollups are answered with HTTP 400.</p>
+     *
+     * <p>When the {@link LaunchAggregateRefresher} holds a fresh snapshot the report is built from it; otherwise
+     * the launches are fetched and enriched once by {@link TaskService#getLaunchReport(Set)} for all requested
+     * rollups, which is cheaper than calling the single rollup endpoints one after the other. Concurrent
+     * identical requests share one computation through the {@link RequestCoalescer}. Responses carry an ETag
+     * and honor If-None-Match like {@link #getRocketsLaunchedByYear(ServerRequest)}.</p>
+     *
+     * <p>Example: /task/rocket/report?include=perRocket,bySiteAndYear</p>
+     * <pre>
+     * {
+     *   "launchesPerRocket": {
+     *     "Falcon 9": 97,
+     *     "Falcon Heavy": 3
+     *   },
+     *   "launchesBySiteAndYear": {
+     *     "KSC LC 39A": {
+     *       "2020": 7,
+     *       "2021": 9
+     *     }
+     *   }
+     * }
+     * </pre>
+     *
+     * @param serverRequest the incoming request with the optional include parameter
+     * @return a {@link Mono} of {@link ServerResponse} with the {@link LaunchReport}
+     */
+    public Mono<ServerResponse> getLaunchReport(ServerRequest serverRequest) {
+        Set<LaunchRollup> rollups;
+        try {
+            rollups = toRollups(serverRequest);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().bodyValue(e.getMessage());
+        }
+        return freshSnapshot("report")
+                .map(aggregates -> Mono.fromCallable(() -> encodedResponseCache.encode("report " + rollups, aggregates,
+                        () -> LaunchReport.from(aggregates, rollups))))
+                .orElseGet(() -> requestCoalescer.coalesce("report " + rollups, () -> taskService.getLaunchReport(rollups)
+                        .map(encodedResponseCache::encode)))
+                .flatMap(body -> okWithETag(serverRequest, body))
+                .doOnNext(response -> log.info("calculated launch report %s".formatted(rollups)));
+    }
+
+    /**
+     * Handles the HTTP GET request streaming every launch enriched with its rocket and launch pad names.
+     * <p>The launches are written as they are enriched by {@link TaskService#streamEnrichedLaunches()}, so the
+     * first launches reach the client before the /launches fetch completes, and the stream only advances as
+     * fast as the client reads it. Clients accepting text/event-stream get Server-Sent Events named launch,
+     * all others newline delimited JSON (application/x-ndjson), one launch per line.</p>
+     *
+     * <p>Example line:</p>
+     * <pre>
+     * {"rocketName":"Falcon 9","launchPadName":"KSC LC 39A","date":"2020-01-07T02:19:00Z"}
+     * </pre>
+     *
+     * @param serverRequest the incoming request; its Accept header selects the stream format
+     * @return a {@link Mono} of {@link ServerResponse} streaming the {@link EnrichedLaunch}es
+     */
+    public Mono<ServerResponse> streamEnrichedLaunches(ServerRequest serverRequest) {
+        Flux<EnrichedLaunch> launches = taskService.streamEnrichedLaunches()
+                .doOnComplete(() -> log.info("streamed enriched launches"));
+        if (acceptsEventStream(serverRequest)) {
+            return ServerResponse.status(OK)
+                    .contentType(TEXT_EVENT_STREAM)
+                    .body(launches.map(launch -> ServerSentEvent.builder(launch).event("launch").build()), LAUNCH_EVENT);
+        }
+        return ServerResponse.status(OK)
+                .contentType(APPLICATION_NDJSON)
+                .body(launches, EnrichedLaunch.class);
+    }
+
+    /**
+     * Handles the HTTP GET request subscribing to the launch aggregates as Server-Sent Events.
+     *
+     * <p>The first event, named snapshot, holds every cell of the launches by year and launches by site
+     * aggregates. Each refresh that changes counts is then pushed as an event named delta holding only the changed
+     * cells with their new count (0 for a cell that no longer exists). A client reading too slowly to keep up is
+     * sent a snapshot again instead of the deltas it missed. Events carry the snapshot sequence as their id. See
+     * {@link LaunchAggregateFeed}.</p>
+     *
+     * <p>Example delta:</p>
+     * <pre>
+     * event:delta
+     * id:12
+     * data:{"launchesByYear":{"Falcon 9":{"2024":97}},"launchesBySite":{"Falcon 9":{"CCSFS SLC 40":64}},"refreshedAt":"2024-11-05T10:15:00Z"}
+     * </pre>
+     *
+     * @param serverRequest the incoming request
+     * @return a {@link Mono} of {@link ServerResponse} streaming the aggregate events
+     */
+    public Mono<ServerResponse> subscribeAggregates(ServerRequest serverRequest) {
+        return ServerResponse.status(OK)
+                .contentType(TEXT_EVENT_STREAM)
+                .body(launchAggregateFeed.subscribe().map(event -> ServerSentEvent.builder(event.cells())
+                        .event(event.kind().name().toLowerCase())
+                        .id(String.valueOf(event.sequence()))
+                        .build()), AGGREGATES_EVENT);
+    }
+
+    /**
+     * Handles the HTTP GET request for a generic group-by/filter aggregate over the launches.
+     * <p>Query parameters:</p>
+     * <ul>
+     *   <li><b>groupBy</b>: comma separated dimensions to group by, in order (rocket, site, year)</li>
+     *   <li><b>where</b>: filter as dimension:value, repeatable; values of the same dimension are OR-ed</li>
+     *   <li><b>from</b>/<b>to</b>: inclusive UTC year range</li>
+     * </ul>
+     * <p>The query is answered by the {@link LaunchQueryService} from the in-memory launch indexes; concurrent
+     * identical queries share one evaluation through the {@link RequestCoalescer}. Invalid parameters are
+     * answered with HTTP 400 and the reason. Responses carry an ETag and honor If-None-Match like
+     * {@link #getRocketsLaunchedByYear(ServerRequest)}.</p>
+     *
+     * <p>Example: /task/launches/aggregate?groupBy=rocket,year&amp;where=site:KSC LC 39A&amp;from=2018</p>
+     * <pre>
+     * {
+     *   "Falcon 9": {
+     *     "2018": 12,
+     *     "2019": 9
+     *   },
+     *   "Falcon Heavy": {
+     *     "2018": 1
+     *   }
+     * }
+     * </pre>
+     *
+     * @param serverRequest the incoming request with the query parameters
+     * @return a {@link Mono} of {@link ServerResponse} with nested maps of the group-by values and launch counts
+     */
+    public Mono<ServerResponse> aggregateLaunches(ServerRequest serverRequest) {
+        LaunchQuery query;
+        try {
+            query = toLaunchQuery(serverRequest);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().bodyValue(e.getMessage());
+        }
+        return requestCoalescer.coalesce("aggregate " + query, () -> launchQueryService.aggregate(query)
+                        .map(encodedResponseCache::encode))
+                .flatMap(body -> okWithETag(serverRequest, body))
+                .doOnNext(response -> log.info("calculated launch aggregate %s".formatted(query)));
+    }
+
+    /**
+     * Handles the HTTP GET request for launch counts per rocket within a time range, optionally per time bucket.
+     * <p>Query parameters:</p>
+     * <ul>
+     *   <li><b>from</b>/<b>to</b>: range start (inclusive) and end (exclusive), as an ISO date (UTC midnight) or
+     *   instant; open when left out</li>
+     *   <li><b>granularity</b>: day, week, month or year to break the counts down into UTC buckets, buckets
+     *   overlapping the range being counted whole; a single count per rocket when left out</li>
+     *   <li><b>rocket</b>: rocket name to restrict the counts to, repeatable</li>
+     * </ul>
+     * <p>The query is answered by the {@link LaunchQueryService} from the launch time index without scanning the
+     * launches; concurrent identical queries share one evaluation through the {@link RequestCoalescer}. Invalid
+     * parameters are answered with HTTP 400 and the reason. Responses carry an ETag and honor If-None-Match like
+     * {@link #getRocketsLaunchedByYear(ServerRequest)}.</p>
+     *
+     * <p>Example: /task/launches/timeline?granularity=month&amp;from=2020-01-01&amp;to=2020-04-01</p>
+     * <pre>
+     * {
+     *   "Falcon 9": {
+     *     "2020-01": 3,
+     *     "2020-02": 2,
+     *     "2020-03": 2
+     *   }
+     * }
+     * </pre>
+     *
+     * @param serverRequest the incoming request with the query parameters
+     * @return a {@link Mono} of {@link ServerResponse} with the launch counts per rocket (and bucket)
+     */
+    public Mono<ServerResponse> getLaunchTimeline(ServerRequest serverRequest) {
+        LaunchTimelineQuery query;
+        try {
+            query = toLaunchTimelineQuery(serverRequest);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().bodyValue(e.getMessage());
+        }
+        return requestCoalescer.coalesce("timeline " + query, () -> launchQueryService.timeline(query)
+                        .map(encodedResponseCache::encode))
+                .flatMap(body -> okWithETag(serverRequest, body))
+                .doOnNext(response -> log.info("calculated launch timeline %s".formatted(query)));
+    }
+
+    /**
+     * Handles the HTTP POST request to refresh the launch aggregates snapshot right away.
+     * <p>Waits for the refresh (or the one already in progress) to complete and returns the time of the new
+     * snapshot. Responds with HTTP 404 when spacex.refresh.manualTriggerEnabled is false.</p>
+     *
+     * @param serverRequest the incoming {@link ServerRequest}
+     * @return a {@link Mono} of {@link ServerResponse} containing the refresh time of the new snapshot
+     */
+    public Mono<ServerResponse> refreshAggregates(ServerRequest serverRequest) {
+        if (!manualRefreshEnabled) {
+            return ServerResponse.notFound().build();
+        }
+        return launchAggregateRefresher.refresh()
+                .flatMap(aggregates -> ServerResponse.status(OK)
+                        .bodyValue(Map.of("refreshedAt", aggregates.getRefreshedAt())))
+                .doOnNext(response -> log.info("refreshed launch aggregates on request"));
+    }
+
+    /**
+     * Picks the representation to serve: the gzip variant when the client accepts gzip and it is smaller, the JSON
+     * bytes otherwise. Answers HTTP 304 when the request's If-None-Match matches that representation's ETag,
+     * otherwise HTTP 200 with its bytes. The cached arrays are wrapped, not copied, into the response buffer.
+     */
+    private Mono<ServerResponse> okWithETag(ServerRequest serverRequest, EncodedBody body) {
+        boolean gzip = acceptsGzip(serverRequest) && body.gzip().length < body.json().length;
+        String eTag = gzip ? body.gzipETag() : body.eTag();
+        return serverRequest.checkNotModified(eTag)
+                .switchIfEmpty(Mono.defer(() -> {
+                    ServerResponse.BodyBuilder response = ServerResponse.status(OK)
+                            .eTag(eTag)
+                            .contentType(APPLICATION_JSON)
+                            .header(VARY, ACCEPT_ENCODING);
+                    if (gzip) {
+                        return response.header(CONTENT_ENCODING, "gzip").bodyValue(body.gzip());
+                    }
+                    return response.bodyValue(body.json());
+                }));
+    }
+
+    private static boolean acceptsGzip(ServerRequest serverRequest) {
+        return serverRequest.headers().header(ACCEPT_ENCODING).stream()
+                .flatMap(header -> Arrays.stream(header.split(",")))
+                .map(coding -> coding.split(";"))
+                .anyMatch(coding -> {
+                    String name = coding[0].trim();
+                    return (name.equalsIgnoreCase("gzip") || name.equals("*"))
+                            && Arrays.stream(coding).skip(1).map(String::trim).noneMatch(TaskHandler::isZeroQuality);
+                });
+    }
+
+    private static boolean isZeroQuality(String parameter) {
+        return parameter.startsWith("q=") && parameter.substring(2).matches("0(\\.0*)?");
+    }
+
+    /**
+     * Returns the refresher's fresh snapshot, counting the response as served from the snapshot or live.
+     */
+    private Optional<LaunchAggregates> freshSnapshot(String endpoint) {
+        Optional<LaunchAggregates> snapshot = launchAggregateRefresher.freshSnapshot();
+        Counter.builder(RESPONSES)
+                .description("Aggregate responses by the source they were computed from")
+                .tag("endpoint", endpoint)
+                .tag("source", snapshot.isPresent() ? "snapshot" : "live")
+                .register(meterRegistry)
+                .increment();
+        return snapshot;
+    }
+
+    private static LaunchQuery toLaunchQuery(ServerRequest serverRequest) {
+        LaunchQuery.LaunchQueryBuilder query = LaunchQuery.builder();
+        serverRequest.queryParam("groupBy").stream()
+                .flatMap(groupBy -> Arrays.stream(groupBy.split(",")))
+                .filter(dimension -> !dimension.isBlank())
+                .map(LaunchDimension::fromParameter)
+                .forEach(query::groupBy);
+        Map<LaunchDimension, Set<String>> filters = new EnumMap<>(LaunchDimension.class);
+        for (String where : serverRequest.queryParams().getOrDefault("where", List.of())) {
+            int separator = where.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid filter '%s', expected dimension:value".formatted(where));
+            }
+            LaunchDimension dimension = LaunchDimension.fromParameter(where.substring(0, separator));
+            String value = where.substring(separator + 1);
+            if (dimension == LaunchDimension.YEAR) {
+                parseYear(value);
+            }
+            filters.computeIfAbsent(dimension, ignored -> new HashSet<>()).add(value);
+        }
+        return query.filters(filters)
+                .fromYear(serverRequest.queryParam("from").map(TaskHandler::parseYear).orElse(null))
+                .toYear(serverRequest.queryParam("to").map(TaskHandler::parseYear).orElse(null))
+                .build();
+    }
+
+    private static boolean acceptsEventStream(ServerRequest serverRequest) {
+        List<MediaType> accept = serverRequest.headers().accept();
+        return accept.stream().anyMatch(TEXT_EVENT_STREAM::equalsTypeAndSubtype)
+                && accept.stream().noneMatch(APPLICATION_NDJSON::equalsTypeAndSubtype);
+    }
+
+    private static Set<LaunchRollup> toRollups(ServerRequest serverRequest) {
+        Set<LaunchRollup> rollups = EnumSet.noneOf(LaunchRollup.class);
+        serverRequest.queryParams().getOrDefault("include", List.of()).stream()
+                .flatMap(include -> Arrays.stream(include.split(",")))
+                .filter(rollup -> !rollup.isBlank())
+                .map(LaunchRollup::fromParameter)
+                .forEach(rollups::add);
+        return rollups.isEmpty() ? EnumSet.allOf(LaunchRollup.class) : rollups;
+    }
+
+    private static LaunchTimelineQuery toLaunchTimelineQuery(ServerRequest serverRequest) {
+        return LaunchTimelineQuery.builder()
+                .rockets(serverRequest.queryParams().getOrDefault("rocket", List.of()))
+                .granularity(serverRequest.queryParam("granularity").map(TimeGranularity::fromParameter).orElse(null))
+                .from(serverRequest.queryParam("from").map(TaskHandler::parseInstant).orElse(null))
+                .to(serverRequest.queryParam("to").map(TaskHandler::parseInstant).orElse(null))
+                .build();
+    }
+
+    /**
+     * Parses a timeline bound, rejecting instants the launch time index cannot hold as epoch millis.
+     */
+    private static Instant parseInstant(String value) {
+        Instant instant;
+        try {
+            String trimmed = value.trim();
+            instant = trimmed.contains("T")
+                    ? Instant.parse(trimmed)
+                    : LocalDate.parse(trimmed).atStartOfDay(ZoneOffset.UTC).toInstant();
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid date '%s', expected an ISO date or instant".formatted(value));
+        }
+        try {
+            instant.toEpochMilli();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Date '%s' is out of range".formatted(value));
+        }
+        return instant;
+    }
+
+    /**
+     * Parses a year of a launch query, bounded to {@value #MIN_YEAR}..{@value #MAX_YEAR} so the start of the year
+     * after it is still a valid epoch milli for the launch index.
+     */
+    private static Integer parseYear(String year) {
+        int parsed;
+        try {
+            parsed = Integer.parseInt(year.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid year '%s'".formatted(year));
+        }
+        if (parsed < MIN_YEAR || parsed > MAX_YEAR) {
+            throw new IllegalArgumentException("Invalid year '%s', expected %d to %d".formatted(year, MIN_YEAR, MAX_YEAR));
+        }
+        return parsed;
+    }
+
     /**
      * Handles the HTTP GET request for the application's base URI.
      * <p>This endpoint serves as a simple welcome message to verify the application's accessibility
@@ -0,0 +1,82 @@
+package com.assesment.spacex.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times one run of a fetch, enrich and aggregate pipeline, stage by stage.
+ * <p>
+ * The stages of a reactive pipeline overlap: launches are enriched while still being fetched and counted while
+ * still being enriched. Each stage is therefore charged the wall time from the end of the previous stage (or the
+ * start of the run) until its own end, so the stage timers of a run add up to its total time and show which stage
+ * the run was waiting on. Stages are recorded in the {@value #STAGES} timer tagged with pipeline and stage, the
+ * whole run in the {@value #PIPELINES} timer tagged with pipeline and outcome.
+ * </p>
+ * <p>
+ * Create one instance per subscription, e.g. inside {@code Mono.defer}.
+ * </p>
+ */
+public class PipelineTimer {
+    public static final String PIPELINES = "spacex.pipeline";
+    public static final String STAGES = "spacex.pipeline.stage";
+
+    private final MeterRegistry meterRegistry;
+    private final String pipeline;
+    private final long startNanos;
+    private long lastMarkNanos;
+
+    private PipelineTimer(MeterRegistry meterRegistry, String pipeline) {
+        this.meterRegistry = meterRegistry;
+        this.pipeline = pipeline;
+        this.startNanos = meterRegistry.config().clock().monotonicTime();
+        this.lastMarkNanos = startNanos;
+    }
+
+    /**
+     * @param meterRegistry registry to record the timers in
+     * @param pipeline      name of the pipeline, used as tag
+     * @return a timer started now
+     */
+    public static PipelineTimer start(MeterRegistry meterRegistry, String pipeline) {
+        return new PipelineTimer(meterRegistry, pipeline);
+    }
+
+    /**
+     * Records the end of a stage.
+     *
+     * @param stage name of the stage that just ended
+     */
+    public synchronized void stageEnded(String stage) {
+        long now = meterRegistry.config().clock().monotonicTime();
+        Timer.builder(STAGES)
+                .description("Time a pipeline stage extends a pipeline run by")
+                .tag("pipeline", pipeline)
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .record(now - lastMarkNanos, TimeUnit.NANOSECONDS);
+        lastMarkNanos = now;
+    }
+
+    /**
+     * Records the whole run.
+     *
+     * @param signal signal the run terminated with
+     */
+    public void finished(SignalType signal) {
+        long now = meterRegistry.config().clock().monotonicTime();
+        Timer.builder(PIPELINES)
+                .description("Pipeline runs from subscription to result")
+                .tag("pipeline", pipeline)
+                .tag("outcome", switch (signal) {
+                    case ON_COMPLETE -> "success";
+                    case ON_ERROR -> "error";
+                    default -> "cancelled";
+                })
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(now - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,92 @@
+package com.assesment.spacex.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebClient filter timing every call to the SpaceX API.
+ * <p>
+ * Each call is recorded in the {@value #REQUESTS} timer (with a percentile histogram) tagged with the endpoint's
+ * uri template, the method, the response status and its outcome, from the start of the exchange until the status
+ * and headers arrive. Calls that fail without a response are tagged with status IO_ERROR, calls cancelled before
+ * the response with CANCELLED. The {@value #IN_FLIGHT} gauge holds the number of calls currently waiting for
+ * their response.
+ * </p>
+ */
+public class UpstreamMetricsFilter implements ExchangeFilterFunction {
+    public static final String REQUESTS = "spacex.upstream.requests";
+    public static final String IN_FLIGHT = "spacex.upstream.in.flight";
+
+    private static final String URI_TEMPLATE_ATTRIBUTE = WebClient.class.getName() + ".uriTemplate";
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inFlight;
+
+    public UpstreamMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.inFlight = meterRegistry.gauge(IN_FLIGHT, new AtomicInteger());
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            AtomicBoolean stopped = new AtomicBoolean();
+            inFlight.incrementAndGet();
+            return next.exchange(request)
+                    .doOnSuccess(response -> stop(sample, stopped, request,
+                            response == null ? null : response.statusCode(), "UNKNOWN"))
+                    .doOnError(error -> stop(sample, stopped, request, null, "IO_ERROR"))
+                    .doOnCancel(() -> stop(sample, stopped, request, null, "CANCELLED"));
+        });
+    }
+
+    /**
+     * Records the call once, before its response or error is passed on, so the metrics are complete by the time
+     * the caller sees the result.
+     */
+    private void stop(Timer.Sample sample, AtomicBoolean stopped, ClientRequest request,
+                      HttpStatusCode statusCode, String failure) {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        inFlight.decrementAndGet();
+        sample.stop(Timer.builder(REQUESTS)
+                .description("Calls to the SpaceX API")
+                .tag("endpoint", endpoint(request))
+                .tag("method", request.method().name())
+                .tag("status", statusCode == null ? failure : String.valueOf(statusCode.value()))
+                .tag("outcome", outcome(statusCode))
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static String endpoint(ClientRequest request) {
+        return request.attribute(URI_TEMPLATE_ATTRIBUTE)
+                .map(Object::toString)
+                .orElseGet(() -> request.url().getPath());
+    }
+
+    private static String outcome(HttpStatusCode statusCode) {
+        if (statusCode == null) {
+            return "UNKNOWN";
+        }
+        if (statusCode.is2xxSuccessful()) {
+            return "SUCCESS";
+        }
+        if (statusCode.is4xxClientError()) {
+            return "CLIENT_ERROR";
+        }
+        return statusCode.is5xxServerError() ? "SERVER_ERROR" : "OTHER";
+    }
+}
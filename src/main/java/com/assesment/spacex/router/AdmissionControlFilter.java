@@ -0,0 +1,320 @@
+package com.assesment.spacex.router;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseCookie;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Router filter admitting requests to the expensive endpoints, shedding the excess early instead of letting every
+ * request start its upstream fan-out and all of them time out together.
+ * <p>
+ * Each request passes, in order:
+ * </p>
+ * <ul>
+ *   <li>the quota of its client (remote address), a token bucket of clientRatePerSecond refilling up to
+ *   clientBurst; over quota it is answered 429. Client-supplied X-Forwarded-For headers are not trusted here;
+ *   behind a proxy, server.forward-headers-strategy resolves the remote address from the proxy's headers</li>
+ *   <li>the rate limit of its route, a token bucket of ratePerSecond up to burst; over it the request is answered
+ *   503</li>
+ *   <li>the concurrency limit of its route: at most maxConcurrent requests are handled at a time, further requests
+ *   wait in a FIFO queue of at most maxQueued entries and are answered 503 when the queue is full or once they
+ *   have waited maxQueueTime. A request holds its slot until its response, including a streamed body, has been
+ *   written; a timeout raised by the handler itself is passed on as an error, not answered as a queue timeout</li>
+ * </ul>
+ * <p>
+ * Rejections carry a Retry-After header (seconds until a token is available, or the queue time). Every decision is
+ * counted in {@value #REQUESTS} by route and result.
+ * </p>
+ */
+public class AdmissionControlFilter implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+    static final String REQUESTS = "spacex.admission.requests";
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Duration maxQueueTime;
+    private final double ratePerSecond;
+    private final int burst;
+    private final double clientRatePerSecond;
+    private final int clientBurst;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteGate> routes = new ConcurrentHashMap<>();
+    private final Cache<String, TokenBucket> clients = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    /**
+     * @param maxConcurrent       requests handled at a time per route
+     * @param maxQueued           requests waiting for a slot per route
+     * @param maxQueueTime        time a request may wait for a slot before it is shed
+     * @param ratePerSecond       sustained requests per second per route
+     * @param burst               requests per route admitted at once above the sustained rate
+     * @param clientRatePerSecond sustained requests per second per client, over all routes
+     * @param clientBurst         requests per client admitted at once above its sustained rate
+     * @param meterRegistry       registry the admission decisions are counted in
+     */
+    public AdmissionControlFilter(int maxConcurrent, int maxQueued, Duration maxQueueTime,
+                                  double ratePerSecond, int burst, double clientRatePerSecond, int clientBurst,
+                                  MeterRegistry meterRegistry) {
+        if (maxConcurrent < 1 || maxQueued < 0 || ratePerSecond <= 0 || burst < 1
+                || clientRatePerSecond <= 0 || clientBurst < 1) {
+            throw new IllegalArgumentException("Invalid admission limits concurrent %d queued %d rate %s/%d client %s/%d"
+                    .formatted(maxConcurrent, maxQueued, ratePerSecond, burst, clientRatePerSecond, clientBurst));
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxQueueTime = maxQueueTime;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.clientRatePerSecond = clientRatePerSecond;
+        this.clientBurst = clientBurst;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<ServerResponse> filter(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        String route = request.path();
+        TokenBucket client = clients.get(clientOf(request), key -> new TokenBucket(clientRatePerSecond, clientBurst));
+        long clientWait = client.tryAcquire();
+        if (clientWait > 0) {
+            return rejected(route, "quota_exceeded", HttpStatus.TOO_MANY_REQUESTS, clientWait);
+        }
+        RouteGate gate = routes.computeIfAbsent(route, key -> new RouteGate());
+        long routeWait = gate.rate.tryAcquire();
+        if (routeWait > 0) {
+            return rejected(route, "rate_limited", HttpStatus.SERVICE_UNAVAILABLE, routeWait);
+        }
+        return gate.acquire()
+                .timeout(maxQueueTime)
+                .onErrorMap(TimeoutException.class, timeout -> new QueueTimeoutException())
+                .flatMap(permit -> {
+                    count(route, "admitted");
+                    return next.handle(request)
+                            .<ServerResponse>map(response -> new PermitReleasingResponse(response, permit))
+                            .doOnError(error -> permit.release())
+                            .doOnCancel(permit::release)
+                            .switchIfEmpty(Mono.fromRunnable(permit::release));
+                })
+                .onErrorResume(QueueFullException.class, full ->
+                        rejected(route, "queue_full", HttpStatus.SERVICE_UNAVAILABLE, maxQueueTime.toNanos()))
+                .onErrorResume(QueueTimeoutException.class, timeout ->
+                        rejected(route, "queue_timeout", HttpStatus.SERVICE_UNAVAILABLE, maxQueueTime.toNanos()));
+    }
+
+    /**
+     * @param route path of the route
+     * @return number of requests of the route currently being handled
+     */
+    int inFlight(String route) {
+        RouteGate gate = routes.get(route);
+        return gate == null ? 0 : gate.inFlight();
+    }
+
+    private Mono<ServerResponse> rejected(String route, String result, HttpStatus status, long waitNanos) {
+        count(route, result);
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        return ServerResponse.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .build();
+    }
+
+    private void count(String route, String result) {
+        Counter.builder(REQUESTS)
+                .description("Requests admitted to or shed by the admission control of the task endpoints")
+                .tag("route", route)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String clientOf(ServerRequest request) {
+        return request.remoteAddress()
+                .map(InetSocketAddress::getAddress)
+                .map(InetAddress::getHostAddress)
+                .orElse("unknown");
+    }
+
+    /**
+     * Token bucket refilling continuously at a fixed rate up to its capacity.
+     */
+    private static final class TokenBucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAtNanos = System.nanoTime();
+
+        private TokenBucket(double ratePerSecond, int capacity) {
+            this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+            this.capacity = capacity;
+            this.tokens = capacity;
+        }
+
+        /**
+         * Takes a token if one is available.
+         *
+         * @return 0 when a token was taken, otherwise the nanoseconds until one will be available
+         */
+        private synchronized long tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAtNanos) * tokensPerNano);
+            refilledAtNanos = now;
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+        }
+    }
+
+    /**
+     * Rate limit, concurrency slots and wait queue of one route.
+     */
+    private final class RouteGate {
+        private final TokenBucket rate = new TokenBucket(ratePerSecond, burst);
+        private final Deque<MonoSink<Permit>> queue = new ArrayDeque<>();
+        private int inFlight;
+
+        private synchronized int inFlight() {
+            return inFlight;
+        }
+
+        private Mono<Permit> acquire() {
+            return Mono.<Permit>create(sink -> {
+                        boolean granted = false;
+                        boolean rejected = false;
+                        synchronized (this) {
+                            if (queue.isEmpty() && inFlight < maxConcurrent) {
+                                inFlight++;
+                                granted = true;
+                            } else if (queue.size() >= maxQueued) {
+                                rejected = true;
+                            } else {
+                                queue.addLast(sink);
+                            }
+                        }
+                        if (granted) {
+                            sink.success(new Permit(this));
+                        } else if (rejected) {
+                            sink.error(new QueueFullException());
+                        } else {
+                            sink.onCancel(() -> dequeue(sink));
+                        }
+                    })
+                    .doOnDiscard(Permit.class, Permit::release);
+        }
+
+        private void dequeue(MonoSink<Permit> sink) {
+            synchronized (this) {
+                queue.remove(sink);
+            }
+        }
+
+        private void released() {
+            List<MonoSink<Permit>> granted = new ArrayList<>();
+            synchronized (this) {
+                inFlight--;
+                while (!queue.isEmpty() && inFlight < maxConcurrent) {
+                    granted.add(queue.pollFirst());
+                    inFlight++;
+                }
+            }
+            granted.forEach(sink -> sink.success(new Permit(this)));
+        }
+    }
+
+    /**
+     * A concurrency slot held by one request, released exactly once.
+     */
+    private static final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final RouteGate gate;
+
+        private Permit(RouteGate gate) {
+            this.gate = gate;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                gate.released();
+            }
+        }
+    }
+
+    /**
+     * Response of an admitted request, holding its concurrency slot until the response has been written (or
+     * writing it failed or was cancelled), not just until the handler returned it: a streamed body is still being
+     * produced after that.
+     */
+    private static final class PermitReleasingResponse implements ServerResponse {
+        private final ServerResponse response;
+        private final Permit permit;
+
+        private PermitReleasingResponse(ServerResponse response, Permit permit) {
+            this.response = response;
+            this.permit = permit;
+        }
+
+        @Override
+        public HttpStatusCode statusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        @Deprecated
+        public int rawStatusCode() {
+            return response.statusCode().value();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return response.headers();
+        }
+
+        @Override
+        public MultiValueMap<String, ResponseCookie> cookies() {
+            return response.cookies();
+        }
+
+        @Override
+        public Mono<Void> writeTo(ServerWebExchange exchange, Context context) {
+            return response.writeTo(exchange, context).doFinally(signal -> permit.release());
+        }
+    }
+
+    private static final class QueueFullException extends RuntimeException {
+        private QueueFullException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class QueueTimeoutException extends RuntimeException {
+        private QueueTimeoutException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.assesment.spacex.router;
 
 import com.assesment.spacex.handler.TaskHandler;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
+import java.time.Duration;
+
 import static org.springframework.web.reactive.function.server.RouterFunctions.route;
 
 @Configuration
@@ -16,6 +20,21 @@ import static org.springframework.web.reactive.function.server.RouterFunctions.r
 @Slf4j
 public class TaskRouter {
 
+    @Value("${spacex.admission.maxConcurrent:32}")
+    private int maxConcurrent = 32;
+    @Value("${spacex.admission.maxQueued:64}")
+    private int maxQueued = 64;
+    @Value("${spacex.admission.maxQueueTime:PT2S}")
+    private Duration maxQueueTime = Duration.ofSeconds(2);
+    @Value("${spacex.admission.ratePerSecond:500}")
+    private double ratePerSecond = 500;
+    @Value("${spacex.admission.burst:1000}")
+    private int burst = 1000;
+    @Value("${spacex.admission.clientRatePerSecond:100}")
+    private double clientRatePerSecond = 100;
+    @Value("${spacex.admission.clientBurst:200}")
+    private int clientBurst = 200;
+
     /**
      * Configures the routing logic for the application using Spring WebFlux's functional programming model.
      *
@@ -26,6 +45,12 @@ public class TaskRouter {
      * <ul>
      *   <li><b>GET /task/rocket/launches-by-year</b>: Retrieves the number of rocket launches grouped by year for each rocket.</li>
      *   <li><b>GET /task/rocket/launches-by-site</b>: Retrieves the number of rocket launches grouped by launch site for each rocket.</li>
+     *   <li><b>GET /task/rocket/report</b>: Computes several launch rollups (include=byYear,bySite,perRocket,bySiteAndYear) in one pass.</li>
+     *   <li><b>GET /task/rocket/subscribe</b>: Streams the launches by year and by site as Server-Sent Events: a snapshot, then the changed cells on each refresh.</li>
+     *   <li><b>POST /task/rocket/refresh</b>: Refreshes the in-memory launch aggregates snapshot right away.</li>
+     *   <li><b>GET /task/launches/timeline</b>: Counts launches per rocket within a date range, optionally per day, week, month or year.</li>
+     *   <li><b>GET /task/launches/stream</b>: Streams the enriched launches as NDJSON, or as Server-Sent Events for Accept: text/event-stream.</li>
+     *   <li><b>GET /task/launches/aggregate</b>: Counts launches grouped by and filtered on any of rocket, site and year.</li>
      *   <li><b>GET /b>:Just returs a string which welcomes the user to data solution</li>
      * </ul>
      *
@@ -33,25 +58,60 @@ public class TaskRouter {
      * <pre>
      * curl -X GET http://localhost:8080/task/rocket/launches-by-year
      * curl -X GET http://localhost:8080/task/rocket/launches-by-site
+     * curl -X GET "http://localhost:8080/task/rocket/report?include=perRocket,bySiteAndYear"
+     * curl -N http://localhost:8080/task/rocket/subscribe
+     * curl -X POST http://localhost:8080/task/rocket/refresh
+     * curl -X GET "http://localhost:8080/task/launches/timeline?granularity=month&amp;from=2020-01-01&amp;to=2021-01-01"
+     * curl -N http://localhost:8080/task/launches/stream
+     * curl -N -H "Accept: text/event-stream" http://localhost:8080/task/launches/stream
+     * curl -X GET "http://localhost:8080/task/launches/aggregate?groupBy=rocket,year&amp;where=site:KSC%20LC%2039A&amp;from=2018"
      * curl -X GET http://localhost:8080/
      * </pre>
+     *
+     * <p>The /task/rocket routes, which fan out to SpaceX on a snapshot miss, are admitted by the
+     * {@link AdmissionControlFilter}, except /task/rocket/subscribe: its subscribers share one hot stream and
+     * never fan out, while each would hold a concurrency slot for as long as it stays connected.</p>
      * @param taskHandler {@link TaskHandler}
+     * @param taskAdmissionFilter admission control of the /task/rocket routes
      * @return a {@link RouterFunction} mapping the API endpoints to their respective handlers
      */
     @Bean
-    public RouterFunction<ServerResponse> taskSolutionRouter(TaskHandler taskHandler){
+    public RouterFunction<ServerResponse> taskSolutionRouter(TaskHandler taskHandler,
+                                                             AdmissionControlFilter taskAdmissionFilter){
 
         return route()
                 .path("/task/rocket",
                         builder -> builder
                                 .GET("/launches-by-year", taskHandler::getRocketsLaunchedByYear)
                                 .GET("/launches-by-site", taskHandler::getLaunchesPerSite)
+                                .GET("/report", taskHandler::getLaunchReport)
+                                .POST("/refresh", taskHandler::refreshAggregates)
+                                .filter(taskAdmissionFilter)
                 )
+                .GET("/task/rocket/subscribe", taskHandler::subscribeAggregates)
+                .GET("/task/launches/aggregate", taskHandler::aggregateLaunches)
+                .GET("/task/launches/timeline", taskHandler::getLaunchTimeline)
+                .GET("/task/launches/stream", taskHandler::streamEnrichedLaunches)
                 .GET("/", taskHandler::welcomeSpacexSolution)
                 .after(this::logRequest)
                 .build();
     }
 
+    /**
+     * Admission control of the /task/rocket routes: per route concurrency and rate limits with a bounded wait
+     * queue, and per client quotas (spacex.admission.*).
+     *
+     * @param meterRegistry registry the admission decisions are counted in
+     * @return the {@link AdmissionControlFilter}
+     */
+    @Bean
+    public AdmissionControlFilter taskAdmissionFilter(MeterRegistry meterRegistry) {
+        log.info("Admission control - maxConcurrent %d maxQueued %d maxQueueTime %s rate %s/%d client %s/%d"
+                .formatted(maxConcurrent, maxQueued, maxQueueTime, ratePerSecond, burst, clientRatePerSecond, clientBurst));
+        return new AdmissionControlFilter(maxConcurrent, maxQueued, maxQueueTime,
+                ratePerSecond, burst, clientRatePerSecond, clientBurst, meterRegistry);
+    }
+
     /**
      * Logs the request information and response status after the api is called.
      * @param request a {@link ServerRequest}
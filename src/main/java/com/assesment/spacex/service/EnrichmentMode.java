@@ -0,0 +1,18 @@
+package com.assesment.spacex.service;
+
+/**
+ * Strategy used by {@link TaskService} to resolve rocket and launch pad names for launches.
+ * <p>
+ * Selected with the {@code spacex.enrichment.mode} property.
+ * </p>
+ */
+public enum EnrichmentMode {
+    /**
+     * Looks up the rocket/launch pad of each launch with /rockets/{id} and /launchpads/{id} (through the cache).
+     */
+    PER_ID,
+    /**
+     * Fetches /rockets and /launchpads once and joins launches against in-memory id to name maps.
+     */
+    BULK
+}
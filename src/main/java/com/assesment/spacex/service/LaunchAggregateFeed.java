@@ -0,0 +1,123 @@
+package com.assesment.spacex.service;
+
+import com.assesment.spacex.domain.LaunchAggregates;
+import com.assesment.spacex.domain.LaunchAggregatesDelta;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes the launch aggregates to subscribers: the current aggregates once, then only the cells that changed with
+ * each refreshed snapshot of the {@link LaunchAggregateRefresher}.
+ * <p>
+ * The changed cells are computed once per snapshot on a single shared hot stream, which every subscriber joins; the
+ * stream replays its latest change so a new subscriber starts from the current aggregates, even when there are no
+ * launches yet. Later refreshes that change no cell are not pushed.
+ * </p>
+ * <p>
+ * Each subscriber has a buffer of spacex.subscription.bufferSize events. When a slow subscriber's buffer is full
+ * the oldest event is dropped, and the next event it receives is the full current aggregates instead of a delta
+ * (buffered events older than those are skipped), so it neither misses nor rolls back a change. Dropped events
+ * are counted in {@value #DROPPED}, subscribers gauged in {@value #SUBSCRIBERS}.
+ * </p>
+ */
+@Component
+public class LaunchAggregateFeed {
+    static final String DROPPED = "spacex.subscription.dropped";
+    static final String SUBSCRIBERS = "spacex.subscription.subscribers";
+
+    private final Flux<Change> changes;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicReference<LaunchAggregates> previous = new AtomicReference<>();
+    private final AtomicReference<Change> latest = new AtomicReference<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter dropped;
+
+    @Value("${spacex.subscription.bufferSize:16}")
+    private int bufferSize = 16;
+
+    public LaunchAggregateFeed(LaunchAggregateRefresher launchAggregateRefresher, MeterRegistry meterRegistry) {
+        this.changes = launchAggregateRefresher.snapshots()
+                .map(aggregates -> {
+                    LaunchAggregates before = previous.getAndSet(aggregates);
+                    return new Change(sequence.incrementAndGet(), aggregates,
+                            LaunchAggregatesDelta.between(before, aggregates), before == null);
+                })
+                .filter(change -> change.first() || !change.delta().isEmpty())
+                .doOnNext(latest::set)
+                .replay(1)
+                .autoConnect();
+        this.dropped = Counter.builder(DROPPED)
+                .description("Aggregate events dropped for subscribers reading slower than the aggregates change")
+                .register(meterRegistry);
+        Gauge.builder(SUBSCRIBERS, subscribers, AtomicInteger::get)
+                .description("Subscribers of the launch aggregate feed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes to the aggregate changes.
+     *
+     * @return a {@link Flux} starting with a {@link Kind#SNAPSHOT} of the current aggregates followed by a
+     *         {@link Kind#DELTA} per change, never completing
+     */
+    public Flux<Event> subscribe() {
+        return Flux.defer(() -> {
+            AtomicBoolean first = new AtomicBoolean(true);
+            AtomicBoolean resync = new AtomicBoolean();
+            AtomicLong delivered = new AtomicLong();
+            return changes
+                    .map(change -> first.getAndSet(false) ? Event.snapshot(change) : Event.delta(change))
+                    .onBackpressureBuffer(bufferSize, event -> {
+                        dropped.increment();
+                        resync.set(true);
+                    }, BufferOverflowStrategy.DROP_OLDEST)
+                    .map(event -> resync.getAndSet(false) ? Event.snapshot(latest.get()) : event)
+                    .filter(event -> event.sequence() > delivered.get())
+                    .doOnNext(event -> delivered.set(event.sequence()))
+                    .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                    .doFinally(signal -> subscribers.decrementAndGet());
+        });
+    }
+
+    /**
+     * Kind of pushed event: the full aggregates or the cells changed since the previous event.
+     */
+    public enum Kind {
+        SNAPSHOT, DELTA
+    }
+
+    /**
+     * One pushed event.
+     *
+     * @param kind     whether the cells are the full aggregates or the changed cells only
+     * @param cells    the cells with their new counts
+     * @param sequence increasing number of the snapshot the cells are taken from
+     */
+    public record Event(Kind kind, LaunchAggregatesDelta cells, long sequence) {
+
+        private static Event snapshot(Change change) {
+            return new Event(Kind.SNAPSHOT, LaunchAggregatesDelta.of(change.aggregates()), change.sequence());
+        }
+
+        private static Event delta(Change change) {
+            return new Event(Kind.DELTA, change.delta(), change.sequence());
+        }
+    }
+
+    /**
+     * A snapshot with the cells it changed compared to the previous one; the first snapshot is always a change, even
+     * without any cell, so subscribers get a snapshot to start from.
+     */
+    private record Change(long sequence, LaunchAggregates aggregates, LaunchAggregatesDelta delta, boolean first) {
+    }
+}
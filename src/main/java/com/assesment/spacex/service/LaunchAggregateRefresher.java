@@ -0,0 +1,212 @@
+package com.assesment.spacex.service;
+
+import com.assesment.spacex.domain.LaunchAggregates;
+import com.assesment.spacex.store.LaunchSnapshotFile;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps a materialized {@link LaunchAggregates} snapshot in memory so the task endpoints do not have to
+ * re-download and re-enrich every launch per request.
+ * <p>
+ * The snapshot is recomputed through {@link TaskService} on a fixed delay (spacex.refresh.interval) and on demand,
+ * and replaced atomically once the new aggregates are complete. A snapshot older than spacex.refresh.maxStaleness
+ * is not served; callers then fall back to computing the aggregates live.
+ * </p>
+ * <p>
+ * With spacex.refresh.incremental enabled, a refresh only fetches the launches dated after the snapshot's
+ * watermark and folds their aggregates into the snapshot. The watermark is the latest launch dated at or before the
+ * previous fetch, not the furthest scheduled one, so upcoming launches are fetched again each time and replace
+ * their previous version rather than hiding launches added before them. A full reconcile against /launches still runs once
+ * spacex.refresh.fullReconcileInterval has passed, picking up launches SpaceX edited or back-dated since.
+ * </p>
+ * <p>
+ * When spacex.snapshot.path is set, every refreshed snapshot is written to that file as a {@link LaunchSnapshotFile},
+ * and on startup the file is read back so the endpoints are served from it right away. The restored snapshot is
+ * served regardless of maxStaleness until the first refresh replaces it, as long as it is younger than
+ * spacex.snapshot.maxAge; the first refresh then only fetches launches past its watermark, unless a full reconcile
+ * is due.
+ * </p>
+ * <p>
+ * Every snapshot swapped in is also published to {@link #snapshots()}, for subscribers pushing aggregate changes.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LaunchAggregateRefresher {
+    private final TaskService taskService;
+    private final SpacexClientService spacexClientService;
+
+    private final AtomicReference<LaunchAggregates> snapshot = new AtomicReference<>();
+    private final AtomicReference<Mono<LaunchAggregates>> inFlightRefresh = new AtomicReference<>();
+    private final Sinks.Many<LaunchAggregates> snapshots = Sinks.many().replay().latest();
+    private volatile LaunchAggregates restoredSnapshot;
+
+    @Value("${spacex.refresh.enabled:true}")
+    private boolean enabled = true;
+    @Value("${spacex.refresh.maxStaleness:PT15M}")
+    private Duration maxStaleness = Duration.ofMinutes(15);
+    @Value("${spacex.refresh.incremental:true}")
+    private boolean incremental = true;
+    @Value("${spacex.refresh.fullReconcileInterval:PT1H}")
+    private Duration fullReconcileInterval = Duration.ofHours(1);
+    @Value("${spacex.snapshot.path:}")
+    private String snapshotPath = "";
+    @Value("${spacex.snapshot.maxAge:P1D}")
+    private Duration snapshotMaxAge = Duration.ofDays(1);
+
+    /**
+     * Restores the snapshot persisted by a previous run, if spacex.snapshot.path is set and the file holds a
+     * snapshot younger than spacex.snapshot.maxAge. A missing or unreadable file is skipped.
+     */
+    @PostConstruct
+    public void restoreSnapshot() {
+        if (snapshotPath.isBlank() || !Files.exists(Path.of(snapshotPath))) {
+            return;
+        }
+        try {
+            LaunchAggregates read = LaunchSnapshotFile.read(Path.of(snapshotPath));
+            if (read.getRefreshedAt() == null
+                    || read.getRefreshedAt().plus(snapshotMaxAge).isBefore(Instant.now())) {
+                log.info("Ignoring launch snapshot %s refreshed at %s, older than %s"
+                        .formatted(snapshotPath, read.getRefreshedAt(), snapshotMaxAge));
+                return;
+            }
+            LaunchAggregates restored = read.settledAt(read.getRefreshedAt());
+            restoredSnapshot = restored;
+            if (snapshot.compareAndSet(null, restored)) {
+                publish(restored);
+            }
+            log.info("Restored launch snapshot %s with %d launches refreshed at %s"
+                    .formatted(snapshotPath, restored.getLaunches().size(), restored.getRefreshedAt()));
+        } catch (IOException e) {
+            log.warn("Could not restore launch snapshot %s".formatted(snapshotPath), e);
+        }
+    }
+
+    /**
+     * Scheduled refresh of the snapshot, runs right after startup and then with a fixed delay between refreshes.
+     * Does nothing when spacex.refresh.enabled is false.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${spacex.refresh.interval:PT5M}")
+    public void scheduledRefresh() {
+        if (!enabled) {
+            return;
+        }
+        refresh().subscribe(
+                aggregates -> log.info("Refreshed launch aggregates at %s, watermark %s"
+                        .formatted(aggregates.getRefreshedAt(), aggregates.getLatestLaunchDate())),
+                error -> log.warn("Refreshing launch aggregates failed, keeping previous snapshot", error));
+    }
+
+    /**
+     * Refreshes the aggregates and swaps them in once complete.
+     * <p>
+     * Concurrent callers (scheduler and manual triggers) share the refresh already in progress instead of
+     * starting another one. On failure the previous snapshot is kept.
+     * </p>
+     *
+     * @return a {@link Mono} of the new snapshot
+     */
+    public Mono<LaunchAggregates> refresh() {
+        while (true) {
+            Mono<LaunchAggregates> current = inFlightRefresh.get();
+            if (current != null) {
+                return current;
+            }
+            Mono<LaunchAggregates> refresh = Mono.defer(() -> computeAggregates(snapshot.get()))
+                    .doOnNext(aggregates -> {
+                        snapshot.set(aggregates);
+                        publish(aggregates);
+                    })
+                    .flatMap(aggregates -> persist(aggregates).thenReturn(aggregates))
+                    .doOnTerminate(() -> inFlightRefresh.set(null))
+                    .cache();
+            if (inFlightRefresh.compareAndSet(null, refresh)) {
+                return refresh;
+            }
+        }
+    }
+
+    /**
+     * @return the current snapshot, or empty if there is none yet or it is older than the staleness limit; a
+     *         snapshot restored at startup is returned until the first refresh replaces it, as long as it is
+     *         younger than spacex.snapshot.maxAge
+     */
+    public Optional<LaunchAggregates> freshSnapshot() {
+        Instant now = Instant.now();
+        return Optional.ofNullable(snapshot.get())
+                .filter(aggregates -> aggregates == restoredSnapshot
+                        ? !aggregates.getRefreshedAt().plus(snapshotMaxAge).isBefore(now)
+                        : !aggregates.getRefreshedAt().plus(maxStaleness).isBefore(now));
+    }
+
+    /**
+     * Hot stream of the snapshots as they are swapped in. A subscriber first receives the current snapshot, if
+     * there is one, regardless of its staleness.
+     *
+     * @return a {@link Flux} of the snapshots, never completing
+     */
+    public Flux<LaunchAggregates> snapshots() {
+        return snapshots.asFlux();
+    }
+
+    private void publish(LaunchAggregates aggregates) {
+        snapshots.emitNext(aggregates, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    /**
+     * Writes the snapshot to spacex.snapshot.path off the event loop. A failed write is logged and does not fail
+     * the refresh.
+     */
+    private Mono<Void> persist(LaunchAggregates aggregates) {
+        if (snapshotPath.isBlank() || aggregates.getLaunches() == null) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> {
+                    LaunchSnapshotFile.write(aggregates, Path.of(snapshotPath));
+                    return aggregates;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnError(error -> log.warn("Could not persist launch snapshot %s".formatted(snapshotPath), error))
+                .onErrorComplete()
+                .then();
+    }
+
+    private Mono<LaunchAggregates> computeAggregates(LaunchAggregates previous) {
+        Instant fetchedAt = Instant.now();
+        if (needsFullReconcile(previous)) {
+            return taskService.aggregateLaunches(spacexClientService.getAllLaunches())
+                    .map(aggregates -> aggregates.settledAt(fetchedAt).toBuilder()
+                            .refreshedAt(Instant.now())
+                            .reconciledAt(fetchedAt)
+                            .build());
+        }
+        return taskService.aggregateLaunches(spacexClientService.getLaunchesAfter(previous.getLatestLaunchDate()))
+                .map(delta -> previous.plus(delta, fetchedAt).toBuilder().refreshedAt(Instant.now()).build());
+    }
+
+    private boolean needsFullReconcile(LaunchAggregates previous) {
+        return !incremental
+                || previous == null
+                || previous.getLatestLaunchDate() == null
+                || !previous.getReconciledAt().plus(fullReconcileInterval).isAfter(Instant.now());
+    }
+}
@@ -0,0 +1,19 @@
+package com.assesment.spacex.service;
+
+/**
+ * Strategy used by {@link SpacexClientService} to fetch all launches.
+ * <p>
+ * Selected with the {@code spacex.fetch.mode} property.
+ * </p>
+ */
+public enum LaunchFetchMode {
+    /**
+     * Downloads the full launch documents from /launches in one response, revalidated with a conditional GET.
+     */
+    FULL,
+    /**
+     * Pages through /launches/query selecting only the fields {@link com.assesment.spacex.domain.Launch} maps,
+     * with several pages in flight at a time.
+     */
+    QUERY
+}
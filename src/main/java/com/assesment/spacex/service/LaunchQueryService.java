@@ -0,0 +1,72 @@
+package com.assesment.spacex.service;
+
+import com.assesment.spacex.domain.LaunchAggregates;
+import com.assesment.spacex.domain.LaunchQuery;
+import com.assesment.spacex.domain.LaunchTimelineQuery;
+import com.assesment.spacex.store.LaunchColumnStore;
+import com.assesment.spacex.store.LaunchIndex;
+import com.assesment.spacex.store.LaunchTimeIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+public class LaunchQueryService {
+    private final LaunchAggregateRefresher launchAggregateRefresher;
+
+    private final AtomicReference<LaunchIndex> index = new AtomicReference<>();
+    private final AtomicReference<LaunchTimeIndex> timeIndex = new AtomicReference<>();
+
+    /**
+     * Runs a group-by/filter query over the launches of the current aggregates snapshot.
+     * <p>
+     * The query is answered from a {@link LaunchIndex} over the snapshot's launch store, built once per snapshot,
+     * so no upstream call is made while a fresh snapshot exists. Without one, the query waits for the refresher
+     * to compute a snapshot (sharing a refresh already in progress).
+     * </p>
+     *
+     * @param query the group-by/filter query
+     * @return a {@link Mono} of nested maps of the group-by values with launch counts as leaves
+     */
+    public Mono<Object> aggregate(LaunchQuery query) {
+        return launches().map(store -> indexOf(store, index, LaunchIndex::store, LaunchIndex::build).count(query));
+    }
+
+    /**
+     * Counts the launches per rocket within a time range, optionally per time bucket.
+     * <p>
+     * The query is answered from a {@link LaunchTimeIndex} over the snapshot's launch store, built once per
+     * snapshot like the {@link LaunchIndex}: range counts take two binary searches per rocket and bucket counts a
+     * prefix sum difference, whatever the number of launches.
+     * </p>
+     *
+     * @param query the time range query
+     * @return a {@link Mono} of the launch counts per rocket, or per rocket and bucket label
+     */
+    public Mono<Object> timeline(LaunchTimelineQuery query) {
+        return launches().map(store -> indexOf(store, timeIndex, LaunchTimeIndex::store, LaunchTimeIndex::build)
+                .count(query));
+    }
+
+    private Mono<LaunchColumnStore> launches() {
+        return launchAggregateRefresher.freshSnapshot()
+                .map(Mono::just)
+                .orElseGet(launchAggregateRefresher::refresh)
+                .map(LaunchAggregates::getLaunches);
+    }
+
+    private static <I> I indexOf(LaunchColumnStore store, AtomicReference<I> index,
+                                 Function<I, LaunchColumnStore> indexedStore, Function<LaunchColumnStore, I> build) {
+        I current = index.get();
+        if (current != null && indexedStore.apply(current) == store) {
+            return current;
+        }
+        I built = build.apply(store);
+        index.set(built);
+        return built;
+    }
+}
@@ -0,0 +1,73 @@
+package com.assesment.spacex.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent identical requests.
+ * <p>
+ * Callers asking for the same key while a computation for it is in flight subscribe to that computation instead
+ * of starting their own, so a burst of identical requests costs one upstream pipeline. The shared computation is
+ * reference counted: it is cancelled once every caller has cancelled. As soon as it terminates it is forgotten, so
+ * results are never served after the fact; caching results is left to the snapshot refresher.
+ * </p>
+ * <p>
+ * Callers are counted in spacex.coalescer.requests by whether they started or joined a computation.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestCoalescer {
+    private static final String REQUESTS = "spacex.coalescer.requests";
+
+    private final Map<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Returns the in-flight computation for the key, or starts a new one.
+     *
+     * @param key         identifies the request, e.g. endpoint and parameters
+     * @param computation supplies the computation when none is in flight for the key
+     * @param <T>         type of the result
+     * @return a {@link Mono} of the result of the shared computation
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(String key, Supplier<Mono<T>> computation) {
+        return Mono.defer(() -> {
+            AtomicBoolean started = new AtomicBoolean();
+            Mono<T> shared = (Mono<T>) inFlight.computeIfAbsent(key, ignored -> {
+                started.set(true);
+                return share(key, computation);
+            });
+            counter(started.get() ? "started" : "joined").increment();
+            return shared;
+        });
+    }
+
+    private <T> Mono<T> share(String key, Supplier<Mono<T>> computation) {
+        AtomicReference<Mono<T>> shared = new AtomicReference<>();
+        shared.set(Mono.defer(computation)
+                .doFinally(signal -> inFlight.remove(key, shared.get()))
+                .flux()
+                .replay(1)
+                .refCount()
+                .singleOrEmpty());
+        return shared.get();
+    }
+
+    private Counter counter(String result) {
+        return Counter.builder(REQUESTS)
+                .description("Requests that started or joined a shared computation")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
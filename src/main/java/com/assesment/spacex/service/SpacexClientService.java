@@ -1,18 +1,65 @@
 package com.assesment.spacex.service;
 
+import com.assesment.spacex.client.LatencyPercentile;
 import com.assesment.spacex.domain.Launch;
 import com.assesment.spacex.domain.LaunchPad;
+import com.assesment.spacex.domain.LaunchQueryPage;
 import com.assesment.spacex.domain.Rocket;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
 @Service
 @RequiredArgsConstructor
 public class SpacexClientService {
+    static final String HEDGES = "spacex.upstream.hedges";
+    private static final Map<String, Integer> LAUNCH_FIELDS = Map.of("rocket", 1, "launchpad", 1, "date_utc", 1);
+    private static final String LAUNCH_ORDER = "date_utc flight_number";
+
     private final WebClient spacexWebClient;
+    private final AsyncCache<String, Optional<Rocket>> rocketCache;
+    private final AsyncCache<String, Optional<LaunchPad>> launchPadCache;
+    private final MeterRegistry meterRegistry;
+    private final AtomicReference<ValidatedLaunches> validatedLaunches = new AtomicReference<>();
+    private final Map<String, Rocket> lastKnownRockets = new ConcurrentHashMap<>();
+    private final Map<String, LaunchPad> lastKnownLaunchPads = new ConcurrentHashMap<>();
+    private final LatencyPercentile lookupLatency = new LatencyPercentile(256);
+
+    @Value("${spacex.fetch.mode:FULL}")
+    private LaunchFetchMode fetchMode = LaunchFetchMode.FULL;
+    @Value("${spacex.fetch.pageSize:50}")
+    private int pageSize = 50;
+    @Value("${spacex.fetch.pageConcurrency:4}")
+    private int pageConcurrency = 4;
+    @Value("${spacex.hedge.enabled:true}")
+    private boolean hedgeEnabled = true;
+    @Value("${spacex.hedge.percentile:0.95}")
+    private double hedgePercentile = 0.95;
+    @Value("${spacex.hedge.minSamples:20}")
+    private int hedgeMinSamples = 20;
+    @Value("${spacex.hedge.initialDelay:PT0.5S}")
+    private Duration hedgeInitialDelay = Duration.ofMillis(500);
+    @Value("${spacex.hedge.minDelay:PT0.02S}")
+    private Duration hedgeMinDelay = Duration.ofMillis(20);
 
     /**
      * Fetches data from the SpaceX API's /launches endpoint.
@@ -20,13 +67,98 @@ public class SpacexClientService {
      * This method retrieves all launch data from the SpaceX API and maps the response to a {@link Flux} of {@link Launch} POJOs.
      * Only the necessary properties for launches are extracted based on the {@link Launch} class.
      * </p>
+     * <p>
+     * When SpaceX answers with an ETag or Last-Modified header, a copy of the decoded launches is kept with those
+     * validators and the next call is sent as a conditional request (If-None-Match / If-Modified-Since). On
+     * 304 Not Modified the kept launches are emitted again, skipping both the transfer and the JSON decoding.
+     * Every call emits its own {@link Launch} instances, as callers enrich them in place.
+     * </p>
+     * <p>
+     * With spacex.fetch.mode QUERY the launches are paged through /launches/query instead, see
+     * {@link #queryAllLaunches()}.
+     * </p>
      *
      * @return a {@link Flux} containing a stream of {@link Launch} objects representing the launches retrieved from the API
      */
     public Flux<Launch> getAllLaunches() {
+        if (fetchMode == LaunchFetchMode.QUERY) {
+            return queryAllLaunches();
+        }
+        ValidatedLaunches cached = validatedLaunches.get();
         return spacexWebClient.get().uri("/launches")
+                .headers(headers -> {
+                    if (cached != null) {
+                        cached.addConditions(headers);
+                    }
+                })
+                .exchangeToFlux(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && cached != null) {
+                        return response.releaseBody()
+                                .thenMany(Flux.fromIterable(cached.launches()))
+                                .map(launch -> launch.toBuilder().build());
+                    }
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.createError().flux().cast(Launch.class);
+                    }
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    String eTag = headers.getETag();
+                    String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+                    if (eTag == null && lastModified == null) {
+                        validatedLaunches.set(null);
+                        return response.bodyToFlux(Launch.class);
+                    }
+                    List<Launch> copies = new ArrayList<>();
+                    return response.bodyToFlux(Launch.class)
+                            .doOnNext(launch -> copies.add(launch.toBuilder().build()))
+                            .doOnComplete(() -> validatedLaunches.set(new ValidatedLaunches(eTag, lastModified, copies)));
+                });
+    }
+
+    /**
+     * {@link LaunchFetchMode#QUERY}: fetches all launches page by page from /launches/query.
+     * <p>
+     * Each page selects only the rocket, launchpad and date_utc fields, so the links, crew, cores and other parts
+     * of the launch documents are neither transferred nor decoded. The first page tells the number of pages; the
+     * remaining pages are then requested with up to spacex.fetch.pageConcurrency in flight and emitted in page
+     * order, sorted by date (then flight number, which keeps the pages stable).
+     * </p>
+     */
+    private Flux<Launch> queryAllLaunches() {
+        return queryLaunchPage(1).flatMapMany(first -> Flux.fromIterable(first.getDocs())
+                .concatWith(Flux.range(2, Math.max(0, first.getTotalPages() - 1))
+                        .flatMapSequential(page -> queryLaunchPage(page).flatMapIterable(LaunchQueryPage::getDocs),
+                                pageConcurrency)));
+    }
+
+    private Mono<LaunchQueryPage> queryLaunchPage(int page) {
+        Map<String, Object> query = Map.of(
+                "query", Map.of(),
+                "options", Map.of("select", LAUNCH_FIELDS, "sort", LAUNCH_ORDER, "page", page, "limit", pageSize));
+        return spacexWebClient.post().uri("/launches/query")
+                .bodyValue(query)
                 .retrieve()
-                .bodyToFlux(Launch.class);
+                .bodyToMono(LaunchQueryPage.class);
+    }
+
+    /**
+     * Fetches the launches dated after the given instant from the SpaceX API's /launches/query endpoint.
+     * <p>
+     * Used for incremental ingestion: only launches with a date_utc strictly greater than the watermark are
+     * transferred, sorted by date, in a single unpaginated query selecting only the mapped fields.
+     * </p>
+     *
+     * @param watermark date of the latest launch already ingested
+     * @return a {@link Flux} of the {@link Launch} objects dated after the watermark
+     */
+    public Flux<Launch> getLaunchesAfter(Instant watermark) {
+        Map<String, Object> query = Map.of(
+                "query", Map.of("date_utc", Map.of("$gt", watermark.toString())),
+                "options", Map.of("pagination", false, "select", LAUNCH_FIELDS, "sort", LAUNCH_ORDER));
+        return spacexWebClient.post().uri("/launches/query")
+                .bodyValue(query)
+                .retrieve()
+                .bodyToMono(LaunchQueryPage.class)
+                .flatMapIterable(LaunchQueryPage::getDocs);
     }
 
     /**
@@ -36,14 +168,24 @@ public class SpacexClientService {
      * Only the necessary properties for Rockets are extracted based on the {@link Rocket} class.
      * This data is used to get rocket name/ type as per task
      * </p>
+     * <p>
+     * Lookups go through the rocket cache, so concurrent calls for the same id share one upstream request
+     * and a rocket is only fetched again once its entry expires. A rocket SpaceX does not know (404)
+     * completes empty.
+     * </p>
+     * <p>
+     * The upstream call is hedged, see {@link #hedged(String, Mono)}, and each rocket it returns is kept as the
+     * last known value of its id, see {@link #lastKnownRocket(String)}.
+     * </p>
      * @param rocketId rocket id for which data to be retrieved
      * @return a {@link Mono} containing a {@link Rocket} object representing the Rocket data retrieved from the API
      */
     public Mono<Rocket> getRocketById(String rocketId) {
-        return spacexWebClient.get()
+        return fromCache(rocketCache, rocketId, hedged("/rockets/{rocketId}", spacexWebClient.get()
                 .uri("/rockets/{rocketId}", rocketId)
                 .retrieve()
-                .bodyToMono(Rocket.class);
+                .bodyToMono(Rocket.class))
+                .doOnNext(rocket -> lastKnownRockets.put(rocketId, rocket)));
     }
 
     /**
@@ -53,14 +195,198 @@ public class SpacexClientService {
      * Only the necessary properties for LaunchPad are extracted based on the {@link LaunchPad} class.
      * Data is used to get names of launch sites
      * </p>
+     * <p>
+     * Lookups go through the launch pad cache in the same way as {@link #getRocketById(String)}.
+     * </p>
      * @param launchPadId launch pad id for which data to be retrieved
      * @return mono of {@link LaunchPad}
      */
     public Mono<LaunchPad> getLaunchPadById(String launchPadId) {
-        return spacexWebClient.get()
+        return fromCache(launchPadCache, launchPadId, hedged("/launchpads/{launchPadId}", spacexWebClient.get()
                 .uri("/launchpads/{launchPadId}", launchPadId)
                 .retrieve()
-                .bodyToMono(LaunchPad.class);
+                .bodyToMono(LaunchPad.class))
+                .doOnNext(launchPad -> lastKnownLaunchPads.put(launchPadId, launchPad)));
+    }
+
+    /**
+     * Last rocket SpaceX returned for the id, kept past the expiry of its cache entry.
+     * <p>
+     * Used as the stale fallback when a lookup fails or runs out of its request's deadline.
+     * </p>
+     *
+     * @param rocketId rocket id
+     * @return the last known rocket, empty if it was never fetched
+     */
+    public Optional<Rocket> lastKnownRocket(String rocketId) {
+        return Optional.ofNullable(lastKnownRockets.get(rocketId));
+    }
+
+    /**
+     * Every rocket SpaceX returned so far, by /rockets or /rockets/{id}, see {@link #lastKnownRocket(String)}.
+     *
+     * @return the last known rockets, empty if none was fetched yet
+     */
+    public List<Rocket> lastKnownRockets() {
+        return List.copyOf(lastKnownRockets.values());
+    }
+
+    /**
+     * Last launch pad SpaceX returned for the id, see {@link #lastKnownRocket(String)}.
+     *
+     * @param launchPadId launch pad id
+     * @return the last known launch pad, empty if it was never fetched
+     */
+    public Optional<LaunchPad> lastKnownLaunchPad(String launchPadId) {
+        return Optional.ofNullable(lastKnownLaunchPads.get(launchPadId));
+    }
+
+    /**
+     * Every launch pad SpaceX returned so far, see {@link #lastKnownRockets()}.
+     *
+     * @return the last known launch pads, empty if none was fetched yet
+     */
+    public List<LaunchPad> lastKnownLaunchPads() {
+        return List.copyOf(lastKnownLaunchPads.values());
+    }
+
+    /**
+     * Launches of the last /launches response that came with validators, the copy {@link #getAllLaunches()} sends
+     * conditional requests for.
+     * <p>
+     * Used as the stale fallback when fetching the launches runs out of its request's deadline. Every call returns
+     * its own {@link Launch} instances.
+     * </p>
+     *
+     * @return the last validated launches, empty if there are none
+     */
+    public Optional<List<Launch>> lastKnownLaunches() {
+        return Optional.ofNullable(validatedLaunches.get())
+                .map(cached -> cached.launches().stream().map(launch -> launch.toBuilder().build()).toList());
+    }
+
+    /**
+     * Fetches all rockets from the SpaceX API's /rockets endpoint.
+     * <p>
+     * Used by the bulk enrichment mode to resolve rocket names with a single call instead of one
+     * /rockets/{rocketId} call per launch. Each rocket returned is kept as the last known value of its id.
+     * </p>
+     *
+     * @return a {@link Flux} of every {@link Rocket} known to the API
+     */
+    public Flux<Rocket> getAllRockets() {
+        return spacexWebClient.get().uri("/rockets")
+                .retrieve()
+                .bodyToFlux(Rocket.class)
+                .doOnNext(rocket -> {
+                    if (rocket.getRocketId() != null) {
+                        lastKnownRockets.put(rocket.getRocketId(), rocket);
+                    }
+                });
+    }
+
+    /**
+     * Fetches all launch pads from the SpaceX API's /launchpads endpoint.
+     * <p>
+     * Used by the bulk enrichment mode to resolve launch site names with a single call instead of one
+     * /launchpads/{launchPadId} call per launch. Each launch pad returned is kept as the last known value of its id.
+     * </p>
+     *
+     * @return a {@link Flux} of every {@link LaunchPad} known to the API
+     */
+    public Flux<LaunchPad> getAllLaunchPads() {
+        return spacexWebClient.get().uri("/launchpads")
+                .retrieve()
+                .bodyToFlux(LaunchPad.class)
+                .doOnNext(launchPad -> {
+                    if (launchPad.getLaunchPadId() != null) {
+                        lastKnownLaunchPads.put(launchPad.getLaunchPadId(), launchPad);
+                    }
+                });
+    }
+
+    /**
+     * @return hit, miss and load time statistics of the rocket cache
+     */
+    public CacheStats getRocketCacheStats() {
+        return rocketCache.synchronous().stats();
+    }
+
+    /**
+     * @return hit, miss and load time statistics of the launch pad cache
+     */
+    public CacheStats getLaunchPadCacheStats() {
+        return launchPadCache.synchronous().stats();
+    }
+
+    /**
+     * Decoded /launches response with the validators it was served with.
+     */
+    private record ValidatedLaunches(String eTag, String lastModified, List<Launch> launches) {
+
+        void addConditions(HttpHeaders headers) {
+            if (eTag != null) {
+                headers.setIfNoneMatch(eTag);
+            }
+            if (lastModified != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+    }
+
+    /**
+     * Sends a duplicate of a lookup when the first request has not answered within the hedging delay; whichever
+     * answers first wins and the other is cancelled.
+     * <p>
+     * The delay is the spacex.hedge.percentile of the latest lookup latencies (spacex.hedge.initialDelay until
+     * spacex.hedge.minSamples lookups completed, never below spacex.hedge.minDelay), so only the slowest few
+     * percent of lookups are duplicated. Sent and winning hedges are counted in {@value #HEDGES} by endpoint.
+     * </p>
+     */
+    private <T> Mono<T> hedged(String endpoint, Mono<T> upstream) {
+        if (!hedgeEnabled) {
+            return upstream;
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Mono<T> hedge = Mono.delay(hedgeDelay()).then(Mono.defer(() -> {
+                countHedge(endpoint, "sent");
+                return upstream.doOnNext(value -> countHedge(endpoint, "won"));
+            }));
+            return Mono.firstWithSignal(upstream, hedge)
+                    .doOnNext(value -> lookupLatency.record(Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    private Duration hedgeDelay() {
+        Duration delay = lookupLatency.percentile(hedgePercentile, hedgeMinSamples).orElse(hedgeInitialDelay);
+        return delay.compareTo(hedgeMinDelay) < 0 ? hedgeMinDelay : delay;
+    }
+
+    private void countHedge(String endpoint, String result) {
+        Counter.builder(HEDGES)
+                .description("Hedged duplicates of slow SpaceX lookups, sent and won")
+                .tag("endpoint", endpoint)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Resolves an id through the given cache, subscribing to the upstream call only when the id is neither
+     * cached nor already being loaded. 404 responses are stored as {@link Optional#empty()}; any other error
+     * is not cached and is propagated to every caller waiting on the load.
+     * <p>
+     * Cancellation of one caller does not cancel the shared load, other callers may still be waiting on it.
+     * </p>
+     */
+    private static <T> Mono<T> fromCache(AsyncCache<String, Optional<T>> cache, String id, Mono<T> upstream) {
+        return Mono.fromFuture(() -> cache.get(id, (key, executor) -> upstream
+                        .map(Optional::of)
+                        .onErrorResume(WebClientResponseException.NotFound.class, notFound -> Mono.just(Optional.empty()))
+                        .defaultIfEmpty(Optional.empty())
+                        .toFuture()), true)
+                .flatMap(Mono::justOrEmpty);
     }
 
 }
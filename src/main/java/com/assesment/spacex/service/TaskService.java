@@ -1,13 +1,34 @@
 package com.assesment.spacex.service;
 
+import com.assesment.spacex.aggregation.LaunchAggregator;
+import com.assesment.spacex.client.Deadline;
+import com.assesment.spacex.domain.EnrichedLaunch;
 import com.assesment.spacex.domain.Launch;
+import com.assesment.spacex.domain.LaunchAggregates;
+import com.assesment.spacex.domain.LaunchPad;
+import com.assesment.spacex.domain.LaunchReport;
+import com.assesment.spacex.domain.LaunchRollup;
+import com.assesment.spacex.domain.Rocket;
+import com.assesment.spacex.metrics.PipelineTimer;
+import com.assesment.spacex.store.LaunchColumnStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.ZoneId;
+import java.time.Duration;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.isNull;
@@ -15,40 +36,49 @@ import static java.util.Objects.isNull;
 @Service
 @RequiredArgsConstructor
 public class TaskService {
+    static final String FALLBACKS = "spacex.enrichment.fallbacks";
+    private static final String ROCKET_NAME_NA = "ROCKET_NAME_NA";
+    private static final String LAUNCHPAD_NAME_NA = "LAUNCHPAD_NAME_NA";
+    private static final String STAGE_FETCH = "fetch";
+    private static final String STAGE_ENRICH = "enrich";
+    private static final String STAGE_AGGREGATE = "aggregate";
+
     private final SpacexClientService spacexClientService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spacex.enrichment.mode:PER_ID}")
+    private EnrichmentMode enrichmentMode = EnrichmentMode.PER_ID;
+    @Value("${spacex.aggregation.parallelism:1}")
+    private int aggregationParallelism = 1;
+    @Value("${spacex.enrichment.concurrency:32}")
+    private int enrichmentConcurrency = 32;
+    @Value("${spacex.deadline.budget:PT5S}")
+    private Duration deadlineBudget = Duration.ofSeconds(5);
 
     /**
      * Retrieves the count of rockets launched by year, grouped by rocket type/name.
      * <p>
      * This method first fetches all launches using the SpaceX API, then enriches each launch
-     * with its corresponding rocket's name. If the rocket name is unavailable, a default value
+     * with its corresponding rocket's name. If the rocket name is unavailable (or SpaceX does not know the rocket), a default value
      * "ROCKET_NAME_NA" is assigned. After enriching the data, it groups the launches by rocket
      * type and year, returning the count of launches for each rocket type by year.
      * </p>
+     * <p>
+     * Launches are counted by a {@link LaunchAggregator} as they are enriched, without collecting them first.
+     * </p>
+     * <p>
+     * How the rocket names are resolved depends on the configured {@link EnrichmentMode}.
+     * </p>
+     * <p>
+     * Each run is timed by a {@link PipelineTimer} as pipeline launches-by-year.
+     * </p>
      *
      * @return a {@link Mono} containing a map where the keys are rocket types/names, and the values are
      *         maps of years to launch counts (e.g., Map<rocketType, Map<year, count>>).
      */
     public Mono<Map<String, Map<Integer, Long>>> getRocketsLaunchedByYear() {
-         Mono<List<Launch>> launchListMono = spacexClientService.getAllLaunches()
-                .flatMap(launch ->
-                    spacexClientService.getRocketById(launch.getRocketId())
-                            .map(rocket -> {
-                                launch.setRocketType(isNull(rocket.getRocketName())
-                                        ? "ROCKET_NAME_NA"
-                                        : rocket.getRocketName());
-                                return launch;
-                })).collectList();
-
-         return launchListMono.map(launches -> launches.stream()
-               .collect(Collectors.groupingBy(
-                       Launch::getRocketType,
-                       Collectors.groupingBy(
-                               launch -> launch.getDate().atZone(ZoneId.of("UTC")).getYear(),
-                                Collectors.counting())
-                       )
-                    ));
-
+        return aggregate("launches-by-year", EnumSet.of(LaunchRollup.BY_YEAR))
+                .map(aggregator -> aggregator.toAggregates().getLaunchesByYear());
     }
 
     /**
@@ -56,37 +86,296 @@ public class TaskService {
      * <p>
      * This method first fetches all launches using the SpaceX API, then enriches each launch with
      * its corresponding launch pad and rocket information. If the launch pad name or rocket name
-     * is unavailable, default values ("LAUNCHPAD_NAME_NA" and "ROCKET_NAME_NA") are assigned.
+     * is unavailable (or SpaceX does not know the id), default values ("LAUNCHPAD_NAME_NA" and "ROCKET_NAME_NA") are assigned.
      * After enriching the data, the method groups the launches by rocket type and launch pad,
      * returning the count of launches for each combination of rocket type and launch pad.
      * </p>
+     * <p>
+     * Launches are counted by a {@link LaunchAggregator} as they are enriched, without collecting them first.
+     * </p>
+     * <p>
+     * How the rocket and launch pad names are resolved depends on the configured {@link EnrichmentMode}.
+     * </p>
+     * <p>
+     * Each run is timed by a {@link PipelineTimer} as pipeline launches-by-site.
+     * </p>
      *
      * @return a {@link Mono} containing a map where the keys are rocket types, and the values are
      *         maps of launch pad names to launch counts (e.g., Map<rocketType, Map<launchPadName, count>>).
      */
     public Mono<Map<String, Map<String, Long>>> getLaunchesPerSite() {
-        Mono<List<Launch>> listMono = spacexClientService.getAllLaunches()
-                .flatMap(launch ->
-                    spacexClientService.getLaunchPadById(launch.getLaunchPadId())
-                    .zipWith(spacexClientService.getRocketById(launch.getRocketId()))
-                    .map(tuple -> {
-                        launch.setLaunchPadName(isNull(tuple.getT1().getLaunchPadName())
-                                ? "LAUNCHPAD_NAME_NA"
-                                : tuple.getT1().getLaunchPadName());
-                        launch.setRocketType(isNull(tuple.getT2().getRocketName())
-                                ? "ROCKET_NAME_NA"
-                                : tuple.getT2().getRocketName()
-                        );
-                        return launch;
-                })).collectList();
-
-        return listMono.map(launches ->  launches.stream()
-                    .collect(Collectors.groupingBy(
-                            Launch::getRocketType,
-                            Collectors.groupingBy(
-                                    Launch::getLaunchPadName,
-                                    Collectors.counting())
-            ))
-        );
+        return aggregate("launches-by-site", EnumSet.of(LaunchRollup.BY_SITE))
+                .map(aggregator -> aggregator.toAggregates().getLaunchesBySite());
+    }
+
+    /**
+     * Computes several rollups of the launches from a single fetch and enrichment pass.
+     * <p>
+     * The launches are fetched once and enriched with their rocket names, and with their launch pad names only
+     * when one of the rollups groups by site; a single {@link LaunchAggregator} then counts every requested
+     * rollup as the launches stream by. Each run is timed by a {@link PipelineTimer} as pipeline report.
+     * </p>
+     *
+     * @param rollups the rollups to include in the report
+     * @return a {@link Mono} of the {@link LaunchReport} with only the requested rollups set
+     */
+    public Mono<LaunchReport> getLaunchReport(Set<LaunchRollup> rollups) {
+        return aggregate("report", rollups).map(aggregator -> aggregator.toReport(rollups));
+    }
+
+    /**
+     * Streams every launch enriched with its rocket and launch pad names, as it is enriched.
+     * <p>
+     * Nothing is collected: each launch is emitted as soon as its names are resolved, while the rest of the
+     * /launches response is still being read, and launches are only fetched and looked up as fast as the
+     * subscriber requests them (with at most spacex.enrichment.concurrency lookups in flight). Launches are
+     * emitted in the order their lookups complete. Each run is timed by a {@link PipelineTimer} as pipeline
+     * stream.
+     * </p>
+     *
+     * @return a {@link Flux} of the enriched launches
+     */
+    public Flux<EnrichedLaunch> streamEnrichedLaunches() {
+        return Flux.defer(() -> {
+            PipelineTimer timer = PipelineTimer.start(meterRegistry, "stream");
+            return enriched(enrich(fetched(spacexClientService.getAllLaunches(), timer), true), timer)
+                    .map(EnrichedLaunch::of)
+                    .doFinally(timer::finished);
+        });
+    }
+
+    /**
+     * Computes launches by year and launches by site for the given launches in one enrichment pass.
+     * <p>
+     * Each launch is enriched with its rocket and launch pad names the same way as {@link #getLaunchesPerSite()},
+     * then appended to a dictionary encoded {@link LaunchColumnStore}. Both groupings are computed by scanning
+     * the store's columns, and the store is retained with the aggregates. Used by the aggregate refresher both
+     * for the full /launches history and for batches of newly ingested launches. Each run is timed by a
+     * {@link PipelineTimer} as pipeline refresh.
+     * </p>
+     * <p>
+     * Runs in the background without a {@link Deadline}: a lookup that fails without a last known value fails the
+     * run, so the refresher keeps its previous snapshot rather than counting the launch under an unknown name.
+     * </p>
+     *
+     * @param launches the launches to aggregate
+     * @return a {@link Mono} of the {@link LaunchAggregates} backed by the launch store, with the date of the
+     *         latest launch as watermark and no refresh times set
+     */
+    public Mono<LaunchAggregates> aggregateLaunches(Flux<Launch> launches) {
+        return timed("refresh", timer -> enriched(enrich(fetched(launches, timer), true), timer)
+                .collect(LaunchColumnStore::new, LaunchColumnStore::append)
+                .map(LaunchColumnStore::toAggregates));
+    }
+
+    /**
+     * Fetches all launches, enriches them with what the rollups need and counts them into one
+     * {@link LaunchAggregator}, timed as the given pipeline. Shared by the per-rollup endpoints and the report.
+     * <p>
+     * Each run gets a {@link Deadline} of spacex.deadline.budget, as a caller is waiting for it. It bounds the
+     * /launches fetch (see {@link #launchesWithinDeadline()}), the per-id lookups and, in
+     * {@link EnrichmentMode#BULK}, the /rockets and /launchpads fetches, each falling back to the last values
+     * SpaceX returned.
+     * </p>
+     */
+    private Mono<LaunchAggregator> aggregate(String pipeline, Set<LaunchRollup> rollups) {
+        return timed(pipeline, timer -> LaunchAggregator.aggregate(
+                enriched(enrich(fetched(launchesWithinDeadline(), timer), LaunchRollup.needLaunchPads(rollups)), timer),
+                rollups, aggregationParallelism))
+                .contextWrite(context -> Deadline.start(context, deadlineBudget));
+    }
+
+    /**
+     * Fetches all launches within the {@link Deadline} of the pipeline. When the deadline passes before the first
+     * launch arrives, the launches of the last validated /launches response are used instead (counted as a stale
+     * fallback of lookup launches); once launches were emitted and counted, or without such a copy, the timeout
+     * fails the pipeline.
+     */
+    private Flux<Launch> launchesWithinDeadline() {
+        return Flux.defer(() -> {
+            AtomicBoolean emitted = new AtomicBoolean();
+            return Deadline.within(spacexClientService.getAllLaunches())
+                    .doOnNext(launch -> emitted.set(true))
+                    .onErrorResume(TimeoutException.class, error -> {
+                        Optional<List<Launch>> known = emitted.get()
+                                ? Optional.empty()
+                                : spacexClientService.lastKnownLaunches();
+                        if (known.isEmpty()) {
+                            return Flux.error(error);
+                        }
+                        countFallback("launches", "stale");
+                        return Flux.fromIterable(known.get());
+                    });
+        });
+    }
+
+    /**
+     * Sets the rocket type, and the launch pad name if asked for, of each launch as the configured
+     * {@link EnrichmentMode} resolves them.
+     */
+    private Flux<Launch> enrich(Flux<Launch> launches, boolean withLaunchPads) {
+        if (enrichmentMode == EnrichmentMode.BULK) {
+            return withLaunchPads ? joinRocketAndLaunchPadNames(launches) : joinRocketNames(launches);
+        }
+        return withLaunchPads ? lookupRocketAndLaunchPadNames(launches) : lookupRocketNames(launches);
+    }
+
+    /**
+     * Runs a pipeline under a new {@link PipelineTimer} per subscription, ending the aggregate stage with its result.
+     */
+    private <T> Mono<T> timed(String pipeline, Function<PipelineTimer, Mono<T>> run) {
+        return Mono.defer(() -> {
+            PipelineTimer timer = PipelineTimer.start(meterRegistry, pipeline);
+            return run.apply(timer)
+                    .doOnNext(result -> timer.stageEnded(STAGE_AGGREGATE))
+                    .doFinally(timer::finished);
+        });
+    }
+
+    private static Flux<Launch> fetched(Flux<Launch> launches, PipelineTimer timer) {
+        return launches.doOnComplete(() -> timer.stageEnded(STAGE_FETCH));
+    }
+
+    private static Flux<Launch> enriched(Flux<Launch> launches, PipelineTimer timer) {
+        return launches.doOnComplete(() -> timer.stageEnded(STAGE_ENRICH));
+    }
+
+    /**
+     * {@link EnrichmentMode#PER_ID}: sets the rocket type of each launch from its /rockets/{id} lookup, with at
+     * most spacex.enrichment.concurrency launches being looked up at a time.
+     */
+    private Flux<Launch> lookupRocketNames(Flux<Launch> launches) {
+        return launches.flatMap(launch ->
+                rocketOf(launch.getRocketId())
+                        .map(rocket -> {
+                            launch.setRocketType(rocketName(rocket));
+                            return launch;
+                        }), enrichmentConcurrency);
+    }
+
+    /**
+     * {@link EnrichmentMode#PER_ID}: sets the rocket type and launch pad name of each launch from its
+     * /rockets/{id} and /launchpads/{id} lookups, with at most spacex.enrichment.concurrency launches being
+     * looked up at a time.
+     */
+    private Flux<Launch> lookupRocketAndLaunchPadNames(Flux<Launch> launches) {
+        return launches.flatMap(launch ->
+                launchPadOf(launch.getLaunchPadId())
+                        .zipWith(rocketOf(launch.getRocketId()))
+                        .map(tuple -> {
+                            launch.setLaunchPadName(launchPadName(tuple.getT1()));
+                            launch.setRocketType(rocketName(tuple.getT2()));
+                            return launch;
+                        }), enrichmentConcurrency);
+    }
+
+    /**
+     * Looks a rocket up within the deadline of the pipeline, falling back as described in
+     * {@link #withFallback(String, Mono, Supplier)}.
+     */
+    private Mono<Rocket> rocketOf(String rocketId) {
+        return withFallback("rocket", spacexClientService.getRocketById(rocketId),
+                () -> spacexClientService.lastKnownRocket(rocketId))
+                .defaultIfEmpty(unknownRocket(rocketId));
+    }
+
+    private Mono<LaunchPad> launchPadOf(String launchPadId) {
+        return withFallback("launchpad", spacexClientService.getLaunchPadById(launchPadId),
+                () -> spacexClientService.lastKnownLaunchPad(launchPadId))
+                .defaultIfEmpty(unknownLaunchPad(launchPadId));
+    }
+
+    /**
+     * Bounds a lookup by the {@link Deadline} of the pipeline, if it has one. When the lookup fails or the
+     * deadline passes, the last known value of the id is used instead (result stale); a lookup that timed out
+     * without one completes empty so the launch gets the unknown name (result unknown), but only in a pipeline
+     * with a deadline: without one (the refresh) nobody is waiting, and counting the launch under the unknown name
+     * would persist wrong counts in the snapshot, so the error fails the pipeline like any other error.
+     * Fallbacks are counted in {@value #FALLBACKS} by lookup and result.
+     */
+    private <T> Mono<T> withFallback(String lookup, Mono<T> call, Supplier<Optional<T>> lastKnown) {
+        return Deadline.within(call).onErrorResume(error -> Mono.deferContextual(context -> {
+            Optional<T> known = lastKnown.get();
+            if (known.isPresent()) {
+                countFallback(lookup, "stale");
+                return Mono.just(known.get());
+            }
+            if (error instanceof TimeoutException && Deadline.remaining(context).isPresent()) {
+                countFallback(lookup, "unknown");
+                return Mono.empty();
+            }
+            return Mono.error(error);
+        }));
+    }
+
+    private void countFallback(String lookup, String result) {
+        Counter.builder(FALLBACKS)
+                .description("Lookups that failed or ran out of their request's deadline and fell back")
+                .tag("lookup", lookup)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * {@link EnrichmentMode#BULK}: fetches /rockets once and joins the launches against the id to name map.
+     */
+    private Flux<Launch> joinRocketNames(Flux<Launch> launches) {
+        return rocketNames().flatMapMany(rocketNames -> launches.map(launch -> {
+            launch.setRocketType(rocketNames.getOrDefault(launch.getRocketId(), ROCKET_NAME_NA));
+            return launch;
+        }));
+    }
+
+    /**
+     * {@link EnrichmentMode#BULK}: fetches /rockets and /launchpads once each (concurrently) and joins the
+     * launches against both id to name maps.
+     */
+    private Flux<Launch> joinRocketAndLaunchPadNames(Flux<Launch> launches) {
+        return Mono.zip(rocketNames(), launchPadNames()).flatMapMany(names -> launches.map(launch -> {
+            launch.setRocketType(names.getT1().getOrDefault(launch.getRocketId(), ROCKET_NAME_NA));
+            launch.setLaunchPadName(names.getT2().getOrDefault(launch.getLaunchPadId(), LAUNCHPAD_NAME_NA));
+            return launch;
+        }));
+    }
+
+    /**
+     * Fetches /rockets within the deadline of the pipeline, falling back to the last known rockets as described in
+     * {@link #withFallback(String, Mono, Supplier)}; without any, every launch gets the unknown name.
+     */
+    private Mono<Map<String, String>> rocketNames() {
+        return withFallback("rockets",
+                spacexClientService.getAllRockets().collectMap(Rocket::getRocketId, TaskService::rocketName),
+                () -> Optional.of(spacexClientService.lastKnownRockets())
+                        .filter(rockets -> !rockets.isEmpty())
+                        .map(rockets -> rockets.stream()
+                                .collect(Collectors.toMap(Rocket::getRocketId, TaskService::rocketName))))
+                .defaultIfEmpty(Map.of());
+    }
+
+    private Mono<Map<String, String>> launchPadNames() {
+        return withFallback("launchpads",
+                spacexClientService.getAllLaunchPads().collectMap(LaunchPad::getLaunchPadId, TaskService::launchPadName),
+                () -> Optional.of(spacexClientService.lastKnownLaunchPads())
+                        .filter(launchPads -> !launchPads.isEmpty())
+                        .map(launchPads -> launchPads.stream()
+                                .collect(Collectors.toMap(LaunchPad::getLaunchPadId, TaskService::launchPadName))))
+                .defaultIfEmpty(Map.of());
+    }
+
+    private static String rocketName(Rocket rocket) {
+        return isNull(rocket.getRocketName()) ? ROCKET_NAME_NA : rocket.getRocketName();
+    }
+
+    private static String launchPadName(LaunchPad launchPad) {
+        return isNull(launchPad.getLaunchPadName()) ? LAUNCHPAD_NAME_NA : launchPad.getLaunchPadName();
+    }
+
+    private static Rocket unknownRocket(String rocketId) {
+        return Rocket.builder().rocketId(rocketId).build();
+    }
+
+    private static LaunchPad unknownLaunchPad(String launchPadId) {
+        return LaunchPad.builder().launchPadId(launchPadId).build();
     }
 }
@@ -0,0 +1,374 @@
+package com.assesment.spacex.store;
+
+import com.assesment.spacex.domain.Launch;
+import com.assesment.spacex.domain.LaunchAggregates;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Columnar, dictionary encoded in-memory store of enriched launches.
+ * <p>
+ * A launch is stored as one row over three primitive columns: the dictionary code of its rocket name, the
+ * dictionary code of its launch pad name and its date as epoch milliseconds. That is 16 bytes per launch instead of a
+ * {@link Launch} object with its strings and {@link Instant}, and lets the aggregations run as tight loops over
+ * int columns into int count matrices.
+ * </p>
+ * <p>
+ * Rows are appended while the store is being loaded; once published (e.g. in a {@link LaunchAggregates} snapshot)
+ * a store is treated as read only, further launches go into an {@link #extend()}. An extension shares the columns
+ * and dictionaries of its store and only sees the rows below its own size, so appending to it writes past the end of
+ * the published rows in place; the columns are only reallocated when their capacity is used up, doubling it. Only
+ * the store holding the latest row appends in place, any other one copies its columns first.
+ * </p>
+ * <p>
+ * A store built by {@link #settle(LaunchColumnStore, long)} keeps launches dated after the settle time (upcoming
+ * launches) as pending rows, in small columns of its own after the shared ones. They are dropped again by the next
+ * settle, which is handed their current version, so rescheduled launches do not pile up in the shared columns.
+ * </p>
+ */
+public class LaunchColumnStore {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int INITIAL_PENDING_CAPACITY = 16;
+
+    private final StringDictionary rockets;
+    private final StringDictionary launchPads;
+    private Rows rows;
+    private int[] rocketCodes;
+    private int[] launchPadCodes;
+    private long[] epochMillis;
+    private int settledSize;
+    private int[] pendingRocketCodes = new int[0];
+    private int[] pendingLaunchPadCodes = new int[0];
+    private long[] pendingEpochMillis = new long[0];
+    private int pendingSize;
+
+    public LaunchColumnStore() {
+        this(new StringDictionary(), new StringDictionary(), new Rows(0),
+                new int[INITIAL_CAPACITY], new int[INITIAL_CAPACITY], new long[INITIAL_CAPACITY], 0);
+    }
+
+    private LaunchColumnStore(StringDictionary rockets, StringDictionary launchPads, Rows rows,
+                              int[] rocketCodes, int[] launchPadCodes, long[] epochMillis, int settledSize) {
+        this.rockets = rockets;
+        this.launchPads = launchPads;
+        this.rows = rows;
+        this.rocketCodes = rocketCodes;
+        this.launchPadCodes = launchPadCodes;
+        this.epochMillis = epochMillis;
+        this.settledSize = settledSize;
+    }
+
+    /**
+     * Wraps columns read back from a {@link LaunchSnapshotFile}. The arrays are taken over, not copied.
+     */
+    static LaunchColumnStore ofColumns(StringDictionary rockets, StringDictionary launchPads,
+                                       int[] rocketCodes, int[] launchPadCodes, long[] epochMillis) {
+        return new LaunchColumnStore(rockets, launchPads, new Rows(epochMillis.length),
+                rocketCodes, launchPadCodes, epochMillis, epochMillis.length);
+    }
+
+    /**
+     * Appends an enriched launch.
+     *
+     * @param launch launch with its rocket type and launch pad name set
+     */
+    public void append(Launch launch) {
+        append(launch.getRocketType(), launch.getLaunchPadName(), launch.getDate().toEpochMilli());
+    }
+
+    /**
+     * Appends a launch given by its column values.
+     *
+     * @param rocketName    name of the launch's rocket
+     * @param launchPadName name of the launch's launch pad
+     * @param epochMilli    launch date as milliseconds since the epoch
+     */
+    public void append(String rocketName, String launchPadName, long epochMilli) {
+        if (rows.size != settledSize) {
+            rows = new Rows(settledSize);
+            resize(Math.max(INITIAL_CAPACITY, settledSize << 1));
+        }
+        if (settledSize == rocketCodes.length) {
+            resize(Math.max(INITIAL_CAPACITY, settledSize << 1));
+        }
+        rocketCodes[settledSize] = rockets.encode(rocketName);
+        launchPadCodes[settledSize] = launchPads.encode(launchPadName);
+        epochMillis[settledSize] = epochMilli;
+        rows.size = ++settledSize;
+    }
+
+    private void resize(int capacity) {
+        rocketCodes = Arrays.copyOf(rocketCodes, capacity);
+        launchPadCodes = Arrays.copyOf(launchPadCodes, capacity);
+        epochMillis = Arrays.copyOf(epochMillis, capacity);
+    }
+
+    private void appendPending(String rocketName, String launchPadName, long epochMilli) {
+        if (pendingSize == pendingEpochMillis.length) {
+            int capacity = Math.max(INITIAL_PENDING_CAPACITY, pendingSize << 1);
+            pendingRocketCodes = Arrays.copyOf(pendingRocketCodes, capacity);
+            pendingLaunchPadCodes = Arrays.copyOf(pendingLaunchPadCodes, capacity);
+            pendingEpochMillis = Arrays.copyOf(pendingEpochMillis, capacity);
+        }
+        pendingRocketCodes[pendingSize] = rockets.encode(rocketName);
+        pendingLaunchPadCodes[pendingSize] = launchPads.encode(launchPadName);
+        pendingEpochMillis[pendingSize] = epochMilli;
+        pendingSize++;
+    }
+
+    /**
+     * Appends all rows of another store, re-encoding its names into this store's dictionaries.
+     *
+     * @param other store to append, not modified
+     * @return this store
+     */
+    public LaunchColumnStore appendAll(LaunchColumnStore other) {
+        for (int row = 0; row < other.size(); row++) {
+            append(other.rockets.decode(other.rocketCode(row)),
+                    other.launchPads.decode(other.launchPadCode(row)),
+                    other.epochMilli(row));
+        }
+        return this;
+    }
+
+    /**
+     * @return an independent copy of this store that further launches can be appended to
+     */
+    public LaunchColumnStore copy() {
+        int capacity = Math.max(INITIAL_CAPACITY, settledSize);
+        LaunchColumnStore copy = new LaunchColumnStore(rockets.copy(), launchPads.copy(), new Rows(settledSize),
+                Arrays.copyOf(rocketCodes, capacity), Arrays.copyOf(launchPadCodes, capacity),
+                Arrays.copyOf(epochMillis, capacity), settledSize);
+        copy.pendingRocketCodes = Arrays.copyOf(pendingRocketCodes, pendingSize);
+        copy.pendingLaunchPadCodes = Arrays.copyOf(pendingLaunchPadCodes, pendingSize);
+        copy.pendingEpochMillis = Arrays.copyOf(pendingEpochMillis, pendingSize);
+        copy.pendingSize = pendingSize;
+        return copy;
+    }
+
+    /**
+     * @return a store starting with the settled rows of this one that further launches can be appended to, sharing
+     * its columns and dictionaries instead of copying them; pending rows are not carried over
+     */
+    public LaunchColumnStore extend() {
+        return new LaunchColumnStore(rockets.extend(), launchPads.extend(), rows,
+                rocketCodes, launchPadCodes, epochMillis, settledSize);
+    }
+
+    /**
+     * Builds the store of the next snapshot: the settled rows of this store followed by the rows of {@code delta}.
+     * Rows of the delta dated at or before {@code cutoff} become settled rows, appended to an {@link #extend()} of
+     * this store; later ones become pending rows. The pending rows of this store are dropped, the delta is expected
+     * to hold them again.
+     *
+     * @param delta  launches fetched since this store was settled, not modified
+     * @param cutoff time the delta was fetched at, as epoch milliseconds
+     * @return the new store
+     */
+    public LaunchColumnStore settle(LaunchColumnStore delta, long cutoff) {
+        LaunchColumnStore settled = extend();
+        for (int row = 0; row < delta.size(); row++) {
+            String rocketName = delta.rockets.decode(delta.rocketCode(row));
+            String launchPadName = delta.launchPads.decode(delta.launchPadCode(row));
+            long epochMilli = delta.epochMilli(row);
+            if (epochMilli <= cutoff) {
+                settled.append(rocketName, launchPadName, epochMilli);
+            } else {
+                settled.appendPending(rocketName, launchPadName, epochMilli);
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * @return a store of the pending rows of this one only, e.g. to take their counts back out of aggregates
+     */
+    public LaunchColumnStore pendingRows() {
+        return new LaunchColumnStore(rockets.extend(), launchPads.extend(), new Rows(pendingSize),
+                Arrays.copyOf(pendingRocketCodes, pendingSize), Arrays.copyOf(pendingLaunchPadCodes, pendingSize),
+                Arrays.copyOf(pendingEpochMillis, pendingSize), pendingSize);
+    }
+
+    /**
+     * Counts launches by rocket and UTC year.
+     *
+     * @return map of rocket name to map of year to launch count
+     */
+    public Map<String, Map<Integer, Long>> countByRocketAndYear() {
+        return countByCodeAndYear(rocketCodes, pendingRocketCodes, rockets);
+    }
+
+    /**
+     * Counts launches by launch pad and UTC year.
+     *
+     * @return map of launch pad name to map of year to launch count
+     */
+    public Map<String, Map<Integer, Long>> countBySiteAndYear() {
+        return countByCodeAndYear(launchPadCodes, pendingLaunchPadCodes, launchPads);
+    }
+
+    private Map<String, Map<Integer, Long>> countByCodeAndYear(int[] codes, int[] pendingCodes,
+                                                               StringDictionary dictionary) {
+        int size = size();
+        if (size == 0) {
+            return new HashMap<>();
+        }
+        int firstYear = Integer.MAX_VALUE;
+        int lastYear = Integer.MIN_VALUE;
+        int[] years = new int[size];
+        for (int row = 0; row < size; row++) {
+            int year = UtcCalendar.yearOf(epochMilli(row));
+            years[row] = year;
+            firstYear = Math.min(firstYear, year);
+            lastYear = Math.max(lastYear, year);
+        }
+        int yearCount = lastYear - firstYear + 1;
+        int[] counts = new int[dictionary.size() * yearCount];
+        for (int row = 0; row < settledSize; row++) {
+            counts[codes[row] * yearCount + years[row] - firstYear]++;
+        }
+        for (int row = 0; row < pendingSize; row++) {
+            counts[pendingCodes[row] * yearCount + years[settledSize + row] - firstYear]++;
+        }
+        Map<String, Map<Integer, Long>> result = new HashMap<>();
+        for (int code = 0; code < dictionary.size(); code++) {
+            for (int year = 0; year < yearCount; year++) {
+                int count = counts[code * yearCount + year];
+                if (count != 0) {
+                    result.computeIfAbsent(dictionary.decode(code), ignored -> new HashMap<>())
+                            .put(firstYear + year, (long) count);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts launches by rocket and launch pad.
+     *
+     * @return map of rocket name to map of launch pad name to launch count
+     */
+    public Map<String, Map<String, Long>> countByRocketAndSite() {
+        int launchPadCount = launchPads.size();
+        int[] counts = new int[rockets.size() * launchPadCount];
+        for (int row = 0; row < settledSize; row++) {
+            counts[rocketCodes[row] * launchPadCount + launchPadCodes[row]]++;
+        }
+        for (int row = 0; row < pendingSize; row++) {
+            counts[pendingRocketCodes[row] * launchPadCount + pendingLaunchPadCodes[row]]++;
+        }
+        Map<String, Map<String, Long>> result = new HashMap<>();
+        for (int rocket = 0; rocket < rockets.size(); rocket++) {
+            for (int launchPad = 0; launchPad < launchPadCount; launchPad++) {
+                int count = counts[rocket * launchPadCount + launchPad];
+                if (count != 0) {
+                    result.computeIfAbsent(rockets.decode(rocket), ignored -> new HashMap<>())
+                            .put(launchPads.decode(launchPad), (long) count);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return date of the latest launch in the store, or null when it is empty
+     */
+    public Instant latestLaunchDate() {
+        return latestLaunchDateUpTo(Long.MAX_VALUE);
+    }
+
+    /**
+     * @param cutoff latest launch date to consider, as epoch milliseconds
+     * @return date of the latest launch in the store dated at or before the cutoff, or null when there is none
+     */
+    public Instant latestLaunchDateUpTo(long cutoff) {
+        long latest = Long.MIN_VALUE;
+        boolean found = false;
+        for (int row = 0; row < size(); row++) {
+            long epochMilli = epochMilli(row);
+            if (epochMilli <= cutoff && (!found || epochMilli > latest)) {
+                latest = epochMilli;
+                found = true;
+            }
+        }
+        return found ? Instant.ofEpochMilli(latest) : null;
+    }
+
+    /**
+     * @return the aggregates of all launches in the store, backed by this store, with no refresh times set
+     */
+    public LaunchAggregates toAggregates() {
+        return LaunchAggregates.builder()
+                .launchesByYear(countByRocketAndYear())
+                .launchesBySite(countByRocketAndSite())
+                .latestLaunchDate(latestLaunchDate())
+                .launches(this)
+                .build();
+    }
+
+    /**
+     * @return number of launches in the store
+     */
+    public int size() {
+        return settledSize + pendingSize;
+    }
+
+    /**
+     * @return number of pending launches in the store, the last rows
+     */
+    public int pendingSize() {
+        return pendingSize;
+    }
+
+    /**
+     * @return dictionary of the rocket names
+     */
+    public StringDictionary rockets() {
+        return rockets;
+    }
+
+    /**
+     * @return dictionary of the launch pad names
+     */
+    public StringDictionary launchPads() {
+        return launchPads;
+    }
+
+    /**
+     * @param row row index, below {@link #size()}
+     * @return rocket name code of the launch in that row
+     */
+    public int rocketCode(int row) {
+        return row < settledSize ? rocketCodes[row] : pendingRocketCodes[row - settledSize];
+    }
+
+    /**
+     * @param row row index, below {@link #size()}
+     * @return launch pad name code of the launch in that row
+     */
+    public int launchPadCode(int row) {
+        return row < settledSize ? launchPadCodes[row] : pendingLaunchPadCodes[row - settledSize];
+    }
+
+    /**
+     * @param row row index, below {@link #size()}
+     * @return launch date of the launch in that row as epoch milliseconds
+     */
+    public long epochMilli(int row) {
+        return row < settledSize ? epochMillis[row] : pendingEpochMillis[row - settledSize];
+    }
+
+    /**
+     * Number of rows written to columns shared by a store and its extensions.
+     */
+    private static final class Rows {
+        private int size;
+
+        private Rows(int size) {
+            this.size = size;
+        }
+    }
+}
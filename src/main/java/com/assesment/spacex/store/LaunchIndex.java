@@ -0,0 +1,185 @@
+package com.assesment.spacex.store;
+
+import com.assesment.spacex.domain.LaunchDimension;
+import com.assesment.spacex.domain.LaunchQuery;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Read only indexes over a {@link LaunchColumnStore} answering {@link LaunchQuery} group-by/filter queries.
+ * <p>
+ * Rocket and launch site filters are answered from one row bitmap per dictionary code, year filters by binary search
+ * over the rows sorted by date, so a filter never scans all rows. Only the rows selected by the filters are visited
+ * for grouping.
+ * </p>
+ */
+public class LaunchIndex {
+    private final LaunchColumnStore store;
+    private final BitSet[] rowsByRocket;
+    private final BitSet[] rowsBySite;
+    private final int[] rowsByDate;
+    private final long[] sortedEpochMillis;
+
+    private LaunchIndex(LaunchColumnStore store, BitSet[] rowsByRocket, BitSet[] rowsBySite,
+                        int[] rowsByDate, long[] sortedEpochMillis) {
+        this.store = store;
+        this.rowsByRocket = rowsByRocket;
+        this.rowsBySite = rowsBySite;
+        this.rowsByDate = rowsByDate;
+        this.sortedEpochMillis = sortedEpochMillis;
+    }
+
+    /**
+     * Builds the indexes of a store. The store must not be appended to afterwards.
+     *
+     * @param store launches to index
+     * @return the index over the store
+     */
+    public static LaunchIndex build(LaunchColumnStore store) {
+        int size = store.size();
+        BitSet[] rowsByRocket = newBitSets(store.rockets().size(), size);
+        BitSet[] rowsBySite = newBitSets(store.launchPads().size(), size);
+        for (int row = 0; row < size; row++) {
+            rowsByRocket[store.rocketCode(row)].set(row);
+            rowsBySite[store.launchPadCode(row)].set(row);
+        }
+        int[] rowsByDate = IntStream.range(0, size)
+                .boxed()
+                .sorted(Comparator.comparingLong(store::epochMilli))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        long[] sortedEpochMillis = new long[size];
+        for (int i = 0; i < size; i++) {
+            sortedEpochMillis[i] = store.epochMilli(rowsByDate[i]);
+        }
+        return new LaunchIndex(store, rowsByRocket, rowsBySite, rowsByDate, sortedEpochMillis);
+    }
+
+    /**
+     * @return the store this index was built over
+     */
+    public LaunchColumnStore store() {
+        return store;
+    }
+
+    /**
+     * Counts the launches matching the query's filters, grouped by its dimensions.
+     *
+     * @param query the query to run
+     * @return nested maps, one level per group-by dimension in order, with launch counts as leaves; the total
+     *         count when the query has no group-by dimension
+     */
+    public Object count(LaunchQuery query) {
+        BitSet rows = select(query);
+        List<LaunchDimension> groupBy = query.getGroupBy();
+        if (groupBy.isEmpty()) {
+            return (long) rows.cardinality();
+        }
+        Map<Object, Object> result = new HashMap<>();
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            Map<Object, Object> level = result;
+            for (int i = 0; i < groupBy.size() - 1; i++) {
+                level = nested(level, key(groupBy.get(i), row));
+            }
+            level.merge(key(groupBy.get(groupBy.size() - 1), row), 1L, (a, b) -> (Long) a + (Long) b);
+        }
+        return result;
+    }
+
+    private BitSet select(LaunchQuery query) {
+        BitSet rows = rowsBetween(query.getFromYear(), query.getToYear());
+        for (Map.Entry<LaunchDimension, Set<String>> filter : query.getFilters().entrySet()) {
+            BitSet matching = new BitSet(store.size());
+            for (String value : filter.getValue()) {
+                matching.or(rowsWith(filter.getKey(), value));
+            }
+            rows.and(matching);
+        }
+        return rows;
+    }
+
+    private BitSet rowsWith(LaunchDimension dimension, String value) {
+        return switch (dimension) {
+            case ROCKET -> rowsOf(rowsByRocket, store.rockets().codeOf(value));
+            case SITE -> rowsOf(rowsBySite, store.launchPads().codeOf(value));
+            case YEAR -> {
+                int year = parseYear(value);
+                yield rowsBetween(year, year);
+            }
+        };
+    }
+
+    /**
+     * Rows dated within the inclusive UTC year range; an open bound is unbounded.
+     */
+    private BitSet rowsBetween(Integer fromYear, Integer toYear) {
+        BitSet rows = new BitSet(store.size());
+        if (fromYear == null && toYear == null) {
+            rows.set(0, store.size());
+            return rows;
+        }
+        int from = fromYear == null ? 0 : firstIndexAtOrAfter(startOfYear(fromYear));
+        int to = toYear == null ? sortedEpochMillis.length : firstIndexAtOrAfter(startOfYear(toYear + 1));
+        for (int i = from; i < to; i++) {
+            rows.set(rowsByDate[i]);
+        }
+        return rows;
+    }
+
+    private int firstIndexAtOrAfter(long epochMilli) {
+        int index = Arrays.binarySearch(sortedEpochMillis, epochMilli);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && sortedEpochMillis[index - 1] == epochMilli) {
+            index--;
+        }
+        return index;
+    }
+
+    private Object key(LaunchDimension dimension, int row) {
+        return switch (dimension) {
+            case ROCKET -> store.rockets().decode(store.rocketCode(row));
+            case SITE -> store.launchPads().decode(store.launchPadCode(row));
+            case YEAR -> UtcCalendar.yearOf(store.epochMilli(row));
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> nested(Map<Object, Object> level, Object key) {
+        return (Map<Object, Object>) level.computeIfAbsent(key, ignored -> new HashMap<>());
+    }
+
+    private static BitSet rowsOf(BitSet[] rowsByCode, int code) {
+        return code < 0 ? new BitSet() : rowsByCode[code];
+    }
+
+    private static BitSet[] newBitSets(int count, int size) {
+        BitSet[] bitSets = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            bitSets[i] = new BitSet(size);
+        }
+        return bitSets;
+    }
+
+    private static long startOfYear(int year) {
+        return LocalDate.of(year, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+    private static int parseYear(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid year '%s'".formatted(value));
+        }
+    }
+}
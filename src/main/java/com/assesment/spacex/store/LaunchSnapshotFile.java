@@ -0,0 +1,191 @@
+package com.assesment.spacex.store;
+
+import com.assesment.spacex.domain.LaunchAggregates;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary file holding the enriched launches of a {@link LaunchAggregates} snapshot, for a warm start.
+ * <p>
+ * The file is the {@link LaunchColumnStore} as is: a header with the snapshot's refresh times, the rocket and
+ * launch pad dictionaries (length prefixed UTF-8) in code order, then the rocket code, launch pad code and epoch
+ * millisecond columns, and a CRC32 of everything before it. Reading maps the file with {@link FileChannel#map} and
+ * bulk-copies the columns, then recomputes the aggregates from the store, which is far cheaper than fetching and
+ * enriching the launches again.
+ * </p>
+ * <p>
+ * Files are written to a temporary sibling and moved into place, so a crash while writing never leaves a
+ * truncated snapshot behind.
+ * </p>
+ */
+public final class LaunchSnapshotFile {
+    private static final int MAGIC = 0x5350584C; // "SPXL"
+    private static final int VERSION = 1;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private LaunchSnapshotFile() {
+    }
+
+    /**
+     * Writes the launches of a snapshot, replacing the file if it exists.
+     *
+     * @param aggregates snapshot with its launches retained
+     * @param path       file to write
+     * @throws IOException when the file cannot be written
+     */
+    public static void write(LaunchAggregates aggregates, Path path) throws IOException {
+        LaunchColumnStore store = aggregates.getLaunches();
+        byte[][] rockets = encode(store.rockets());
+        byte[][] launchPads = encode(store.launchPads());
+        int size = store.size();
+        int length = 4 + 4 + 8 + 8 + dictionaryLength(rockets) + dictionaryLength(launchPads) + 4 + size * 16 + 8;
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putInt(MAGIC).putInt(VERSION)
+                .putLong(toMillis(aggregates.getRefreshedAt()))
+                .putLong(toMillis(aggregates.getReconciledAt()));
+        putDictionary(buffer, rockets);
+        putDictionary(buffer, launchPads);
+        buffer.putInt(size);
+        for (int row = 0; row < size; row++) {
+            buffer.putInt(store.rocketCode(row));
+        }
+        for (int row = 0; row < size; row++) {
+            buffer.putInt(store.launchPadCode(row));
+        }
+        for (int row = 0; row < size; row++) {
+            buffer.putLong(store.epochMilli(row));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write(LaunchAggregates, Path)}.
+     *
+     * @param path file to read
+     * @return the snapshot's aggregates, recomputed from its launches, with the refresh times it was written with
+     * @throws IOException when the file cannot be read or is not a valid snapshot file
+     */
+    public static LaunchAggregates read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < 8 || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Invalid launch snapshot size %d in %s".formatted(fileSize, path));
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            verifyChecksum(buffer, path);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a launch snapshot file (version %d): %s".formatted(VERSION, path));
+            }
+            Instant refreshedAt = toInstant(buffer.getLong());
+            Instant reconciledAt = toInstant(buffer.getLong());
+            StringDictionary rockets = getDictionary(buffer);
+            StringDictionary launchPads = getDictionary(buffer);
+            int size = buffer.getInt();
+            int[] rocketCodes = new int[size];
+            int[] launchPadCodes = new int[size];
+            long[] epochMillis = new long[size];
+            buffer.asIntBuffer().get(rocketCodes);
+            buffer.position(buffer.position() + size * 4);
+            buffer.asIntBuffer().get(launchPadCodes);
+            buffer.position(buffer.position() + size * 4);
+            buffer.asLongBuffer().get(epochMillis);
+            verifyCodes(rocketCodes, rockets.size(), path);
+            verifyCodes(launchPadCodes, launchPads.size(), path);
+            return LaunchColumnStore.ofColumns(rockets, launchPads, rocketCodes, launchPadCodes, epochMillis)
+                    .toAggregates()
+                    .toBuilder()
+                    .refreshedAt(refreshedAt)
+                    .reconciledAt(reconciledAt)
+                    .build();
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt launch snapshot file %s".formatted(path), e);
+        }
+    }
+
+    private static void verifyChecksum(ByteBuffer buffer, Path path) throws IOException {
+        int payloadLength = buffer.limit() - 8;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, payloadLength));
+        if (crc.getValue() != buffer.getLong(payloadLength)) {
+            throw new IOException("Checksum mismatch in launch snapshot file %s".formatted(path));
+        }
+    }
+
+    private static void verifyCodes(int[] codes, int dictionarySize, Path path) throws IOException {
+        for (int code : codes) {
+            if (code < 0 || code >= dictionarySize) {
+                throw new IOException("Invalid dictionary code %d in launch snapshot file %s".formatted(code, path));
+            }
+        }
+    }
+
+    private static byte[][] encode(StringDictionary dictionary) {
+        byte[][] values = new byte[dictionary.size()][];
+        for (int code = 0; code < values.length; code++) {
+            values[code] = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private static int dictionaryLength(byte[][] values) {
+        int length = 4;
+        for (byte[] value : values) {
+            length += 4 + value.length;
+        }
+        return length;
+    }
+
+    private static void putDictionary(ByteBuffer buffer, byte[][] values) {
+        buffer.putInt(values.length);
+        for (byte[] value : values) {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static StringDictionary getDictionary(ByteBuffer buffer) {
+        StringDictionary dictionary = new StringDictionary();
+        int count = buffer.getInt();
+        for (int code = 0; code < count; code++) {
+            byte[] value = new byte[buffer.getInt()];
+            buffer.get(value);
+            dictionary.encode(new String(value, StandardCharsets.UTF_8));
+        }
+        return dictionary;
+    }
+
+    private static long toMillis(Instant instant) {
+        return instant == null ? NO_TIME : instant.toEpochMilli();
+    }
+
+    private static Instant toInstant(long epochMilli) {
+        return epochMilli == NO_TIME ? null : Instant.ofEpochMilli(epochMilli);
+    }
+}
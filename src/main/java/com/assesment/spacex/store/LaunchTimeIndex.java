@@ -0,0 +1,177 @@
+package com.assesment.spacex.store;
+
+import com.assesment.spacex.domain.LaunchTimelineQuery;
+import com.assesment.spacex.domain.TimeGranularity;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read only time series index over the launch dates of a {@link LaunchColumnStore}, per rocket, answering
+ * {@link LaunchTimelineQuery} range counts without scanning the launches.
+ * <p>
+ * Each rocket's launch dates are kept sorted, so the launches within any range are counted with two binary
+ * searches. For every {@link TimeGranularity} each rocket also has a prefix sum array over its buckets, from its
+ * first to its last launch, so the launches of a bucket (or any run of buckets) are a difference of two entries;
+ * the buckets at either end of a range are clipped to it by the same binary searches.
+ * The index is rebuilt for every snapshot rather than updated, so plain prefix sums are enough.
+ * </p>
+ */
+public class LaunchTimeIndex {
+    private final LaunchColumnStore store;
+    private final long[][] epochMillisByRocket;
+    private final Map<TimeGranularity, BucketCounts[]> bucketsByGranularity;
+
+    private LaunchTimeIndex(LaunchColumnStore store, long[][] epochMillisByRocket,
+                            Map<TimeGranularity, BucketCounts[]> bucketsByGranularity) {
+        this.store = store;
+        this.epochMillisByRocket = epochMillisByRocket;
+        this.bucketsByGranularity = bucketsByGranularity;
+    }
+
+    /**
+     * Builds the index of a store. The store must not be appended to afterwards.
+     *
+     * @param store launches to index
+     * @return the index over the store
+     */
+    public static LaunchTimeIndex build(LaunchColumnStore store) {
+        int rockets = store.rockets().size();
+        int[] sizes = new int[rockets];
+        for (int row = 0; row < store.size(); row++) {
+            sizes[store.rocketCode(row)]++;
+        }
+        long[][] epochMillisByRocket = new long[rockets][];
+        for (int code = 0; code < rockets; code++) {
+            epochMillisByRocket[code] = new long[sizes[code]];
+        }
+        int[] filled = new int[rockets];
+        for (int row = 0; row < store.size(); row++) {
+            int code = store.rocketCode(row);
+            epochMillisByRocket[code][filled[code]++] = store.epochMilli(row);
+        }
+        Map<TimeGranularity, BucketCounts[]> bucketsByGranularity = new EnumMap<>(TimeGranularity.class);
+        for (TimeGranularity granularity : TimeGranularity.values()) {
+            bucketsByGranularity.put(granularity, new BucketCounts[rockets]);
+        }
+        for (int code = 0; code < rockets; code++) {
+            Arrays.sort(epochMillisByRocket[code]);
+            for (TimeGranularity granularity : TimeGranularity.values()) {
+                bucketsByGranularity.get(granularity)[code] = BucketCounts.of(epochMillisByRocket[code], granularity);
+            }
+        }
+        return new LaunchTimeIndex(store, epochMillisByRocket, bucketsByGranularity);
+    }
+
+    /**
+     * @return the store this index was built over
+     */
+    public LaunchColumnStore store() {
+        return store;
+    }
+
+    /**
+     * Counts the launches matching the query, per rocket.
+     *
+     * @param query the query to run
+     * @return map of rocket name to launch count in the range, or, when the query has a granularity, map of rocket
+     *         name to map of bucket label to launch count; rockets and buckets without launches are left out
+     */
+    public Object count(LaunchTimelineQuery query) {
+        long from = query.getFrom() == null ? Long.MIN_VALUE : query.getFrom().toEpochMilli();
+        long to = query.getTo() == null ? Long.MAX_VALUE : query.getTo().toEpochMilli();
+        Map<String, Object> result = new HashMap<>();
+        for (int code = 0; code < epochMillisByRocket.length; code++) {
+            String rocket = store.rockets().decode(code);
+            if (!query.getRockets().isEmpty() && !query.getRockets().contains(rocket)) {
+                continue;
+            }
+            if (query.getGranularity() == null) {
+                long count = countBetween(epochMillisByRocket[code], from, to);
+                if (count != 0) {
+                    result.put(rocket, count);
+                }
+            } else if (from < to) {
+                Map<String, Long> buckets = bucketsByGranularity.get(query.getGranularity())[code]
+                        .between(query.getGranularity(), epochMillisByRocket[code], from, to);
+                if (!buckets.isEmpty()) {
+                    result.put(rocket, buckets);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long countBetween(long[] sortedEpochMillis, long from, long to) {
+        return from >= to ? 0 : firstIndexAtOrAfter(sortedEpochMillis, to) - firstIndexAtOrAfter(sortedEpochMillis, from);
+    }
+
+    private static int firstIndexAtOrAfter(long[] sortedEpochMillis, long epochMilli) {
+        int low = 0;
+        int high = sortedEpochMillis.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedEpochMillis[middle] < epochMilli) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Launch counts of one rocket per bucket of one granularity, as prefix sums: {@code prefix[i]} is the number
+     * of launches in the buckets before {@code firstBucket + i}.
+     */
+    private static final class BucketCounts {
+        private final long firstBucket;
+        private final long[] prefix;
+
+        private BucketCounts(long firstBucket, long[] prefix) {
+            this.firstBucket = firstBucket;
+            this.prefix = prefix;
+        }
+
+        private static BucketCounts of(long[] sortedEpochMillis, TimeGranularity granularity) {
+            if (sortedEpochMillis.length == 0) {
+                return new BucketCounts(0, new long[1]);
+            }
+            long firstBucket = granularity.bucketOf(sortedEpochMillis[0]);
+            long lastBucket = granularity.bucketOf(sortedEpochMillis[sortedEpochMillis.length - 1]);
+            long[] prefix = new long[Math.toIntExact(lastBucket - firstBucket + 2)];
+            for (long epochMilli : sortedEpochMillis) {
+                prefix[(int) (granularity.bucketOf(epochMilli) - firstBucket) + 1]++;
+            }
+            for (int i = 1; i < prefix.length; i++) {
+                prefix[i] += prefix[i - 1];
+            }
+            return new BucketCounts(firstBucket, prefix);
+        }
+
+        /**
+         * Counts the launches within [from, to) per bucket overlapping it, in bucket order, leaving out empty
+         * buckets. The launches of bucket {@code i} are {@code sortedEpochMillis[prefix[i]..prefix[i + 1])}, so the
+         * first and last bucket, which the range may only partly cover, are clipped to the indexes of {@code from}
+         * and {@code to} found by binary search.
+         */
+        private Map<String, Long> between(TimeGranularity granularity, long[] sortedEpochMillis, long from, long to) {
+            int buckets = prefix.length - 1;
+            long first = from == Long.MIN_VALUE ? 0 : Math.max(0, granularity.bucketOf(from) - firstBucket);
+            long last = to == Long.MAX_VALUE ? buckets - 1 : Math.min(buckets - 1, granularity.bucketOf(to - 1) - firstBucket);
+            long fromIndex = firstIndexAtOrAfter(sortedEpochMillis, from);
+            long toIndex = firstIndexAtOrAfter(sortedEpochMillis, to);
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (long i = first; i <= last; i++) {
+                long count = Math.min(prefix[(int) i + 1], toIndex) - Math.max(prefix[(int) i], fromIndex);
+                if (count > 0) {
+                    counts.put(granularity.label(firstBucket + i), count);
+                }
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.assesment.spacex.store;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary encoding of strings (rocket and launch pad names) into dense int codes 0..size-1.
+ * <p>
+ * Each distinct string is stored once; columns only hold its code. Not thread safe while codes are being added.
+ * </p>
+ * <p>
+ * An {@link #extend()} shares its codes with the dictionary it was taken from and only sees the codes below its own
+ * size, so new strings can be added to the extension in place while the original is still being read. Only the
+ * dictionary holding the latest code adds in place; any other one is copied first.
+ * </p>
+ */
+public class StringDictionary {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Codes codes;
+    private String[] values;
+    private int size;
+
+    public StringDictionary() {
+        this(new Codes(), new String[INITIAL_CAPACITY], 0);
+    }
+
+    private StringDictionary(Codes codes, String[] values, int size) {
+        this.codes = codes;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * @param value string to encode
+     * @return the code of the string, assigning the next free code when it is not in the dictionary yet
+     */
+    public int encode(String value) {
+        int code = codeOf(value);
+        if (code >= 0) {
+            return code;
+        }
+        if (codes.size != size) {
+            StringDictionary copy = copy();
+            codes = copy.codes;
+            values = copy.values;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(INITIAL_CAPACITY, size << 1));
+        }
+        values[size] = value;
+        codes.byValue.put(value, size);
+        codes.size = ++size;
+        return size - 1;
+    }
+
+    /**
+     * @param value string to look up
+     * @return the code of the string, or -1 when it is not in the dictionary
+     */
+    public int codeOf(String value) {
+        Integer code = codes.byValue.get(value);
+        return code == null || code >= size ? -1 : code;
+    }
+
+    /**
+     * @param code a code returned by {@link #encode(String)}
+     * @return the string encoded as that code
+     */
+    public String decode(int code) {
+        if (code >= size) {
+            throw new IndexOutOfBoundsException(code);
+        }
+        return values[code];
+    }
+
+    /**
+     * @return number of distinct strings in the dictionary
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return an independent copy, codes already assigned keep their value
+     */
+    public StringDictionary copy() {
+        Codes copy = new Codes();
+        for (int code = 0; code < size; code++) {
+            copy.byValue.put(values[code], code);
+        }
+        copy.size = size;
+        return new StringDictionary(copy, Arrays.copyOf(values, Math.max(INITIAL_CAPACITY, size)), size);
+    }
+
+    /**
+     * @return a dictionary starting with the codes of this one that further strings can be added to, sharing its
+     * storage until either of them has to be copied or grown
+     */
+    public StringDictionary extend() {
+        return new StringDictionary(codes, values, size);
+    }
+
+    /**
+     * Codes shared by a dictionary and its extensions, with the number of codes assigned so far.
+     */
+    private static final class Codes {
+        private final Map<String, Integer> byValue = new ConcurrentHashMap<>();
+        private int size;
+    }
+}
@@ -0,0 +1,40 @@
+package com.assesment.spacex.store;
+
+/**
+ * Allocation free conversion of epoch milliseconds to UTC calendar fields, used by the column scans instead of
+ * {@code Instant.atZone(...)} per launch.
+ * <p>
+ * Based on the days-from-civil algorithm of the proleptic Gregorian calendar (as used by {@link java.time.LocalDate}).
+ * </p>
+ */
+public final class UtcCalendar {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private UtcCalendar() {
+    }
+
+    /**
+     * @param epochMilli milliseconds since 1970-01-01T00:00:00Z
+     * @return the UTC year of the instant
+     */
+    public static int yearOf(long epochMilli) {
+        long yearMonth = yearMonthOf(epochMilli);
+        return (int) Math.floorDiv(yearMonth, 12);
+    }
+
+    /**
+     * @param epochMilli milliseconds since 1970-01-01T00:00:00Z
+     * @return the UTC month of the instant as year * 12 + (month - 1)
+     */
+    public static long yearMonthOf(long epochMilli) {
+        long zeroDay = Math.floorDiv(epochMilli, MILLIS_PER_DAY) + 719_468L;
+        long era = Math.floorDiv(zeroDay, 146_097L);
+        long dayOfEra = zeroDay - era * 146_097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+}
@@ -3,7 +3,7 @@ package com.assesment.spacex;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "spacex.refresh.enabled=false")
 class SpacexApplicationTests {
 
 	@Test
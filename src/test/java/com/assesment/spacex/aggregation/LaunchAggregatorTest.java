@@ -0,0 +1,97 @@
+package com.assesment.spacex.aggregation;
+
+import com.assesment.spacex.domain.Launch;
+import com.assesment.spacex.domain.LaunchAggregates;
+import com.assesment.spacex.domain.LaunchReport;
+import com.assesment.spacex.domain.LaunchRollup;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LaunchAggregatorTest {
+
+    @Test
+    void testCountsByYearAndSite() {
+        LaunchAggregator aggregator = new LaunchAggregator();
+        aggregator.accept(getLaunch("2024-01-21T05:47:26.853Z", "Falcon", "Site 1"));
+        aggregator.accept(getLaunch("2020-01-21T05:47:26.853Z", "Falcon", "Site 1"));
+        aggregator.accept(getLaunch("2022-01-21T05:47:26.853Z", "Falcon", "Site 2"));
+        aggregator.accept(getLaunch("2022-03-21T05:47:26.853Z", "Apollo", null));
+
+        LaunchAggregates aggregates = aggregator.toAggregates();
+
+        assertEquals(Map.of("Falcon", Map.of(2020, 1L, 2022, 1L, 2024, 1L), "Apollo", Map.of(2022, 1L)),
+                aggregates.getLaunchesByYear());
+        assertEquals(Map.of("Falcon", Map.of("Site 1", 2L, "Site 2", 1L)), aggregates.getLaunchesBySite());
+        assertEquals(Instant.parse("2024-01-21T05:47:26.853Z"), aggregates.getLatestLaunchDate());
+    }
+
+    @Test
+    void testReportCountsOnlyRequestedRollups() {
+        Set<LaunchRollup> rollups = EnumSet.of(LaunchRollup.PER_ROCKET, LaunchRollup.BY_SITE_AND_YEAR);
+        LaunchAggregator aggregator = new LaunchAggregator(rollups);
+        aggregator.accept(getLaunch("2024-01-21T05:47:26.853Z", "Falcon", "Site 1"));
+        aggregator.accept(getLaunch("2024-03-21T05:47:26.853Z", "Apollo", "Site 1"));
+        aggregator.accept(getLaunch("2022-01-21T05:47:26.853Z", "Falcon", "Site 2"));
+
+        LaunchReport report = aggregator.toReport(rollups);
+
+        assertEquals(Map.of("Falcon", 2L, "Apollo", 1L), report.getLaunchesPerRocket());
+        assertEquals(Map.of("Site 1", Map.of(2024, 2L), "Site 2", Map.of(2022, 1L)), report.getLaunchesBySiteAndYear());
+        assertNull(report.getLaunchesByYear());
+        assertNull(report.getLaunchesBySite());
+    }
+
+    @Test
+    void testMergeAddsPartialCounts() {
+        LaunchAggregator first = new LaunchAggregator();
+        first.accept(getLaunch("2024-01-21T05:47:26.853Z", "Falcon", "Site 1"));
+        LaunchAggregator second = new LaunchAggregator();
+        second.accept(getLaunch("2019-01-21T05:47:26.853Z", "Falcon", "Site 1"));
+        second.accept(getLaunch("2024-06-21T05:47:26.853Z", "Falcon", "Site 2"));
+
+        LaunchAggregates aggregates = first.merge(second).toAggregates();
+
+        assertEquals(Map.of("Falcon", Map.of(2019, 1L, 2024, 2L)), aggregates.getLaunchesByYear());
+        assertEquals(Map.of("Falcon", Map.of("Site 1", 2L, "Site 2", 1L)), aggregates.getLaunchesBySite());
+        assertEquals(Instant.parse("2024-06-21T05:47:26.853Z"), aggregates.getLatestLaunchDate());
+    }
+
+    @Test
+    void testParallelRailsMatchSequentialAggregation() {
+        Flux<Launch> launches = Flux.range(0, 10_000)
+                .map(i -> getLaunch(Instant.parse("2006-03-24T22:30:00Z").plusSeconds(i * 86_400L).toString(),
+                        "Rocket " + (i % 7), "Site " + (i % 5)));
+
+        StepVerifier.create(LaunchAggregator.aggregate(launches, 1)
+                        .zipWith(LaunchAggregator.aggregate(launches, 4)))
+                .assertNext(results -> assertEquals(results.getT1().toAggregates(), results.getT2().toAggregates()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testEmptyLaunches() {
+        StepVerifier.create(LaunchAggregator.aggregate(Flux.empty(), 4))
+                .assertNext(aggregator -> {
+                    assertEquals(Map.of(), aggregator.toAggregates().getLaunchesByYear());
+                    assertNull(aggregator.toAggregates().getLatestLaunchDate());
+                })
+                .verifyComplete();
+    }
+
+    private static Launch getLaunch(String date, String rocketType, String launchPadName) {
+        return Launch.builder()
+                .date(Instant.parse(date))
+                .rocketType(rocketType)
+                .launchPadName(launchPadName)
+                .build();
+    }
+}
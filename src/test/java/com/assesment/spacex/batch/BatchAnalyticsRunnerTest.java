@@ -0,0 +1,55 @@
+package com.assesment.spacex.batch;
+
+import com.assesment.spacex.domain.LaunchReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchAnalyticsRunnerTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final BatchAnalyticsRunner runner = new BatchAnalyticsRunner(objectMapper);
+
+    @TempDir
+    private Path output;
+
+    @Test
+    void testWritesReportOfTheDump() throws IOException {
+        ReflectionTestUtils.setField(runner, "dump", Path.of("src/test/resources/stub"));
+        ReflectionTestUtils.setField(runner, "output", output);
+        ReflectionTestUtils.setField(runner, "include", List.of("bySite", "perRocket"));
+        ReflectionTestUtils.setField(runner, "parallelism", 3);
+
+        runner.run();
+
+        LaunchReport report = objectMapper.readValue(output.resolve("report.json").toFile(), LaunchReport.class);
+        assertNull(report.getLaunchesByYear());
+        long launches = report.getLaunchesPerRocket().values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(183, launches);
+        assertFalse(report.getLaunchesPerRocket().containsKey("ROCKET_NAME_NA"));
+        assertEquals(launches, report.getLaunchesBySite().values().stream()
+                .flatMap(sites -> sites.values().stream())
+                .mapToLong(Long::longValue)
+                .sum());
+
+        List<String> csv = Files.readAllLines(output.resolve("report.csv"));
+        assertEquals("rollup,key,subkey,count", csv.get(0));
+        assertEquals(report.getLaunchesPerRocket().size(), csv.stream().filter(row -> row.startsWith("perRocket,")).count());
+        for (Map.Entry<String, Long> rocket : report.getLaunchesPerRocket().entrySet()) {
+            assertTrue(csv.contains("perRocket,%s,,%d".formatted(rocket.getKey(), rocket.getValue())));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.assesment.spacex.batch;
+
+import com.assesment.spacex.batch.LaunchDumpFile.Chunk;
+import com.assesment.spacex.client.LaunchJsonDecoder;
+import com.assesment.spacex.domain.Launch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LaunchDumpFileTest {
+
+    private final LaunchJsonDecoder launchJsonDecoder = new LaunchJsonDecoder();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testChunksDecodeToTheWholeArray() throws IOException {
+        Path path = Path.of("src/test/resources/stub/launches.json");
+        List<Launch> whole = launchJsonDecoder.decodeAll(List.of(ByteBuffer.wrap(Files.readAllBytes(path))));
+        LaunchDumpFile dump = LaunchDumpFile.map(path);
+
+        List<Chunk> chunks = dump.split(8);
+
+        assertEquals(8, chunks.size());
+        assertEquals(whole, chunks.stream()
+                .flatMap(chunk -> launchJsonDecoder.decodeAll(dump.arrayOf(chunk)).stream())
+                .toList());
+    }
+
+    @Test
+    void testSeparatorsInStringsAndNestedValuesDoNotSplit() throws IOException {
+        Path path = directory.resolve("launches.json");
+        Files.writeString(path, """
+                [{"name":"a, \\"b\\"], {c","rocket":"r1","launchpad":"p1","date_utc":"2020-01-01T00:00:00.000Z",
+                  "cores":[{"core":"x"},{"core":"y"}]},
+                 {"name":"d","rocket":"r2","launchpad":"p2","date_utc":"2021-01-01T00:00:00.000Z"}]
+                """);
+        LaunchDumpFile dump = LaunchDumpFile.map(path);
+
+        List<Chunk> chunks = dump.split(100);
+
+        assertEquals(2, chunks.size());
+        assertEquals("r1", launchJsonDecoder.decodeAll(dump.arrayOf(chunks.get(0))).get(0).getRocketId());
+        assertEquals("r2", launchJsonDecoder.decodeAll(dump.arrayOf(chunks.get(1))).get(0).getRocketId());
+    }
+
+    @Test
+    void testTruncatedDumpIsRejected() throws IOException {
+        Path path = directory.resolve("launches.json");
+        Files.writeString(path, "[{\"rocket\":\"r1\"},{\"rocket\":");
+
+        assertThrows(IOException.class, () -> LaunchDumpFile.map(path).split(2));
+    }
+}
@@ -0,0 +1,106 @@
+package com.assesment.spacex.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void testConcurrentCallsDoNotExceedLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 4, 4, 0.5, 100, 100);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        WebClient webClient = webClient(limiter, Mono.defer(() -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return Mono.just(ClientResponse.create(HttpStatus.OK).build())
+                    .delayElement(Duration.ofMillis(20))
+                    .doOnNext(response -> inFlight.decrementAndGet());
+        }));
+
+        StepVerifier.create(Flux.range(0, 20).flatMap(i -> call(webClient)).count())
+                .expectNext(20L)
+                .verifyComplete();
+
+        assertEquals(4, maxInFlight.get());
+        assertEquals(0, limiter.inFlight());
+        assertEquals(0, limiter.queued());
+    }
+
+    @Test
+    void testLimitBacksOffOnThrottling() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 20, 0.5, 2, 100);
+        WebClient webClient = webClient(limiter, Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()));
+
+        StepVerifier.create(Flux.range(0, 3).concatMap(i -> call(webClient)).count())
+                .expectNext(3L)
+                .verifyComplete();
+
+        assertEquals(2, limiter.limit());
+    }
+
+    @Test
+    void testLimitGrowsWhileUtilizedAndFast() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, 100, 100);
+        WebClient webClient = webClient(limiter, Mono.just(ClientResponse.create(HttpStatus.OK).build())
+                .delayElement(Duration.ofMillis(5)));
+
+        StepVerifier.create(Flux.range(0, 200).flatMap(i -> call(webClient), 10).count())
+                .expectNext(200L)
+                .verifyComplete();
+
+        assertTrue(limiter.limit() > 2, "limit " + limiter.limit());
+    }
+
+    @Test
+    void testCallsBeyondQueueAreRejected() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.5, 100, 1);
+        WebClient webClient = webClient(limiter, Mono.just(ClientResponse.create(HttpStatus.OK).build())
+                .delayElement(Duration.ofMillis(50)));
+
+        StepVerifier.create(Flux.range(0, 3).flatMap(i -> call(webClient)
+                        .onErrorResume(RejectedExecutionException.class, rejected -> Mono.just(-1))))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void testSlotIsHeldUntilTheBodyHasBeenRead() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.5, 100, 100);
+        WebClient webClient = webClient(limiter, Mono.just(ClientResponse.create(HttpStatus.OK).body("launches").build()));
+
+        StepVerifier.create(webClient.get().uri("http://spacex/launches")
+                        .exchangeToMono(response -> Mono.delay(Duration.ofMillis(50))
+                                .then(Mono.fromCallable(limiter::inFlight))
+                                .flatMap(inFlight -> response.bodyToMono(String.class).thenReturn(inFlight))))
+                .expectNext(1)
+                .verifyComplete();
+
+        assertEquals(0, limiter.inFlight());
+    }
+
+    private static WebClient webClient(AdaptiveConcurrencyLimiter limiter, Mono<ClientResponse> response) {
+        return WebClient.builder()
+                .exchangeFunction(request -> response)
+                .filter(limiter)
+                .build();
+    }
+
+    private static Mono<Integer> call(WebClient webClient) {
+        return webClient.get().uri("http://spacex/rockets")
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()));
+    }
+}
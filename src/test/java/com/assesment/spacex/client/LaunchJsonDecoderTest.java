@@ -0,0 +1,101 @@
+package com.assesment.spacex.client;
+
+import com.assesment.spacex.domain.Launch;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LaunchJsonDecoderTest {
+
+    private static final String LAUNCHES = """
+            [{"fairings":{"reused":false,"ships":[]},"links":{"patch":{"small":"https://images2.imgbox.com/3c/0e/T8iJcSN3_o.png"}},
+              "rocket":"5e9d0d95eda69955f709d1eb","success":false,"failures":[{"time":33,"reason":"merlin engine failure"}],
+              "crew":[],"launchpad":"5e9e4502f5090995de566f86","flight_number":1,"name":"FalconSat",
+              "date_utc":"2006-03-24T22:30:00.000Z","date_unix":1143239400,"upcoming":false,"details":null},
+             {"rocket":"5e9d0d95eda69973a809d1ec","cores":[{"core":"5e9e289df35918033d3b2623","flight":1}],
+              "launchpad":"5e9e4501f509094ba4566f84","date_utc":"2020-01-07T02:19:00.000Z","id":"5eb87d42ffd86e000604b384"}]
+            """;
+
+    private final LaunchJsonDecoder decoder = new LaunchJsonDecoder();
+
+    @Test
+    void testDecodesMappedFieldsWhateverTheChunking() {
+        byte[] json = LAUNCHES.getBytes(StandardCharsets.UTF_8);
+        for (int chunkSize : new int[]{1, 7, 64, json.length}) {
+            StepVerifier.create(decoder.decode(chunks(json, chunkSize), ResolvableType.forClass(Launch.class),
+                            MimeTypeUtils.APPLICATION_JSON, Map.of()))
+                    .assertNext(launch -> {
+                        assertEquals("5e9d0d95eda69955f709d1eb", launch.getRocketId());
+                        assertEquals("5e9e4502f5090995de566f86", launch.getLaunchPadId());
+                        assertEquals(Instant.parse("2006-03-24T22:30:00Z"), launch.getDate());
+                    })
+                    .assertNext(launch -> {
+                        assertEquals("5e9d0d95eda69973a809d1ec", launch.getRocketId());
+                        assertEquals(Instant.parse("2020-01-07T02:19:00Z"), launch.getDate());
+                    })
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    void testLaunchIsEmittedBeforeTheArrayEnds() {
+        byte[] json = LAUNCHES.getBytes(StandardCharsets.UTF_8);
+        int secondLaunch = LAUNCHES.indexOf("{\"rocket\":\"5e9d0d95eda69973a809d1ec\"");
+
+        StepVerifier.create(decoder.decode(Flux.just(buffer(Arrays.copyOfRange(json, 0, secondLaunch)))
+                                .concatWith(Flux.never()),
+                        ResolvableType.forClass(Launch.class), MimeTypeUtils.APPLICATION_JSON, Map.of()))
+                .assertNext(launch -> assertEquals("5e9d0d95eda69955f709d1eb", launch.getRocketId()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void testSingleLaunchObjectAndTruncatedInput() {
+        StepVerifier.create(decoder.decodeToMono(Flux.just(buffer("{\"rocket\":\"r1\",\"links\":{\"rocket\":\"x\"}}"
+                                .getBytes(StandardCharsets.UTF_8))),
+                        ResolvableType.forClass(Launch.class), MimeTypeUtils.APPLICATION_JSON, Map.of()))
+                .assertNext(launch -> assertEquals("r1", launch.getRocketId()))
+                .verifyComplete();
+
+        StepVerifier.create(decoder.decode(Flux.just(buffer("[{\"rocket\":\"r1\"}".getBytes(StandardCharsets.UTF_8))),
+                        ResolvableType.forClass(Launch.class), MimeTypeUtils.APPLICATION_JSON, Map.of()))
+                .expectNextCount(1)
+                .verifyError(DecodingException.class);
+    }
+
+    @Test
+    void testOnlyDecodesLaunches() {
+        assertTrue(decoder.canDecode(ResolvableType.forClass(Launch.class), MimeTypeUtils.APPLICATION_JSON));
+        assertFalse(decoder.canDecode(ResolvableType.forClass(String.class), MimeTypeUtils.APPLICATION_JSON));
+        assertFalse(decoder.canDecode(ResolvableType.forClass(Launch.class), MimeTypeUtils.APPLICATION_XML));
+    }
+
+    private static Flux<DataBuffer> chunks(byte[] json, int chunkSize) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int from = 0; from < json.length; from += chunkSize) {
+            buffers.add(buffer(Arrays.copyOfRange(json, from, Math.min(json.length, from + chunkSize))));
+        }
+        return Flux.fromIterable(buffers);
+    }
+
+    private static DataBuffer buffer(byte[] bytes) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+    }
+}
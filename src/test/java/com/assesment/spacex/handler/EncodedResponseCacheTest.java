@@ -0,0 +1,66 @@
+package com.assesment.spacex.handler;
+
+import com.assesment.spacex.handler.EncodedResponseCache.EncodedBody;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EncodedResponseCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EncodedResponseCache encodedResponseCache = new EncodedResponseCache(new ObjectMapper(), meterRegistry);
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @Test
+    void testBodyIsEncodedOncePerVersion() {
+        Object snapshot = new Object();
+        EncodedBody first = encodedResponseCache.encode("launches-by-year", snapshot, this::result);
+        EncodedBody second = encodedResponseCache.encode("launches-by-year", snapshot, this::result);
+        EncodedBody refreshed = encodedResponseCache.encode("launches-by-year", new Object(), this::result);
+
+        assertSame(first, second);
+        assertNotSame(first, refreshed);
+        assertEquals(first.eTag(), refreshed.eTag());
+        assertEquals(2, computations.get());
+        assertEquals(1, meterRegistry.get(EncodedResponseCache.BODIES).tag("result", "hit").counter().count());
+        assertEquals(2, meterRegistry.get(EncodedResponseCache.BODIES).tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void testJsonIsOrderedByKeyAndGzipped() throws IOException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("Falcon Heavy", 3L);
+        counts.put("Falcon 9", 97L);
+
+        EncodedBody body = encodedResponseCache.encode(counts);
+
+        assertEquals("{\"Falcon 9\":97,\"Falcon Heavy\":3}", new String(body.json(), StandardCharsets.UTF_8));
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body.gzip()))) {
+            assertArrayEquals(body.json(), gzip.readAllBytes());
+        }
+        assertEquals(body.eTag(), encodedResponseCache.encode(Map.of("Falcon 9", 97L, "Falcon Heavy", 3L)).eTag());
+        assertNotEquals(body.eTag(), body.gzipETag());
+        assertTrue(body.gzipETag().startsWith("\"") && body.gzipETag().endsWith("-gzip\""));
+    }
+
+    private Object result() {
+        computations.incrementAndGet();
+        return Map.of("Falcon 9", Map.of(2020, 12L));
+    }
+}
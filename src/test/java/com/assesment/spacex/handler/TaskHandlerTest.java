@@ -0,0 +1,94 @@
+package com.assesment.spacex.handler;
+
+import com.assesment.spacex.service.LaunchAggregateFeed;
+import com.assesment.spacex.service.LaunchAggregateRefresher;
+import com.assesment.spacex.service.LaunchQueryService;
+import com.assesment.spacex.service.RequestCoalescer;
+import com.assesment.spacex.service.TaskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class TaskHandlerTest {
+
+    @Mock
+    private TaskService taskService;
+    @Mock
+    private LaunchAggregateRefresher launchAggregateRefresher;
+    @Mock
+    private LaunchQueryService launchQueryService;
+    @Mock
+    private RequestCoalescer requestCoalescer;
+    @Mock
+    private LaunchAggregateFeed launchAggregateFeed;
+    private TaskHandler taskHandler;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        taskHandler = new TaskHandler(taskService, launchAggregateRefresher, launchQueryService, requestCoalescer,
+                meterRegistry, new EncodedResponseCache(new ObjectMapper(), meterRegistry),
+                launchAggregateFeed);
+    }
+
+    @Test
+    void testInvalidYearFilterIsBadRequest() {
+        assertBadRequest(aggregateRequest("where", "year:abc"));
+        assertBadRequest(aggregateRequest("where", "year:2147483647"));
+        verifyNoInteractions(launchQueryService, requestCoalescer);
+    }
+
+    @Test
+    void testOutOfRangeYearBoundsAreBadRequest() {
+        assertBadRequest(aggregateRequest("to", "999999999"));
+        assertBadRequest(aggregateRequest("to", "2147483647"));
+        assertBadRequest(aggregateRequest("from", "-5"));
+        verifyNoInteractions(launchQueryService, requestCoalescer);
+    }
+
+    @Test
+    void testOutOfRangeTimelineInstantIsBadRequest() {
+        for (String from : new String[]{"+300000000-01-01", "+1000000000-01-01T00:00:00Z", "-300000000-01-01"}) {
+            ServerRequest request = MockServerRequest.builder()
+                    .uri(URI.create("/task/launches/timeline"))
+                    .queryParam("from", from)
+                    .build();
+            assertBadRequest(taskHandler.getLaunchTimeline(request));
+        }
+        verifyNoInteractions(launchQueryService, requestCoalescer);
+    }
+
+    private void assertBadRequest(ServerRequest request) {
+        assertBadRequest(taskHandler.aggregateLaunches(request));
+    }
+
+    private static void assertBadRequest(Mono<ServerResponse> response) {
+        StepVerifier.create(response)
+                .assertNext(answer -> assertEquals(HttpStatus.BAD_REQUEST, answer.statusCode()))
+                .verifyComplete();
+    }
+
+    private static ServerRequest aggregateRequest(String name, String value) {
+        return MockServerRequest.builder()
+                .uri(URI.create("/task/launches/aggregate"))
+                .queryParam("groupBy", "rocket")
+                .queryParam(name, value)
+                .build();
+    }
+}
@@ -0,0 +1,194 @@
+package com.assesment.spacex.loadtest;
+
+import com.assesment.spacex.SpacexApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open-loop load driver for the task endpoints, reporting latency percentiles and upstream call counts.
+ * <p>
+ * Requests are started at a fixed rate regardless of how many are still outstanding, so a slow service shows up as
+ * growing latency instead of a lower request rate. Unless a {@code target} is given, the driver starts a
+ * {@link SpacexStubServer} and the application (pointed at the stub) in-process; any argument starting with
+ * {@code --} is passed on to the application, e.g. {@code --spacex.enrichment.mode=BULK}.
+ * </p>
+ * <p>Arguments (key=value):</p>
+ * <ul>
+ *   <li><b>paths</b>: comma separated endpoints, requested round robin (default both aggregate endpoints)</li>
+ *   <li><b>rps</b>: target requests per second (default 50)</li>
+ *   <li><b>duration</b>: ISO-8601 duration of the run (default PT30S)</li>
+ *   <li><b>warmup</b>: ISO-8601 duration of an unreported run before, to get past JIT compilation (default PT5S)</li>
+ *   <li><b>target</b>: base url of an already running application</li>
+ *   <li><b>stats</b>: with target, base url of a running stub whose /__stats to report</li>
+ *   <li><b>latency</b>, <b>jitter</b>, <b>errorRate</b>: behaviour of the in-process stub</li>
+ * </ul>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.assesment.spacex.loadtest.LoadDriver \
+ *     -Dexec.args="rps=100 duration=PT20S latency=PT0.08S jitter=PT0.05S --spacex.enrichment.mode=BULK"
+ * </pre>
+ */
+public class LoadDriver {
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>(List.of("--server.port=0"));
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+            } else {
+                String[] option = arg.split("=", 2);
+                options.put(option[0], option.length > 1 ? option[1] : "");
+            }
+        }
+        List<String> paths = Arrays.asList(options.getOrDefault("paths",
+                "/task/rocket/launches-by-year,/task/rocket/launches-by-site").split(","));
+        int rps = Integer.parseInt(options.getOrDefault("rps", "50"));
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT30S"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT5S"));
+
+        if (options.containsKey("target")) {
+            run(options.get("target"), paths, rps, warmup);
+            LoadReport report = run(options.get("target"), paths, rps, duration);
+            report.print();
+            if (options.containsKey("stats")) {
+                System.out.println("Upstream calls: " + HttpClient.create().get()
+                        .uri(options.get("stats") + "/__stats")
+                        .responseContent().aggregate().asString().block());
+            }
+            return;
+        }
+
+        try (SpacexStubServer stub = new SpacexStubServer(0,
+                Duration.parse(options.getOrDefault("latency", "PT0.05S")),
+                Duration.parse(options.getOrDefault("jitter", "PT0.02S")),
+                Double.parseDouble(options.getOrDefault("errorRate", "0")))) {
+            applicationArgs.add("--spacex.baseUri=" + stub.baseUri());
+            try (ConfigurableApplicationContext context =
+                         SpringApplication.run(SpacexApplication.class, applicationArgs.toArray(String[]::new))) {
+                String target = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                run(target, paths, rps, warmup);
+                stub.resetCallCounts();
+                LoadReport report = run(target, paths, rps, duration);
+                report.print();
+                System.out.printf("Upstream calls: %d total, %.1f per request %s%n", stub.totalCalls(),
+                        (double) stub.totalCalls() / Math.max(1, report.totalRequests()), stub.callCounts());
+            }
+        }
+    }
+
+    /**
+     * Sends requests to the paths round robin at the given rate for the given duration and waits for all of
+     * them to complete.
+     *
+     * @param target   base url of the application
+     * @param paths    endpoints to request
+     * @param rps      requests started per second
+     * @param duration how long requests are started for
+     * @return latencies and error counts per path
+     */
+    public static LoadReport run(String target, List<String> paths, int rps, Duration duration) {
+        HttpClient httpClient = HttpClient.create().baseUrl(target);
+        LoadReport report = new LoadReport(paths);
+        AtomicLong sequence = new AtomicLong();
+        long requests = duration.toNanos() * rps / 1_000_000_000L;
+        long started = System.nanoTime();
+        Flux.interval(Duration.ofNanos(1_000_000_000L / rps))
+                .take(requests)
+                .flatMap(tick -> {
+                    String path = paths.get((int) (sequence.getAndIncrement() % paths.size()));
+                    long start = System.nanoTime();
+                    return httpClient.get().uri(path)
+                            .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                            .doOnNext(status -> report.record(path, System.nanoTime() - start, status < 400))
+                            .onErrorResume(error -> {
+                                report.record(path, System.nanoTime() - start, false);
+                                return Mono.empty();
+                            });
+                }, Integer.MAX_VALUE)
+                .blockLast();
+        report.elapsed(Duration.ofNanos(System.nanoTime() - started));
+        return report;
+    }
+
+    /**
+     * Latencies and error counts of one run, per path.
+     */
+    public static class LoadReport {
+        private final Map<String, List<Long>> latencies = new LinkedHashMap<>();
+        private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+        private Duration elapsed = Duration.ZERO;
+
+        LoadReport(List<String> paths) {
+            paths.forEach(path -> {
+                latencies.put(path, new ArrayList<>());
+                errors.put(path, new AtomicLong());
+            });
+        }
+
+        void record(String path, long latencyNanos, boolean success) {
+            List<Long> pathLatencies = latencies.get(path);
+            synchronized (pathLatencies) {
+                pathLatencies.add(latencyNanos);
+            }
+            if (!success) {
+                errors.get(path).incrementAndGet();
+            }
+        }
+
+        void elapsed(Duration elapsed) {
+            this.elapsed = elapsed;
+        }
+
+        /**
+         * @return number of requests sent over all paths
+         */
+        public long totalRequests() {
+            return latencies.values().stream().mapToLong(List::size).sum();
+        }
+
+        /**
+         * @param path       a requested path
+         * @param percentile percentile between 0 and 100
+         * @return latency of that percentile in milliseconds
+         */
+        public double percentileMillis(String path, double percentile) {
+            long[] sorted = latencies.get(path).stream().mapToLong(Long::longValue).sorted().toArray();
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+        }
+
+        /**
+         * @param path a requested path
+         * @return number of failed requests (status 4xx/5xx or connection error)
+         */
+        public long errors(String path) {
+            return errors.get(path).get();
+        }
+
+        void print() {
+            System.out.printf("%d requests in %s (%.1f rps)%n", totalRequests(), elapsed,
+                    totalRequests() / Math.max(0.001, elapsed.toNanos() / 1e9));
+            System.out.printf("%-45s %8s %8s %10s %10s %10s%n", "path", "count", "errors", "p50 ms", "p99 ms", "p999 ms");
+            latencies.forEach((path, pathLatencies) -> System.out.printf("%-45s %8d %8d %10.2f %10.2f %10.2f%n",
+                    path, pathLatencies.size(), errors(path),
+                    percentileMillis(path, 50), percentileMillis(path, 99), percentileMillis(path, 99.9)));
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.assesment.spacex.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Embedded Reactor Netty stand-in for the SpaceX v4 API, replaying the sample payloads under
+ * src/test/resources/stub.
+ * <p>
+ * Serves /launches (with an ETag, answering a matching If-None-Match with 304), /launches/query (date_utc $gt
+ * filter, sort, select and pagination), /rockets, /rockets/{id}, /launchpads and /launchpads/{id}. Every response is delayed by the configured latency plus a uniformly random jitter, and fails
+ * with HTTP 503 at the configured error rate. Calls are counted per route and reported by GET /__stats.
+ * </p>
+ * <p>
+ * Run standalone for the dev profile (spacex.baseUri http://localhost:3000):
+ * </p>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.assesment.spacex.loadtest.SpacexStubServer -Dexec.args="3000 PT0.05S PT0.02S 0.01"
+ * </pre>
+ */
+@Slf4j
+public class SpacexStubServer implements AutoCloseable {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final ArrayNode launches;
+    private final byte[] launchesJson;
+    private final String launchesETag;
+    private final byte[] rocketsJson;
+    private final byte[] launchPadsJson;
+    private final Map<String, byte[]> rocketsById;
+    private final Map<String, byte[]> launchPadsById;
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+    private final DisposableServer server;
+
+    /**
+     * Starts the stub server.
+     *
+     * @param port      port to listen on, 0 for a random free port
+     * @param latency   base delay of every response
+     * @param jitter    maximum random delay added on top of the latency
+     * @param errorRate share of requests (0..1) answered with HTTP 503
+     */
+    public SpacexStubServer(int port, Duration latency, Duration jitter, double errorRate) {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.launches = (ArrayNode) readTree("launches.json");
+        this.launchesJson = writeBytes(launches);
+        this.launchesETag = "\"%08x\"".formatted(Arrays.hashCode(launchesJson));
+        JsonNode rockets = readTree("rockets.json");
+        JsonNode launchPads = readTree("launchpads.json");
+        this.rocketsJson = writeBytes(rockets);
+        this.launchPadsJson = writeBytes(launchPads);
+        this.rocketsById = byId(rockets);
+        this.launchPadsById = byId(launchPads);
+        this.server = HttpServer.create()
+                .port(port)
+                .route(routes -> routes
+                        .get("/launches", (request, response) ->
+                                launchesETag.equals(request.requestHeaders().get(IF_NONE_MATCH))
+                                        ? respondNotModified(response, "/launches")
+                                        : respond(response.header(ETAG, launchesETag), "/launches", launchesJson))
+                        .post("/launches/query", (request, response) -> respond(response, "/launches/query",
+                                request.receive().aggregate().asString().map(this::query)))
+                        .get("/rockets", (request, response) -> respond(response, "/rockets", rocketsJson))
+                        .get("/rockets/{id}", (request, response) ->
+                                respond(response, "/rockets/{id}", rocketsById.get(request.param("id"))))
+                        .get("/launchpads", (request, response) -> respond(response, "/launchpads", launchPadsJson))
+                        .get("/launchpads/{id}", (request, response) ->
+                                respond(response, "/launchpads/{id}", launchPadsById.get(request.param("id"))))
+                        .get("/__stats", (request, response) -> response
+                                .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                                .sendByteArray(Mono.fromSupplier(() -> writeBytes(callCounts())))))
+                .bindNow();
+        log.info("SpaceX stub listening on port %d, latency %s, jitter %s, error rate %s"
+                .formatted(server.port(), latency, jitter, errorRate));
+    }
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        Duration latency = args.length > 1 ? Duration.parse(args[1]) : Duration.ZERO;
+        Duration jitter = args.length > 2 ? Duration.parse(args[2]) : Duration.ZERO;
+        double errorRate = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+        SpacexStubServer stub = new SpacexStubServer(port, latency, jitter, errorRate);
+        stub.server.onDispose().block();
+    }
+
+    /**
+     * @return base uri to configure as spacex.baseUri
+     */
+    public String baseUri() {
+        return "http://localhost:%d".formatted(server.port());
+    }
+
+    /**
+     * @return number of calls per route template since start or the last {@link #resetCallCounts()}
+     */
+    public Map<String, Long> callCounts() {
+        return calls.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum(), Long::sum, TreeMap::new));
+    }
+
+    /**
+     * @return total number of calls over all routes
+     */
+    public long totalCalls() {
+        return calls.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public void resetCallCounts() {
+        calls.clear();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Publisher<Void> respond(HttpServerResponse response, String route, byte[] body) {
+        return respond(response, route, Mono.justOrEmpty(body));
+    }
+
+    private Publisher<Void> respond(HttpServerResponse response, String route, Mono<byte[]> body) {
+        calls.computeIfAbsent(route, ignored -> new LongAdder()).increment();
+        Mono<Void> delay = Mono.delay(delay()).then();
+        if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+            return delay.then(response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send());
+        }
+        return delay.then(body
+                .flatMap(bytes -> response.header(CONTENT_TYPE, APPLICATION_JSON_VALUE).sendByteArray(Mono.just(bytes)).then())
+                .switchIfEmpty(Mono.defer(() -> response.status(HttpResponseStatus.NOT_FOUND).send().then())));
+    }
+
+    private Publisher<Void> respondNotModified(HttpServerResponse response, String route) {
+        calls.computeIfAbsent(route + " (304)", ignored -> new LongAdder()).increment();
+        return Mono.delay(delay()).then(response.status(HttpResponseStatus.NOT_MODIFIED).send());
+    }
+
+    private Duration delay() {
+        long jitterNanos = jitter.toNanos();
+        return jitterNanos <= 0 ? latency : latency.plusNanos(ThreadLocalRandom.current().nextLong(jitterNanos + 1));
+    }
+
+    /**
+     * Answers a /launches/query request. Supports the date_utc $gt filter used for incremental ingestion, sorting
+     * by date (with flight number as tie-break) when a sort is given, the select projection and page/limit
+     * pagination (unless pagination is false); every other query option is ignored.
+     */
+    private byte[] query(String requestBody) {
+        JsonNode request = readTree(requestBody.getBytes(StandardCharsets.UTF_8));
+        JsonNode after = request.path("query").path("date_utc").path("$gt");
+        Instant watermark = after.isMissingNode() ? Instant.MIN : Instant.parse(after.asText());
+        JsonNode options = request.path("options");
+        List<JsonNode> matches = new ArrayList<>();
+        launches.forEach(launch -> {
+            if (Instant.parse(launch.path("date_utc").asText()).isAfter(watermark)) {
+                matches.add(launch);
+            }
+        });
+        if (options.has("sort")) {
+            matches.sort(Comparator.comparing((JsonNode launch) -> Instant.parse(launch.path("date_utc").asText()))
+                    .thenComparingInt(launch -> launch.path("flight_number").asInt()));
+        }
+        boolean paginated = options.path("pagination").asBoolean(true);
+        int limit = paginated ? Math.max(1, options.path("limit").asInt(10)) : Math.max(1, matches.size());
+        int page = paginated ? Math.max(1, options.path("page").asInt(1)) : 1;
+        int totalPages = Math.max(1, (matches.size() + limit - 1) / limit);
+        ArrayNode docs = OBJECT_MAPPER.createArrayNode();
+        matches.stream()
+                .skip((long) (page - 1) * limit)
+                .limit(limit)
+                .map(launch -> select(launch, options.path("select")))
+                .forEach(docs::add);
+        ObjectNode result = OBJECT_MAPPER.createObjectNode();
+        result.set("docs", docs);
+        result.put("totalDocs", matches.size());
+        result.put("limit", limit);
+        result.put("totalPages", totalPages);
+        result.put("page", page);
+        result.put("hasPrevPage", page > 1);
+        result.put("hasNextPage", page < totalPages);
+        return writeBytes(result);
+    }
+
+    private static JsonNode select(JsonNode launch, JsonNode select) {
+        if (!select.isObject()) {
+            return launch;
+        }
+        ObjectNode selected = OBJECT_MAPPER.createObjectNode();
+        select.fieldNames().forEachRemaining(field -> {
+            if (launch.has(field)) {
+                selected.set(field, launch.get(field));
+            }
+        });
+        return selected;
+    }
+
+    private static Map<String, byte[]> byId(JsonNode documents) {
+        return StreamSupport.stream(documents.spliterator(), false)
+                .collect(Collectors.toMap(document -> document.path("id").asText(), SpacexStubServer::writeBytes));
+    }
+
+    private static JsonNode readTree(String resource) {
+        try (InputStream inputStream = SpacexStubServer.class.getResourceAsStream("/stub/" + resource)) {
+            return OBJECT_MAPPER.readTree(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JsonNode readTree(byte[] json) {
+        try {
+            return OBJECT_MAPPER.readTree(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] writeBytes(Object value) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.assesment.spacex.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import com.assesment.spacex.domain.EnrichedLaunch;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StubbedEndToEndTest {
+    private static final SpacexStubServer STUB = new SpacexStubServer(0, Duration.ofMillis(5), Duration.ofMillis(5), 0);
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void spacexProperties(DynamicPropertyRegistry registry) {
+        registry.add("spacex.baseUri", STUB::baseUri);
+        registry.add("spacex.refresh.enabled", () -> "false");
+        registry.add("spacex.snapshot.path", () -> "");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @Test
+    void testLaunchesByYearServedFromStubWithCachedRocketLookups() {
+        long rocketLookupsBefore = STUB.callCounts().getOrDefault("/rockets/{id}", 0L);
+        STUB.resetCallCounts();
+
+        for (int i = 0; i < 2; i++) {
+            webTestClient.get().uri("/task/rocket/launches-by-year")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$['Falcon 9']").exists();
+        }
+
+        // the sample launches fly three distinct rockets, each looked up once across all requests;
+        // at least the second /launches call is answered 304 and served from the launches kept by the client
+        Map<String, Long> calls = STUB.callCounts();
+        assertEquals(2L, calls.getOrDefault("/launches", 0L) + calls.getOrDefault("/launches (304)", 0L));
+        assertTrue(calls.getOrDefault("/launches (304)", 0L) >= 1);
+        assertEquals(3L, rocketLookupsBefore + calls.getOrDefault("/rockets/{id}", 0L));
+    }
+
+    @Test
+    void testLaunchesBySiteNotModifiedForMatchingETag() {
+        String eTag = webTestClient.get().uri("/task/rocket/launches-by-site")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/task/rocket/launches-by-site")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void testLaunchesBySiteServedGzippedToClientsAcceptingIt() throws IOException, InterruptedException {
+        // the JDK client leaves the body compressed, unlike the reactor netty client behind WebTestClient
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:%d/task/rocket/launches-by-site".formatted(port)))
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(Optional.of("gzip"), response.headers().firstValue(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(Optional.of(HttpHeaders.ACCEPT_ENCODING), response.headers().firstValue(HttpHeaders.VARY));
+        try (InputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertTrue(new String(body.readAllBytes(), StandardCharsets.UTF_8).contains("\"Falcon 9\""));
+        }
+
+        // the gzip variant is a different representation with its own strong ETag
+        String gzipETag = response.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+        HttpResponse<byte[]> identity = HttpClient.newHttpClient().send(HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:%d/task/rocket/launches-by-site".formatted(port)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(Optional.empty(), identity.headers().firstValue(HttpHeaders.CONTENT_ENCODING));
+        assertNotEquals(identity.headers().firstValue(HttpHeaders.ETAG).orElseThrow(), gzipETag);
+        HttpResponse<byte[]> revalidated = HttpClient.newHttpClient().send(HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:%d/task/rocket/launches-by-site".formatted(port)))
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipETag)
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(304, revalidated.statusCode());
+    }
+
+    @Test
+    void testEnrichedLaunchesStreamedAsNdjsonOrServerSentEvents() {
+        List<EnrichedLaunch> launches = webTestClient.get().uri("/task/launches/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(EnrichedLaunch.class)
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertFalse(launches.isEmpty());
+        assertTrue(launches.stream().allMatch(launch -> launch.getRocketName() != null && launch.getDate() != null));
+
+        webTestClient.get().uri("/task/launches/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .expectBody(String.class)
+                .value(body -> assertTrue(body.startsWith("event:launch")));
+    }
+}
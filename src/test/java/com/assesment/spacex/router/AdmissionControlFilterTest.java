@@ -0,0 +1,167 @@
+package com.assesment.spacex.router;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.result.view.ViewResolver;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdmissionControlFilterTest {
+
+    private static final String ROUTE = "/task/rocket/launches-by-year";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Sinks.Empty<Void> release = Sinks.empty();
+    private final HandlerFunction<ServerResponse> slowHandler =
+            request -> release.asMono().then(ServerResponse.ok().build());
+
+    @Test
+    void testRequestsBeyondConcurrencyAndQueueAreShed() {
+        AdmissionControlFilter filter = new AdmissionControlFilter(1, 1, Duration.ofSeconds(5),
+                1000, 1000, 1000, 1000, meterRegistry);
+
+        Mono<ServerResponse> first = filter.filter(request("10.0.0.1"), slowHandler).cache();
+        Mono<ServerResponse> queued = filter.filter(request("10.0.0.2"), slowHandler).cache();
+        first.subscribe();
+        queued.subscribe();
+
+        StepVerifier.create(filter.filter(request("10.0.0.3"), slowHandler))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.statusCode());
+                    assertEquals("5", response.headers().getFirst(HttpHeaders.RETRY_AFTER));
+                })
+                .verifyComplete();
+        assertEquals(1, filter.inFlight(ROUTE));
+
+        release.tryEmitEmpty();
+        StepVerifier.create(first).assertNext(response -> assertEquals(HttpStatus.OK, response.statusCode())).verifyComplete();
+        assertEquals(1, filter.inFlight(ROUTE));
+        write(first);
+        StepVerifier.create(queued).assertNext(response -> assertEquals(HttpStatus.OK, response.statusCode())).verifyComplete();
+        write(queued);
+
+        assertEquals(0, filter.inFlight(ROUTE));
+        assertEquals(2, meterRegistry.get(AdmissionControlFilter.REQUESTS)
+                .tags("route", ROUTE, "result", "admitted").counter().count());
+        assertEquals(1, meterRegistry.get(AdmissionControlFilter.REQUESTS)
+                .tags("route", ROUTE, "result", "queue_full").counter().count());
+    }
+
+    @Test
+    void testQueuedRequestIsShedAfterMaxQueueTime() {
+        AdmissionControlFilter filter = new AdmissionControlFilter(1, 10, Duration.ofMillis(100),
+                1000, 1000, 1000, 1000, meterRegistry);
+        Mono<ServerResponse> first = filter.filter(request("10.0.0.1"), slowHandler).cache();
+        first.subscribe();
+
+        StepVerifier.create(filter.filter(request("10.0.0.2"), slowHandler))
+                .assertNext(response -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.statusCode()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(1, meterRegistry.get(AdmissionControlFilter.REQUESTS)
+                .tags("route", ROUTE, "result", "queue_timeout").counter().count());
+        release.tryEmitEmpty();
+        write(first);
+        assertEquals(0, filter.inFlight(ROUTE));
+    }
+
+    @Test
+    void testHandlerTimeoutIsNotAQueueTimeout() {
+        AdmissionControlFilter filter = new AdmissionControlFilter(1, 10, Duration.ofSeconds(1),
+                1000, 1000, 1000, 1000, meterRegistry);
+
+        StepVerifier.create(filter.filter(request("10.0.0.1"), request -> Mono.error(new TimeoutException())))
+                .verifyError(TimeoutException.class);
+
+        assertEquals(0, filter.inFlight(ROUTE));
+        assertEquals(0, meterRegistry.find(AdmissionControlFilter.REQUESTS)
+                .tags("result", "queue_timeout").counters().size());
+    }
+
+    @Test
+    void testClientOverItsQuotaIsRejectedWithoutAffectingOthers() {
+        AdmissionControlFilter filter = new AdmissionControlFilter(10, 10, Duration.ofSeconds(1),
+                1000, 1000, 1, 2, meterRegistry);
+        HandlerFunction<ServerResponse> handler = request -> ServerResponse.ok().build();
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(filter.filter(request("10.0.0.1"), handler))
+                    .assertNext(response -> assertEquals(HttpStatus.OK, response.statusCode()))
+                    .verifyComplete();
+        }
+        StepVerifier.create(filter.filter(request("10.0.0.1"), handler))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.statusCode());
+                    assertEquals("1", response.headers().getFirst(HttpHeaders.RETRY_AFTER));
+                })
+                .verifyComplete();
+        StepVerifier.create(filter.filter(request("10.0.0.2"), handler))
+                .assertNext(response -> assertEquals(HttpStatus.OK, response.statusCode()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testForwardedForHeaderDoesNotBypassQuota() {
+        AdmissionControlFilter filter = new AdmissionControlFilter(10, 10, Duration.ofSeconds(1),
+                1000, 1000, 1, 1, meterRegistry);
+        HandlerFunction<ServerResponse> handler = request -> ServerResponse.ok().build();
+
+        StepVerifier.create(filter.filter(request("10.0.0.1", "203.0.113.1"), handler))
+                .assertNext(response -> assertEquals(HttpStatus.OK, response.statusCode()))
+                .verifyComplete();
+        StepVerifier.create(filter.filter(request("10.0.0.1", "203.0.113.2"), handler))
+                .assertNext(response -> assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.statusCode()))
+                .verifyComplete();
+    }
+
+    private static void write(Mono<ServerResponse> response) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(ROUTE));
+        HandlerStrategies strategies = HandlerStrategies.withDefaults();
+        StepVerifier.create(response.flatMap(answer -> answer.writeTo(exchange, new ServerResponse.Context() {
+            @Override
+            public List<HttpMessageWriter<?>> messageWriters() {
+                return strategies.messageWriters();
+            }
+
+            @Override
+            public List<ViewResolver> viewResolvers() {
+                return strategies.viewResolvers();
+            }
+        }))).verifyComplete();
+    }
+
+    private static ServerRequest request(String client) {
+        return MockServerRequest.builder()
+                .uri(URI.create("http://localhost" + ROUTE))
+                .remoteAddress(new InetSocketAddress(client, 54321))
+                .build();
+    }
+
+    private static ServerRequest request(String client, String forwardedFor) {
+        return MockServerRequest.builder()
+                .uri(URI.create("http://localhost" + ROUTE))
+                .remoteAddress(new InetSocketAddress(client, 54321))
+                .header("X-Forwarded-For", forwardedFor)
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.assesment.spacex.service;
+
+import com.assesment.spacex.domain.LaunchAggregates;
+import com.assesment.spacex.service.LaunchAggregateFeed.Kind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class LaunchAggregateFeedTest {
+
+    private final Sinks.Many<LaunchAggregates> snapshots = Sinks.many().replay().latest();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LaunchAggregateFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        LaunchAggregateRefresher refresher = mock(LaunchAggregateRefresher.class);
+        given(refresher.snapshots()).willReturn(snapshots.asFlux());
+        feed = new LaunchAggregateFeed(refresher, meterRegistry);
+    }
+
+    @Test
+    void testSubscriberGetsSnapshotThenOnlyChangedCells() {
+        snapshots.tryEmitNext(aggregates(Map.of(2023, 10L, 2024, 5L), Map.of("Site 1", 15L)));
+
+        StepVerifier.create(feed.subscribe())
+                .assertNext(event -> {
+                    assertEquals(Kind.SNAPSHOT, event.kind());
+                    assertEquals(Map.of("Falcon", Map.of(2023, 10L, 2024, 5L)), event.cells().getLaunchesByYear());
+                    assertEquals(Map.of("Falcon", Map.of("Site 1", 15L)), event.cells().getLaunchesBySite());
+                })
+                .then(() -> snapshots.tryEmitNext(aggregates(Map.of(2023, 10L, 2024, 5L), Map.of("Site 1", 15L))))
+                .then(() -> snapshots.tryEmitNext(aggregates(Map.of(2023, 10L, 2024, 6L), Map.of("Site 2", 16L))))
+                .assertNext(event -> {
+                    assertEquals(Kind.DELTA, event.kind());
+                    assertEquals(Map.of("Falcon", Map.of(2024, 6L)), event.cells().getLaunchesByYear());
+                    assertEquals(Map.of("Falcon", Map.of("Site 1", 0L, "Site 2", 16L)), event.cells().getLaunchesBySite());
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void testSubscriberGetsSnapshotOfEmptyAggregates() {
+        snapshots.tryEmitNext(LaunchAggregates.builder()
+                .launchesByYear(Map.of())
+                .launchesBySite(Map.of())
+                .refreshedAt(Instant.now())
+                .build());
+
+        StepVerifier.create(feed.subscribe())
+                .assertNext(event -> {
+                    assertEquals(Kind.SNAPSHOT, event.kind());
+                    assertEquals(Map.of(), event.cells().getLaunchesByYear());
+                    assertEquals(Map.of(), event.cells().getLaunchesBySite());
+                })
+                .then(() -> snapshots.tryEmitNext(aggregates(Map.of(2024, 1L), Map.of("Site 1", 1L))))
+                .assertNext(event -> {
+                    assertEquals(Kind.DELTA, event.kind());
+                    assertEquals(Map.of("Falcon", Map.of(2024, 1L)), event.cells().getLaunchesByYear());
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void testSlowSubscriberIsResyncedWithSnapshot() {
+        ReflectionTestUtils.setField(feed, "bufferSize", 2);
+        snapshots.tryEmitNext(aggregates(Map.of(2020, 1L), Map.of("Site 1", 1L)));
+
+        StepVerifier.create(feed.subscribe(), 0)
+                .then(() -> {
+                    for (long count = 2; count <= 6; count++) {
+                        snapshots.tryEmitNext(aggregates(Map.of(2020, count), Map.of("Site 1", count)));
+                    }
+                })
+                .thenRequest(1)
+                .assertNext(event -> {
+                    assertEquals(Kind.SNAPSHOT, event.kind());
+                    assertEquals(Map.of("Falcon", Map.of(2020, 6L)), event.cells().getLaunchesByYear());
+                })
+                .thenRequest(5)
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(() -> snapshots.tryEmitNext(aggregates(Map.of(2020, 7L), Map.of("Site 1", 7L))))
+                .assertNext(event -> {
+                    assertEquals(Kind.DELTA, event.kind());
+                    assertEquals(Map.of("Falcon", Map.of(2020, 7L)), event.cells().getLaunchesByYear());
+                })
+                .thenCancel()
+                .verify();
+
+        assertEquals(4, meterRegistry.get(LaunchAggregateFeed.DROPPED).counter().count());
+        assertEquals(0, meterRegistry.get(LaunchAggregateFeed.SUBSCRIBERS).gauge().value());
+    }
+
+    private static LaunchAggregates aggregates(Map<Integer, Long> byYear, Map<String, Long> bySite) {
+        return LaunchAggregates.builder()
+                .launchesByYear(Map.of("Falcon", byYear))
+                .launchesBySite(Map.of("Falcon", bySite))
+                .refreshedAt(Instant.now())
+                .build();
+    }
+}
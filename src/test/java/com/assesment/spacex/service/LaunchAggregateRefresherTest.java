@@ -0,0 +1,241 @@
+package com.assesment.spacex.service;
+
+import com.assesment.spacex.domain.Launch;
+import com.assesment.spacex.domain.LaunchAggregates;
+import com.assesment.spacex.domain.LaunchPad;
+import com.assesment.spacex.domain.Rocket;
+import com.assesment.spacex.store.LaunchColumnStore;
+import com.assesment.spacex.store.LaunchSnapshotFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LaunchAggregateRefresherTest {
+
+    private static final Instant WATERMARK = Instant.parse("2024-01-21T05:47:26.853Z");
+
+    @Mock
+    private TaskService taskService;
+    @Mock
+    private SpacexClientService spacexClientService;
+    @InjectMocks
+    private LaunchAggregateRefresher launchAggregateRefresher;
+
+    @Test
+    void testNoSnapshotBeforeFirstRefresh() {
+        assertTrue(launchAggregateRefresher.freshSnapshot().isEmpty());
+    }
+
+    @Test
+    void testRefreshSwapsInSnapshot() {
+        Map<String, Map<Integer, Long>> byYear = Map.of("Falcon", Map.of(2024, 1L));
+        Map<String, Map<String, Long>> bySite = Map.of("Falcon", Map.of("Site 1", 1L));
+        Flux<Launch> launches = Flux.empty();
+        given(spacexClientService.getAllLaunches()).willReturn(launches);
+        given(taskService.aggregateLaunches(launches)).willReturn(Mono.just(aggregates(byYear, bySite, WATERMARK)));
+
+        StepVerifier.create(launchAggregateRefresher.refresh())
+                .assertNext(aggregates -> assertEquals(byYear, aggregates.getLaunchesByYear()))
+                .verifyComplete();
+
+        assertEquals(bySite, launchAggregateRefresher.freshSnapshot().orElseThrow().getLaunchesBySite());
+    }
+
+    @Test
+    void testConcurrentRefreshesShareOneComputation() {
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.empty());
+        given(taskService.aggregateLaunches(any()))
+                .willReturn(Mono.just(aggregates(Map.of(), Map.of(), null)).delayElement(Duration.ofMillis(100)));
+
+        StepVerifier.create(Mono.zip(launchAggregateRefresher.refresh(), launchAggregateRefresher.refresh()))
+                .assertNext(results -> assertEquals(results.getT1(), results.getT2()))
+                .verifyComplete();
+
+        verify(spacexClientService, times(1)).getAllLaunches();
+        verify(taskService, times(1)).aggregateLaunches(any());
+    }
+
+    @Test
+    void testStaleSnapshotIsNotServed() {
+        ReflectionTestUtils.setField(launchAggregateRefresher, "maxStaleness", Duration.ZERO.minusSeconds(1));
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.empty());
+        given(taskService.aggregateLaunches(any())).willReturn(Mono.just(aggregates(Map.of(), Map.of(), null)));
+
+        StepVerifier.create(launchAggregateRefresher.refresh()).expectNextCount(1).verifyComplete();
+
+        assertTrue(launchAggregateRefresher.freshSnapshot().isEmpty());
+    }
+
+    @Test
+    void testIncrementalRefreshFoldsNewLaunchesIntoSnapshot() {
+        Flux<Launch> allLaunches = Flux.<Launch>empty().hide();
+        Flux<Launch> newLaunches = Flux.<Launch>empty().hide();
+        Instant newWatermark = WATERMARK.plus(Duration.ofDays(3));
+        given(spacexClientService.getAllLaunches()).willReturn(allLaunches);
+        given(spacexClientService.getLaunchesAfter(WATERMARK)).willReturn(newLaunches);
+        given(taskService.aggregateLaunches(allLaunches)).willReturn(Mono.just(aggregates(
+                Map.of("Falcon", Map.of(2024, 1L)), Map.of("Falcon", Map.of("Site 1", 1L)), WATERMARK)));
+        given(taskService.aggregateLaunches(newLaunches)).willReturn(Mono.just(aggregates(
+                Map.of("Falcon", Map.of(2024, 2L), "Apollo", Map.of(2024, 1L)),
+                Map.of("Falcon", Map.of("Site 2", 2L), "Apollo", Map.of("Site 1", 1L)),
+                newWatermark)));
+
+        StepVerifier.create(launchAggregateRefresher.refresh().then(Mono.defer(launchAggregateRefresher::refresh)))
+                .assertNext(aggregates -> {
+                    assertEquals(Map.of("Falcon", Map.of(2024, 3L), "Apollo", Map.of(2024, 1L)),
+                            aggregates.getLaunchesByYear());
+                    assertEquals(Map.of("Falcon", Map.of("Site 1", 1L, "Site 2", 2L), "Apollo", Map.of("Site 1", 1L)),
+                            aggregates.getLaunchesBySite());
+                    assertEquals(newWatermark, aggregates.getLatestLaunchDate());
+                })
+                .verifyComplete();
+
+        verify(spacexClientService, times(1)).getAllLaunches();
+        verify(spacexClientService, times(1)).getLaunchesAfter(WATERMARK);
+    }
+
+    @Test
+    void testIncrementalRefreshWithUpcomingLaunchFetchesPastTheLatestPastLaunch() {
+        Instant upcoming = Instant.now().plus(Duration.ofDays(30));
+        Instant added = WATERMARK.plus(Duration.ofDays(1));
+        LaunchColumnStore all = new LaunchColumnStore();
+        all.append("Falcon", "Site 1", WATERMARK.toEpochMilli());
+        all.append("Starship", "Site 2", upcoming.toEpochMilli());
+        LaunchColumnStore after = new LaunchColumnStore();
+        after.append("Falcon", "Site 1", added.toEpochMilli());
+        after.append("Starship", "Site 2", upcoming.toEpochMilli());
+        Flux<Launch> allLaunches = Flux.<Launch>empty().hide();
+        Flux<Launch> newLaunches = Flux.<Launch>empty().hide();
+        given(spacexClientService.getAllLaunches()).willReturn(allLaunches);
+        given(spacexClientService.getLaunchesAfter(WATERMARK)).willReturn(newLaunches);
+        given(taskService.aggregateLaunches(allLaunches)).willReturn(Mono.just(all.toAggregates()));
+        given(taskService.aggregateLaunches(newLaunches)).willReturn(Mono.just(after.toAggregates()));
+
+        StepVerifier.create(launchAggregateRefresher.refresh())
+                .assertNext(aggregates -> assertEquals(WATERMARK, aggregates.getLatestLaunchDate()))
+                .verifyComplete();
+        StepVerifier.create(launchAggregateRefresher.refresh())
+                .assertNext(aggregates -> {
+                    assertEquals(added, aggregates.getLatestLaunchDate());
+                    assertEquals(Map.of("Falcon", Map.of("Site 1", 2L), "Starship", Map.of("Site 2", 1L)),
+                            aggregates.getLaunchesBySite());
+                    assertEquals(aggregates.getLaunches().countByRocketAndSite(), aggregates.getLaunchesBySite());
+                    assertEquals(3, aggregates.getLaunches().size());
+                    assertEquals(1, aggregates.getLaunches().pendingSize());
+                })
+                .verifyComplete();
+
+        verify(spacexClientService, times(1)).getLaunchesAfter(WATERMARK);
+    }
+
+    @Test
+    void testFullReconcileOnceIntervalPassed() {
+        ReflectionTestUtils.setField(launchAggregateRefresher, "fullReconcileInterval", Duration.ZERO);
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.empty());
+        given(taskService.aggregateLaunches(any())).willReturn(Mono.just(aggregates(Map.of(), Map.of(), WATERMARK)));
+
+        StepVerifier.create(launchAggregateRefresher.refresh().then(Mono.defer(launchAggregateRefresher::refresh)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(spacexClientService, times(2)).getAllLaunches();
+        verify(spacexClientService, never()).getLaunchesAfter(any());
+    }
+
+    @Test
+    void testSnapshotIsPersistedAndRestoredOnStartup(@TempDir Path directory) {
+        Path snapshotPath = directory.resolve("launch-snapshot.bin");
+        ReflectionTestUtils.setField(launchAggregateRefresher, "snapshotPath", snapshotPath.toString());
+        LaunchColumnStore store = new LaunchColumnStore();
+        store.append("Falcon", "Site 1", WATERMARK.toEpochMilli());
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.empty());
+        given(taskService.aggregateLaunches(any())).willReturn(Mono.just(store.toAggregates()));
+
+        StepVerifier.create(launchAggregateRefresher.refresh()).expectNextCount(1).verifyComplete();
+        assertTrue(Files.exists(snapshotPath));
+
+        LaunchAggregateRefresher restarted = new LaunchAggregateRefresher(taskService, spacexClientService);
+        ReflectionTestUtils.setField(restarted, "snapshotPath", snapshotPath.toString());
+        ReflectionTestUtils.setField(restarted, "maxStaleness", Duration.ZERO.minusSeconds(1));
+        restarted.restoreSnapshot();
+
+        LaunchAggregates restored = restarted.freshSnapshot().orElseThrow();
+        assertEquals(Map.of("Falcon", Map.of(2024, 1L)), restored.getLaunchesByYear());
+        assertEquals(WATERMARK, restored.getLatestLaunchDate());
+    }
+
+    @Test
+    void testRestoredSnapshotIsNotServedPastMaxAge(@TempDir Path directory) throws IOException {
+        Path snapshotPath = directory.resolve("launch-snapshot.bin");
+        LaunchColumnStore store = new LaunchColumnStore();
+        store.append("Falcon", "Site 1", WATERMARK.toEpochMilli());
+        LaunchSnapshotFile.write(store.toAggregates().toBuilder().refreshedAt(Instant.now().minusSeconds(60)).build(),
+                snapshotPath);
+        ReflectionTestUtils.setField(launchAggregateRefresher, "snapshotPath", snapshotPath.toString());
+        ReflectionTestUtils.setField(launchAggregateRefresher, "maxStaleness", Duration.ZERO);
+        launchAggregateRefresher.restoreSnapshot();
+        assertTrue(launchAggregateRefresher.freshSnapshot().isPresent());
+
+        ReflectionTestUtils.setField(launchAggregateRefresher, "snapshotMaxAge", Duration.ofSeconds(30));
+
+        assertTrue(launchAggregateRefresher.freshSnapshot().isEmpty());
+    }
+
+    @Test
+    void testRefreshWithTimedOutLookupKeepsSnapshot() {
+        TaskService liveTaskService = new TaskService(spacexClientService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(liveTaskService, "deadlineBudget", Duration.ofMillis(50));
+        LaunchAggregateRefresher refresher = new LaunchAggregateRefresher(liveTaskService, spacexClientService);
+        Launch launch = Launch.builder().date(WATERMARK).rocketId("rocket1").launchPadId("pad1").build();
+        Launch newLaunch = Launch.builder().date(WATERMARK.plusSeconds(60)).rocketId("rocket2").launchPadId("pad1").build();
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.just(launch));
+        given(spacexClientService.getLaunchesAfter(WATERMARK)).willReturn(Flux.just(newLaunch));
+        given(spacexClientService.getRocketById("rocket1"))
+                .willReturn(Mono.just(Rocket.builder().rocketId("rocket1").rocketName("Falcon").build()));
+        given(spacexClientService.getRocketById("rocket2")).willReturn(Mono.error(new TimeoutException()));
+        given(spacexClientService.lastKnownRocket("rocket2")).willReturn(Optional.empty());
+        given(spacexClientService.getLaunchPadById("pad1")).willReturn(
+                Mono.just(LaunchPad.builder().launchPadId("pad1").launchPadName("Site 1").build())
+                        .delayElement(Duration.ofMillis(100)));
+
+        StepVerifier.create(refresher.refresh()).expectNextCount(1).verifyComplete();
+        LaunchAggregates snapshot = refresher.freshSnapshot().orElseThrow();
+        assertEquals(Map.of("Falcon", Map.of("Site 1", 1L)), snapshot.getLaunchesBySite());
+
+        StepVerifier.create(refresher.refresh()).verifyError(TimeoutException.class);
+        assertSame(snapshot, refresher.freshSnapshot().orElseThrow());
+    }
+
+    private static LaunchAggregates aggregates(Map<String, Map<Integer, Long>> byYear,
+                                               Map<String, Map<String, Long>> bySite,
+                                               Instant latestLaunchDate) {
+        return LaunchAggregates.builder()
+                .launchesByYear(byYear)
+                .launchesBySite(bySite)
+                .latestLaunchDate(latestLaunchDate)
+                .build();
+    }
+}
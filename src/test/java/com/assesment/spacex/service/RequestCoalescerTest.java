@@ -0,0 +1,81 @@
+package com.assesment.spacex.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer(meterRegistry);
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @Test
+    void testConcurrentCallersShareOneComputation() {
+        StepVerifier.create(Flux.range(0, 50)
+                        .flatMap(i -> requestCoalescer.coalesce("launches-by-year", this::slowComputation))
+                        .collectList())
+                .assertNext(results -> {
+                    assertEquals(50, results.size());
+                    assertTrue(results.stream().allMatch(result -> result == 1));
+                })
+                .verifyComplete();
+
+        assertEquals(1, computations.get());
+        assertEquals(1, meterRegistry.get("spacex.coalescer.requests").tag("result", "started").counter().count());
+        assertEquals(49, meterRegistry.get("spacex.coalescer.requests").tag("result", "joined").counter().count());
+    }
+
+    @Test
+    void testDifferentKeysAndLaterCallersComputeAgain() {
+        StepVerifier.create(Mono.zip(requestCoalescer.coalesce("launches-by-year", this::slowComputation),
+                        requestCoalescer.coalesce("launches-by-site", this::slowComputation)))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(requestCoalescer.coalesce("launches-by-year", this::slowComputation))
+                .expectNext(3)
+                .verifyComplete();
+
+        assertEquals(3, computations.get());
+    }
+
+    @Test
+    void testErrorIsSharedButNotRemembered() {
+        StepVerifier.create(requestCoalescer.coalesce("launches-by-year",
+                        () -> Mono.<Integer>error(new IllegalStateException("upstream down"))))
+                .verifyErrorMessage("upstream down");
+        StepVerifier.create(requestCoalescer.coalesce("launches-by-year", this::slowComputation))
+                .expectNext(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void testComputationIsCancelledWhenAllCallersCancel() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mono<Integer> coalesced = requestCoalescer.coalesce("launches-by-year",
+                () -> Mono.<Integer>never().doOnCancel(() -> cancelled.set(true)));
+
+        StepVerifier.create(Mono.zip(coalesced, coalesced))
+                .thenAwait(Duration.ofMillis(10))
+                .thenCancel()
+                .verify();
+
+        assertTrue(cancelled.get());
+        StepVerifier.create(requestCoalescer.coalesce("launches-by-year", this::slowComputation))
+                .expectNext(1)
+                .verifyComplete();
+    }
+
+    private Mono<Integer> slowComputation() {
+        return Mono.fromSupplier(computations::incrementAndGet).delayElement(Duration.ofMillis(50));
+    }
+}
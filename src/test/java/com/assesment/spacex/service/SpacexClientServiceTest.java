@@ -0,0 +1,195 @@
+package com.assesment.spacex.service;
+
+import com.assesment.spacex.config.SpacexCacheConfig;
+import com.assesment.spacex.domain.Launch;
+import com.assesment.spacex.loadtest.SpacexStubServer;
+import com.assesment.spacex.metrics.UpstreamMetricsFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+class SpacexClientServiceTest {
+
+    private final Map<String, AtomicInteger> upstreamCalls = new ConcurrentHashMap<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SpacexClientService spacexClientService;
+
+    @BeforeEach
+    void setUp() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    String path = request.url().getPath();
+                    int call = upstreamCalls.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+                    ClientResponse response = switch (path) {
+                        case "/launches" -> request.headers().getIfNoneMatch().contains("\"v1\"")
+                                ? ClientResponse.create(HttpStatus.NOT_MODIFIED).build()
+                                : json("[{\"rocket\":\"rocket1\",\"launchpad\":\"pad1\","
+                                        + "\"date_utc\":\"2024-01-21T05:47:26.853Z\"}]").mutate()
+                                        .header(HttpHeaders.ETAG, "\"v1\"").build();
+                        case "/rockets/rocket1" -> json("{\"id\":\"rocket1\",\"name\":\"Falcon 9\"}");
+                        case "/rockets/slow" -> json("{\"id\":\"slow\",\"name\":\"Starship\"}");
+                        case "/launchpads/pad1" -> json("{\"id\":\"pad1\",\"name\":\"KSC LC 39A\"}");
+                        case "/launches/query" -> json("{\"docs\":[{\"rocket\":\"rocket1\",\"launchpad\":\"pad1\","
+                                + "\"date_utc\":\"2024-01-21T05:47:26.853Z\"}],\"totalDocs\":1}");
+                        default -> ClientResponse.create(HttpStatus.NOT_FOUND).build();
+                    };
+                    boolean stalled = path.equals("/rockets/slow") && call == 1;
+                    return Mono.just(response).delayElement(Duration.ofMillis(stalled ? 5000 : 50));
+                })
+                .filter(new UpstreamMetricsFilter(meterRegistry))
+                .build();
+        SpacexCacheConfig cacheConfig = new SpacexCacheConfig();
+        spacexClientService = new SpacexClientService(webClient,
+                cacheConfig.rocketCache(100, Duration.ofHours(1), Duration.ofMinutes(1), meterRegistry),
+                cacheConfig.launchPadCache(100, Duration.ofHours(1), Duration.ofMinutes(1), meterRegistry),
+                meterRegistry);
+    }
+
+    @Test
+    void testConcurrentRocketLookupsShareOneUpstreamCall() {
+        StepVerifier.create(Flux.range(0, 20)
+                        .flatMap(i -> spacexClientService.getRocketById("rocket1"))
+                        .collectList())
+                .assertNext(rockets -> {
+                    assertEquals(20, rockets.size());
+                    assertEquals("Falcon 9", rockets.get(0).getRocketName());
+                })
+                .verifyComplete();
+
+        assertEquals(1, upstreamCalls.get("/rockets/rocket1").get());
+        assertEquals(1, spacexClientService.getRocketCacheStats().missCount());
+        assertEquals(19, spacexClientService.getRocketCacheStats().hitCount());
+    }
+
+    @Test
+    void testStalledLookupIsHedgedAndKeptAsLastKnown() {
+        ReflectionTestUtils.setField(spacexClientService, "hedgeInitialDelay", Duration.ofMillis(100));
+
+        StepVerifier.create(spacexClientService.getRocketById("slow"))
+                .assertNext(rocket -> assertEquals("Starship", rocket.getRocketName()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(2, upstreamCalls.get("/rockets/slow").get());
+        assertEquals(1, meterRegistry.get(SpacexClientService.HEDGES)
+                .tags("endpoint", "/rockets/{rocketId}", "result", "won").counter().count());
+        assertEquals("Starship", spacexClientService.lastKnownRocket("slow").orElseThrow().getRocketName());
+    }
+
+    @Test
+    void testUpstreamCallsAreTimedPerEndpointAndStatus() {
+        StepVerifier.create(spacexClientService.getRocketById("rocket1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(spacexClientService.getRocketById("unknown")).verifyComplete();
+        StepVerifier.create(spacexClientService.getRocketById("rocket1")).expectNextCount(1).verifyComplete();
+
+        assertEquals(1, meterRegistry.get(UpstreamMetricsFilter.REQUESTS)
+                .tags("endpoint", "/rockets/{rocketId}", "status", "200", "outcome", "SUCCESS").timer().count());
+        assertEquals(1, meterRegistry.get(UpstreamMetricsFilter.REQUESTS)
+                .tags("endpoint", "/rockets/{rocketId}", "status", "404", "outcome", "CLIENT_ERROR").timer().count());
+        assertEquals(0, meterRegistry.get(UpstreamMetricsFilter.IN_FLIGHT).gauge().value());
+        assertEquals(1, meterRegistry.get("cache.gets").tags("cache", "rocket", "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testLaunchPadLookupIsCached() {
+        StepVerifier.create(spacexClientService.getLaunchPadById("pad1"))
+                .assertNext(launchPad -> assertEquals("KSC LC 39A", launchPad.getLaunchPadName()))
+                .verifyComplete();
+        StepVerifier.create(spacexClientService.getLaunchPadById("pad1"))
+                .assertNext(launchPad -> assertEquals("KSC LC 39A", launchPad.getLaunchPadName()))
+                .verifyComplete();
+
+        assertEquals(1, upstreamCalls.get("/launchpads/pad1").get());
+    }
+
+    @Test
+    void testNotFoundIsCachedAsEmpty() {
+        StepVerifier.create(spacexClientService.getRocketById("unknown")).verifyComplete();
+        StepVerifier.create(spacexClientService.getRocketById("unknown")).verifyComplete();
+
+        assertEquals(1, upstreamCalls.get("/rockets/unknown").get());
+    }
+
+    @Test
+    void testLaunchesAfterWatermark() {
+        StepVerifier.create(spacexClientService.getLaunchesAfter(Instant.parse("2024-01-01T00:00:00Z")))
+                .assertNext(launch -> {
+                    assertEquals("rocket1", launch.getRocketId());
+                    assertEquals(Instant.parse("2024-01-21T05:47:26.853Z"), launch.getDate());
+                })
+                .verifyComplete();
+
+        assertEquals(1, upstreamCalls.get("/launches/query").get());
+    }
+
+    @Test
+    void testUnchangedLaunchesAreReusedOnNotModified() {
+        StepVerifier.create(spacexClientService.getAllLaunches())
+                .assertNext(launch -> {
+                    assertEquals("rocket1", launch.getRocketId());
+                    launch.setRocketType("Falcon 9");
+                })
+                .verifyComplete();
+        StepVerifier.create(spacexClientService.getAllLaunches())
+                .assertNext(launch -> {
+                    assertEquals("rocket1", launch.getRocketId());
+                    assertEquals(Instant.parse("2024-01-21T05:47:26.853Z"), launch.getDate());
+                    assertNull(launch.getRocketType());
+                })
+                .verifyComplete();
+
+        assertEquals(2, upstreamCalls.get("/launches").get());
+        assertEquals(1, meterRegistry.get(UpstreamMetricsFilter.REQUESTS)
+                .tags("endpoint", "/launches", "status", "304").timer().count());
+    }
+
+    @Test
+    void testQueryModeFetchesProjectedPagesInDateOrder() {
+        try (SpacexStubServer stub = new SpacexStubServer(0, Duration.ofMillis(20), Duration.ZERO, 0)) {
+            SpacexCacheConfig cacheConfig = new SpacexCacheConfig();
+            SpacexClientService queryClient = new SpacexClientService(WebClient.create(stub.baseUri()),
+                    cacheConfig.rocketCache(100, Duration.ofHours(1), Duration.ofMinutes(1), meterRegistry),
+                    cacheConfig.launchPadCache(100, Duration.ofHours(1), Duration.ofMinutes(1), meterRegistry),
+                meterRegistry);
+            ReflectionTestUtils.setField(queryClient, "fetchMode", LaunchFetchMode.QUERY);
+            ReflectionTestUtils.setField(queryClient, "pageSize", 20);
+
+            List<Launch> launches = queryClient.getAllLaunches().collectList().block(Duration.ofSeconds(10));
+
+            assertEquals(183, launches.size());
+            assertEquals(launches.stream().sorted(Comparator.comparing(Launch::getDate)).toList(), launches);
+            assertTrue(launches.stream().allMatch(launch -> launch.getRocketId() != null && launch.getLaunchPadId() != null));
+            assertEquals(10L, stub.callCounts().get("/launches/query"));
+            assertNull(stub.callCounts().get("/launches"));
+        }
+    }
+
+    private static ClientResponse json(String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+}
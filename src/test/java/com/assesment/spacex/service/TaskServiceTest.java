@@ -2,22 +2,33 @@ package com.assesment.spacex.service;
 
 import com.assesment.spacex.domain.Launch;
 import com.assesment.spacex.domain.LaunchPad;
+import com.assesment.spacex.domain.LaunchRollup;
 import com.assesment.spacex.domain.Rocket;
+import com.assesment.spacex.metrics.PipelineTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.BDDMockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,13 +36,15 @@ class TaskServiceTest {
 
     @Mock
     private SpacexClientService spacexClientService;
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     @InjectMocks
     private TaskService taskService;
 
 
     @Test
     void testRocketLaunchedByYear() {
-        Launch launch = getLaunch(Instant.now(), "pad1", "rocket1");
+        Launch launch = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
         Rocket rocket = getRocket("rocket1", "Falcon");
 
         given(spacexClientService.getAllLaunches()).willReturn(Flux.just(launch));
@@ -54,7 +67,7 @@ class TaskServiceTest {
 
     @Test
     void testRocketLaunchedByYearNullRocketName() {
-        Launch launch = getLaunch(Instant.now(), "pad1", "rocket1");
+        Launch launch = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
         Rocket rocket = getRocket("rocket1", null);
 
         given(spacexClientService.getAllLaunches()).willReturn(Flux.just(launch));
@@ -76,9 +89,28 @@ class TaskServiceTest {
     }
 
 
+    @Test
+    void testRocketLaunchedByYearUnknownRocket() {
+        Launch launch = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
+
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.just(launch));
+        given(spacexClientService.getRocketById(launch.getRocketId())).willReturn(Mono.empty());
+
+        Map<Integer, Long> yearCount = new HashMap<>();
+        yearCount.put(2024, 1L);
+        Map<String, Map<Integer, Long>> expected = new HashMap<>();
+        expected.put("ROCKET_NAME_NA", yearCount);
+
+        StepVerifier.create(taskService.getRocketsLaunchedByYear())
+                .assertNext(output -> {
+                    assertEquals(expected, output);
+                })
+                .verifyComplete();
+    }
+
     @Test
     void testRocketLaunchedByYearMultipleResults() {
-        Launch launch1 = getLaunch(Instant.now(), "pad1", "rocket1");
+        Launch launch1 = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
         Launch launch2 = getLaunch(Instant.parse("2023-01-21T05:47:26.853Z"), "pad2", "rocket2");
         Launch launch3 = getLaunch(Instant.parse("2022-01-21T05:47:26.853Z"), "pad2", "rocket2");
 
@@ -111,7 +143,7 @@ class TaskServiceTest {
 
     @Test
     void testRocketLaunchedPerSite() {
-        Launch launch = getLaunch(Instant.now(), "pad1", "rocket1");
+        Launch launch = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
         Rocket rocket = getRocket("rocket1", "Falcon");
         LaunchPad launchPad = getLaunchPad("pad1", "Site 1");
 
@@ -136,7 +168,7 @@ class TaskServiceTest {
 
     @Test
     void testRocketLaunchedPerSiteNullRocketAndLaunchPadName() {
-        Launch launch = getLaunch(Instant.now(), "pad1", "rocket1");
+        Launch launch = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
         Rocket rocket = getRocket("rocket1", null);
         LaunchPad launchPad = getLaunchPad("pad1", null);
 
@@ -161,7 +193,7 @@ class TaskServiceTest {
 
     @Test
     void testRocketLaunchedPerSiteMultipleResult() {
-        Launch launch1 = getLaunch(Instant.now(), "pad1", "rocket1");
+        Launch launch1 = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
         Launch launch2 = getLaunch(Instant.parse("2023-01-21T05:47:26.853Z"), "pad2", "rocket2");
         Launch launch3 = getLaunch(Instant.parse("2022-01-21T05:47:26.853Z"), "pad2", "rocket2");
 
@@ -197,6 +229,262 @@ class TaskServiceTest {
         verifyNoMoreInteractions(spacexClientService);
     }
 
+    @Test
+    void testRocketLaunchedByYearBulkMode() {
+        ReflectionTestUtils.setField(taskService, "enrichmentMode", EnrichmentMode.BULK);
+        Launch launch1 = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
+        Launch launch2 = getLaunch(Instant.parse("2023-01-21T05:47:26.853Z"), "pad2", "rocket2");
+        Launch launch3 = getLaunch(Instant.parse("2022-01-21T05:47:26.853Z"), "pad2", "rocket3");
+
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.just(launch1, launch2, launch3));
+        given(spacexClientService.getAllRockets())
+                .willReturn(Flux.just(getRocket("rocket1", "Falcon"), getRocket("rocket2", "Apollo")));
+
+        Map<Integer, Long> yearCount1 = new HashMap<>();
+        yearCount1.put(2024, 1L);
+        Map<Integer, Long> yearCount2 = new HashMap<>();
+        yearCount2.put(2023, 1L);
+        Map<Integer, Long> yearCount3 = new HashMap<>();
+        yearCount3.put(2022, 1L);
+        Map<String, Map<Integer, Long>> expected = new HashMap<>();
+        expected.put("Falcon", yearCount1);
+        expected.put("Apollo", yearCount2);
+        expected.put("ROCKET_NAME_NA", yearCount3);
+
+        StepVerifier.create(taskService.getRocketsLaunchedByYear())
+                .assertNext(output -> {
+                    assertEquals(expected, output);
+                })
+                .verifyComplete();
+
+        verify(spacexClientService, times(1)).getAllLaunches();
+        verify(spacexClientService, times(1)).getAllRockets();
+        verifyNoMoreInteractions(spacexClientService);
+    }
+
+    @Test
+    void testRocketLaunchedPerSiteBulkMode() {
+        ReflectionTestUtils.setField(taskService, "enrichmentMode", EnrichmentMode.BULK);
+        Launch launch1 = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
+        Launch launch2 = getLaunch(Instant.parse("2023-01-21T05:47:26.853Z"), "pad2", "rocket2");
+        Launch launch3 = getLaunch(Instant.parse("2022-01-21T05:47:26.853Z"), "pad2", "rocket2");
+
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.just(launch1, launch2, launch3));
+        given(spacexClientService.getAllRockets())
+                .willReturn(Flux.just(getRocket("rocket1", "Falcon"), getRocket("rocket2", "Apollo")));
+        given(spacexClientService.getAllLaunchPads())
+                .willReturn(Flux.just(getLaunchPad("pad1", "Site 1"), getLaunchPad("pad2", null)));
+
+        Map<String, Long> siteCount1 = new HashMap<>();
+        siteCount1.put("Site 1", 1L);
+        Map<String, Long> siteCount2 = new HashMap<>();
+        siteCount2.put("LAUNCHPAD_NAME_NA", 2L);
+        Map<String, Map<String, Long>> expected = new HashMap<>();
+        expected.put("Falcon", siteCount1);
+        expected.put("Apollo", siteCount2);
+
+        StepVerifier.create(taskService.getLaunchesPerSite())
+                .assertNext(output -> {
+                    assertEquals(expected, output);
+                })
+                .verifyComplete();
+
+        verify(spacexClientService, times(1)).getAllLaunches();
+        verify(spacexClientService, times(1)).getAllRockets();
+        verify(spacexClientService, times(1)).getAllLaunchPads();
+        verifyNoMoreInteractions(spacexClientService);
+    }
+
+    @Test
+    void testAggregateLaunches() {
+        Launch launch1 = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
+        Launch launch2 = getLaunch(Instant.parse("2023-01-21T05:47:26.853Z"), "pad2", "rocket1");
+
+        given(spacexClientService.getRocketById("rocket1")).willReturn(Mono.just(getRocket("rocket1", "Falcon")));
+        given(spacexClientService.getLaunchPadById("pad1")).willReturn(Mono.just(getLaunchPad("pad1", "Site 1")));
+        given(spacexClientService.getLaunchPadById("pad2")).willReturn(Mono.just(getLaunchPad("pad2", "Site 2")));
+
+        StepVerifier.create(taskService.aggregateLaunches(Flux.just(launch1, launch2)))
+                .assertNext(output -> {
+                    assertEquals(Map.of("Falcon", Map.of(2024, 1L, 2023, 1L)), output.getLaunchesByYear());
+                    assertEquals(Map.of("Falcon", Map.of("Site 1", 1L, "Site 2", 1L)), output.getLaunchesBySite());
+                    assertEquals(launch1.getDate(), output.getLatestLaunchDate());
+                })
+                .verifyComplete();
+
+        verify(spacexClientService, never()).getAllLaunches();
+    }
+
+    @Test
+    void testLaunchReportEnrichesOnceForAllRollups() {
+        Launch launch1 = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
+        Launch launch2 = getLaunch(Instant.parse("2023-01-21T05:47:26.853Z"), "pad1", "rocket1");
+
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.just(launch1, launch2));
+        given(spacexClientService.getRocketById("rocket1")).willReturn(Mono.just(getRocket("rocket1", "Falcon")));
+        given(spacexClientService.getLaunchPadById("pad1")).willReturn(Mono.just(getLaunchPad("pad1", "Site 1")));
+
+        StepVerifier.create(taskService.getLaunchReport(EnumSet.allOf(LaunchRollup.class)))
+                .assertNext(report -> {
+                    assertEquals(Map.of("Falcon", Map.of(2024, 1L, 2023, 1L)), report.getLaunchesByYear());
+                    assertEquals(Map.of("Falcon", Map.of("Site 1", 2L)), report.getLaunchesBySite());
+                    assertEquals(Map.of("Falcon", 2L), report.getLaunchesPerRocket());
+                    assertEquals(Map.of("Site 1", Map.of(2024, 1L, 2023, 1L)), report.getLaunchesBySiteAndYear());
+                })
+                .verifyComplete();
+
+        verify(spacexClientService, times(1)).getAllLaunches();
+        verify(spacexClientService, times(2)).getRocketById("rocket1");
+        verify(spacexClientService, times(2)).getLaunchPadById("pad1");
+        verifyNoMoreInteractions(spacexClientService);
+    }
+
+    @Test
+    void testLaunchReportWithoutSiteRollupsSkipsLaunchPads() {
+        Launch launch = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
+
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.just(launch));
+        given(spacexClientService.getRocketById("rocket1")).willReturn(Mono.just(getRocket("rocket1", "Falcon")));
+
+        StepVerifier.create(taskService.getLaunchReport(EnumSet.of(LaunchRollup.PER_ROCKET)))
+                .assertNext(report -> {
+                    assertEquals(Map.of("Falcon", 1L), report.getLaunchesPerRocket());
+                    assertNull(report.getLaunchesByYear());
+                    assertNull(report.getLaunchesBySiteAndYear());
+                })
+                .verifyComplete();
+
+        verify(spacexClientService, never()).getLaunchPadById(any());
+    }
+
+    @Test
+    void testEnrichedLaunchesAreStreamedBeforeFetchCompletes() {
+        Sinks.Many<Launch> launches = Sinks.many().unicast().onBackpressureBuffer();
+        Launch launch1 = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
+        Launch launch2 = getLaunch(Instant.parse("2023-01-21T05:47:26.853Z"), "pad1", "rocket1");
+
+        given(spacexClientService.getAllLaunches()).willReturn(launches.asFlux());
+        given(spacexClientService.getRocketById("rocket1")).willReturn(Mono.just(getRocket("rocket1", "Falcon")));
+        given(spacexClientService.getLaunchPadById("pad1")).willReturn(Mono.just(getLaunchPad("pad1", "Site 1")));
+
+        StepVerifier.create(taskService.streamEnrichedLaunches())
+                .then(() -> launches.tryEmitNext(launch1))
+                .assertNext(launch -> {
+                    assertEquals("Falcon", launch.getRocketName());
+                    assertEquals("Site 1", launch.getLaunchPadName());
+                    assertEquals(launch1.getDate(), launch.getDate());
+                })
+                .then(() -> launches.tryEmitNext(launch2))
+                .expectNextCount(1)
+                .then(launches::tryEmitComplete)
+                .verifyComplete();
+
+        assertEquals(1, meterRegistry.get(PipelineTimer.PIPELINES)
+                .tags("pipeline", "stream", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void testRocketLaunchedByYearIsTimedByStage() {
+        Launch launch = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
+
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.just(launch));
+        given(spacexClientService.getRocketById("rocket1")).willReturn(Mono.just(getRocket("rocket1", "Falcon")));
+
+        StepVerifier.create(taskService.getRocketsLaunchedByYear())
+                .expectNextCount(1)
+                .verifyComplete();
+
+        for (String stage : new String[]{"fetch", "enrich", "aggregate"}) {
+            assertEquals(1, meterRegistry.get(PipelineTimer.STAGES)
+                    .tags("pipeline", "launches-by-year", "stage", stage).timer().count());
+        }
+        assertEquals(1, meterRegistry.get(PipelineTimer.PIPELINES)
+                .tags("pipeline", "launches-by-year", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void testLookupsPastTheDeadlineFallBackToLastKnownValues() {
+        ReflectionTestUtils.setField(taskService, "deadlineBudget", Duration.ofMillis(200));
+        Launch launch1 = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
+        Launch launch2 = getLaunch(Instant.parse("2024-02-21T05:47:26.853Z"), "pad2", "rocket2");
+
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.just(launch1, launch2));
+        given(spacexClientService.getRocketById(any())).willReturn(Mono.never());
+        given(spacexClientService.getLaunchPadById(any())).willReturn(Mono.never());
+        given(spacexClientService.lastKnownRocket("rocket1")).willReturn(Optional.of(getRocket("rocket1", "Falcon")));
+        given(spacexClientService.lastKnownRocket("rocket2")).willReturn(Optional.empty());
+        given(spacexClientService.lastKnownLaunchPad("pad1")).willReturn(Optional.of(getLaunchPad("pad1", "Site 1")));
+        given(spacexClientService.lastKnownLaunchPad("pad2")).willReturn(Optional.empty());
+
+        StepVerifier.create(taskService.getLaunchesPerSite())
+                .assertNext(output -> assertEquals(Map.of(
+                        "Falcon", Map.of("Site 1", 1L),
+                        "ROCKET_NAME_NA", Map.of("LAUNCHPAD_NAME_NA", 1L)), output))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(1, meterRegistry.get(TaskService.FALLBACKS)
+                .tags("lookup", "rocket", "result", "stale").counter().count());
+        assertEquals(1, meterRegistry.get(TaskService.FALLBACKS)
+                .tags("lookup", "launchpad", "result", "unknown").counter().count());
+    }
+
+    @Test
+    void testLaunchFetchPastTheDeadlineFallsBackToLastKnownLaunches() {
+        ReflectionTestUtils.setField(taskService, "deadlineBudget", Duration.ofMillis(200));
+        Launch launch = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
+
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.never());
+        given(spacexClientService.lastKnownLaunches()).willReturn(Optional.of(List.of(launch)));
+        given(spacexClientService.getRocketById("rocket1")).willReturn(Mono.just(getRocket("rocket1", "Falcon")));
+
+        StepVerifier.create(taskService.getRocketsLaunchedByYear())
+                .assertNext(output -> assertEquals(Map.of("Falcon", Map.of(2024, 1L)), output))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(1, meterRegistry.get(TaskService.FALLBACKS)
+                .tags("lookup", "launches", "result", "stale").counter().count());
+    }
+
+    @Test
+    void testBulkFetchesPastTheDeadlineFallBackToLastKnownValues() {
+        ReflectionTestUtils.setField(taskService, "enrichmentMode", EnrichmentMode.BULK);
+        ReflectionTestUtils.setField(taskService, "deadlineBudget", Duration.ofMillis(200));
+        Launch launch1 = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
+        Launch launch2 = getLaunch(Instant.parse("2024-02-21T05:47:26.853Z"), "pad2", "rocket2");
+
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.just(launch1, launch2));
+        given(spacexClientService.getAllRockets()).willReturn(Flux.never());
+        given(spacexClientService.getAllLaunchPads()).willReturn(Flux.never());
+        given(spacexClientService.lastKnownRockets()).willReturn(List.of(getRocket("rocket1", "Falcon")));
+        given(spacexClientService.lastKnownLaunchPads()).willReturn(List.of());
+
+        StepVerifier.create(taskService.getLaunchesPerSite())
+                .assertNext(output -> assertEquals(Map.of(
+                        "Falcon", Map.of("LAUNCHPAD_NAME_NA", 1L),
+                        "ROCKET_NAME_NA", Map.of("LAUNCHPAD_NAME_NA", 1L)), output))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(1, meterRegistry.get(TaskService.FALLBACKS)
+                .tags("lookup", "rockets", "result", "stale").counter().count());
+        assertEquals(1, meterRegistry.get(TaskService.FALLBACKS)
+                .tags("lookup", "launchpads", "result", "unknown").counter().count());
+    }
+
+    @Test
+    void testFailedLookupWithoutLastKnownValueStillFails() {
+        Launch launch = getLaunch(Instant.parse("2024-01-21T05:47:26.853Z"), "pad1", "rocket1");
+
+        given(spacexClientService.getAllLaunches()).willReturn(Flux.just(launch));
+        given(spacexClientService.getRocketById("rocket1")).willReturn(Mono.error(new IllegalStateException("down")));
+        given(spacexClientService.lastKnownRocket("rocket1")).willReturn(Optional.empty());
+
+        StepVerifier.create(taskService.getRocketsLaunchedByYear())
+                .verifyError(IllegalStateException.class);
+    }
+
     private static Launch getLaunch(Instant instant, String pad2, String rocket2) {
         return Launch.builder()
                 .date(instant)
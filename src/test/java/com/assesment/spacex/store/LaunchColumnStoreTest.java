@@ -0,0 +1,133 @@
+package com.assesment.spacex.store;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class LaunchColumnStoreTest {
+
+    @Test
+    void testCountsByRocketAndYearAndSite() {
+        LaunchColumnStore store = new LaunchColumnStore();
+        store.append("Falcon", "Site 1", epochMilli("2024-01-21T05:47:26Z"));
+        store.append("Falcon", "Site 1", epochMilli("2020-12-31T23:59:59Z"));
+        store.append("Falcon", "Site 2", epochMilli("2021-01-01T00:00:00Z"));
+        store.append("Apollo", "Site 2", epochMilli("2021-06-01T00:00:00Z"));
+
+        assertEquals(Map.of("Falcon", Map.of(2020, 1L, 2021, 1L, 2024, 1L), "Apollo", Map.of(2021, 1L)),
+                store.countByRocketAndYear());
+        assertEquals(Map.of("Falcon", Map.of("Site 1", 2L, "Site 2", 1L), "Apollo", Map.of("Site 2", 1L)),
+                store.countByRocketAndSite());
+        assertEquals(Map.of("Site 1", Map.of(2020, 1L, 2024, 1L), "Site 2", Map.of(2021, 2L)),
+                store.countBySiteAndYear());
+        assertEquals(Instant.parse("2024-01-21T05:47:26Z"), store.latestLaunchDate());
+        assertEquals(2, store.rockets().size());
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        LaunchColumnStore store = new LaunchColumnStore();
+        for (int i = 0; i < 10_000; i++) {
+            store.append("Rocket " + (i % 3), "Site " + (i % 4), epochMilli("2010-01-01T00:00:00Z") + i * 3_600_000L);
+        }
+
+        assertEquals(10_000, store.size());
+        assertEquals(10_000L, store.countByRocketAndSite().values().stream()
+                .flatMap(counts -> counts.values().stream())
+                .mapToLong(Long::longValue)
+                .sum());
+    }
+
+    @Test
+    void testCopyIsIndependentAndAppendAllReEncodes() {
+        LaunchColumnStore base = new LaunchColumnStore();
+        base.append("Falcon", "Site 1", epochMilli("2024-01-21T05:47:26Z"));
+        LaunchColumnStore delta = new LaunchColumnStore();
+        delta.append("Apollo", "Site 2", epochMilli("2024-02-21T05:47:26Z"));
+        delta.append("Falcon", "Site 2", epochMilli("2024-03-21T05:47:26Z"));
+
+        LaunchColumnStore combined = base.copy().appendAll(delta);
+
+        assertEquals(1, base.size());
+        assertEquals(3, combined.size());
+        assertEquals(Map.of("Falcon", Map.of("Site 1", 1L, "Site 2", 1L), "Apollo", Map.of("Site 2", 1L)),
+                combined.countByRocketAndSite());
+    }
+
+    @Test
+    void testExtensionAppendsInPlaceUntilAnotherExtensionForks() {
+        LaunchColumnStore base = new LaunchColumnStore();
+        base.append("Falcon", "Site 1", epochMilli("2024-01-21T05:47:26Z"));
+
+        LaunchColumnStore first = base.extend();
+        first.append("Apollo", "Site 2", epochMilli("2024-02-21T05:47:26Z"));
+        LaunchColumnStore second = base.extend();
+        second.append("Saturn", "Site 3", epochMilli("2024-03-21T05:47:26Z"));
+
+        assertSame(ReflectionTestUtils.getField(base, "epochMillis"), ReflectionTestUtils.getField(first, "epochMillis"));
+        assertNotSame(ReflectionTestUtils.getField(base, "epochMillis"), ReflectionTestUtils.getField(second, "epochMillis"));
+        assertEquals(1, base.size());
+        assertEquals(-1, base.rockets().codeOf("Apollo"));
+        assertEquals(Map.of("Falcon", Map.of("Site 1", 1L)), base.countByRocketAndSite());
+        assertEquals(Map.of("Falcon", Map.of("Site 1", 1L), "Apollo", Map.of("Site 2", 1L)),
+                first.countByRocketAndSite());
+        assertEquals(Map.of("Falcon", Map.of("Site 1", 1L), "Saturn", Map.of("Site 3", 1L)),
+                second.countByRocketAndSite());
+        assertEquals(-1, second.rockets().codeOf("Apollo"));
+    }
+
+    @Test
+    void testSettleKeepsLaterRowsPendingAndDropsThemOnTheNextSettle() {
+        long cutoff = epochMilli("2024-06-01T00:00:00Z");
+        LaunchColumnStore fetched = new LaunchColumnStore();
+        fetched.append("Falcon", "Site 1", epochMilli("2024-01-21T05:47:26Z"));
+        fetched.append("Starship", "Site 2", epochMilli("2024-09-01T00:00:00Z"));
+        LaunchColumnStore store = new LaunchColumnStore().settle(fetched, cutoff);
+        LaunchColumnStore refetched = new LaunchColumnStore();
+        refetched.append("Starship", "Site 2", epochMilli("2024-07-01T00:00:00Z"));
+
+        LaunchColumnStore next = store.settle(refetched, epochMilli("2024-08-01T00:00:00Z"));
+
+        assertEquals(1, store.pendingSize());
+        assertEquals(Map.of("Starship", Map.of("Site 2", 1L)), store.pendingRows().countByRocketAndSite());
+        assertEquals(Instant.parse("2024-01-21T05:47:26Z"), store.latestLaunchDateUpTo(cutoff));
+        assertEquals(Instant.parse("2024-09-01T00:00:00Z"), store.latestLaunchDate());
+        assertEquals(2, next.size());
+        assertEquals(0, next.pendingSize());
+        assertEquals(Instant.parse("2024-07-01T00:00:00Z"), next.latestLaunchDate());
+        assertSame(ReflectionTestUtils.getField(store, "epochMillis"), ReflectionTestUtils.getField(next, "epochMillis"));
+    }
+
+    @Test
+    void testEmptyStore() {
+        LaunchColumnStore store = new LaunchColumnStore();
+
+        assertEquals(Map.of(), store.countByRocketAndYear());
+        assertEquals(Map.of(), store.countByRocketAndSite());
+        assertNull(store.latestLaunchDate());
+    }
+
+    @Test
+    void testUtcCalendarMatchesJavaTime() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long epochMilli = random.nextLong(-5_000_000_000_000L, 10_000_000_000_000L);
+            var dateTime = Instant.ofEpochMilli(epochMilli).atOffset(ZoneOffset.UTC);
+            assertEquals(dateTime.getYear(), UtcCalendar.yearOf(epochMilli));
+            assertEquals(dateTime.getYear() * 12L + dateTime.getMonthValue() - 1, UtcCalendar.yearMonthOf(epochMilli));
+        }
+    }
+
+    private static long epochMilli(String date) {
+        return Instant.parse(date).toEpochMilli();
+    }
+}
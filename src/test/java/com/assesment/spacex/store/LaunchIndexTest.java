@@ -0,0 +1,84 @@
+package com.assesment.spacex.store;
+
+import com.assesment.spacex.domain.LaunchDimension;
+import com.assesment.spacex.domain.LaunchQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LaunchIndexTest {
+
+    private LaunchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        LaunchColumnStore store = new LaunchColumnStore();
+        store.append("Falcon 9", "KSC LC 39A", epochMilli("2019-05-04T06:48:00Z"));
+        store.append("Falcon 9", "KSC LC 39A", epochMilli("2017-02-19T14:39:00Z"));
+        store.append("Falcon 9", "CCAFS SLC 40", epochMilli("2018-01-01T00:00:00Z"));
+        store.append("Falcon Heavy", "KSC LC 39A", epochMilli("2018-02-06T20:45:00Z"));
+        store.append("Falcon 1", "Kwajalein Atoll", epochMilli("2008-09-28T23:15:00Z"));
+        index = LaunchIndex.build(store);
+    }
+
+    @Test
+    void testGroupByRocketAndYearFilteredBySiteAndFromYear() {
+        LaunchQuery query = LaunchQuery.builder()
+                .groupBy(LaunchDimension.ROCKET)
+                .groupBy(LaunchDimension.YEAR)
+                .filter(LaunchDimension.SITE, Set.of("KSC LC 39A"))
+                .fromYear(2018)
+                .build();
+
+        assertEquals(Map.of("Falcon 9", Map.of(2019, 1L), "Falcon Heavy", Map.of(2018, 1L)), index.count(query));
+    }
+
+    @Test
+    void testFilterValuesOfOneDimensionAreOred() {
+        LaunchQuery query = LaunchQuery.builder()
+                .groupBy(LaunchDimension.SITE)
+                .filter(LaunchDimension.ROCKET, Set.of("Falcon 1", "Falcon Heavy"))
+                .build();
+
+        assertEquals(Map.of("Kwajalein Atoll", 1L, "KSC LC 39A", 1L), index.count(query));
+    }
+
+    @Test
+    void testYearRangeIsInclusive() {
+        LaunchQuery query = LaunchQuery.builder()
+                .groupBy(LaunchDimension.YEAR)
+                .fromYear(2017)
+                .toYear(2018)
+                .build();
+
+        assertEquals(Map.of(2017, 1L, 2018, 2L), index.count(query));
+    }
+
+    @Test
+    void testYearFilterAndTotalCount() {
+        LaunchQuery query = LaunchQuery.builder()
+                .filter(LaunchDimension.YEAR, Set.of("2018", "2008"))
+                .build();
+
+        assertEquals(3L, index.count(query));
+    }
+
+    @Test
+    void testUnknownFilterValueMatchesNothing() {
+        LaunchQuery query = LaunchQuery.builder()
+                .groupBy(LaunchDimension.ROCKET)
+                .filter(LaunchDimension.SITE, Set.of("Vandenberg"))
+                .build();
+
+        assertEquals(Map.of(), index.count(query));
+    }
+
+    private static long epochMilli(String date) {
+        return Instant.parse(date).toEpochMilli();
+    }
+}
@@ -0,0 +1,58 @@
+package com.assesment.spacex.store;
+
+import com.assesment.spacex.domain.LaunchAggregates;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LaunchSnapshotFileTest {
+
+    private static final Instant REFRESHED_AT = Instant.parse("2024-02-01T10:00:00Z");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        LaunchColumnStore store = new LaunchColumnStore();
+        store.append("Falcon 9", "KSC LC 39A", Instant.parse("2024-01-21T05:47:26.853Z").toEpochMilli());
+        store.append("Falcon 9", "CCSFS SLC 40", Instant.parse("2023-06-01T00:00:00Z").toEpochMilli());
+        store.append("Falcon Heavy", "KSC LC 39A", Instant.parse("2023-11-01T00:00:00Z").toEpochMilli());
+        Path path = directory.resolve("snapshot").resolve("launches.bin");
+
+        LaunchSnapshotFile.write(store.toAggregates().toBuilder().refreshedAt(REFRESHED_AT).build(), path);
+        LaunchAggregates restored = LaunchSnapshotFile.read(path);
+
+        assertEquals(Map.of("Falcon 9", Map.of(2024, 1L, 2023, 1L), "Falcon Heavy", Map.of(2023, 1L)),
+                restored.getLaunchesByYear());
+        assertEquals(Map.of("Falcon 9", Map.of("KSC LC 39A", 1L, "CCSFS SLC 40", 1L), "Falcon Heavy", Map.of("KSC LC 39A", 1L)),
+                restored.getLaunchesBySite());
+        assertEquals(Instant.parse("2024-01-21T05:47:26.853Z"), restored.getLatestLaunchDate());
+        assertEquals(REFRESHED_AT, restored.getRefreshedAt());
+        assertNull(restored.getReconciledAt());
+        assertEquals(3, restored.getLaunches().size());
+    }
+
+    @Test
+    void testCorruptFileIsRejected() throws IOException {
+        LaunchColumnStore store = new LaunchColumnStore();
+        store.append("Falcon 9", "KSC LC 39A", 0L);
+        Path path = directory.resolve("launches.bin");
+        LaunchSnapshotFile.write(store.toAggregates().toBuilder().refreshedAt(REFRESHED_AT).build(), path);
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+
+        assertThrows(IOException.class, () -> LaunchSnapshotFile.read(path));
+    }
+}
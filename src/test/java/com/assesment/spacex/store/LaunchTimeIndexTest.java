@@ -0,0 +1,89 @@
+package com.assesment.spacex.store;
+
+import com.assesment.spacex.domain.LaunchTimelineQuery;
+import com.assesment.spacex.domain.TimeGranularity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LaunchTimeIndexTest {
+
+    private LaunchTimeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        LaunchColumnStore store = new LaunchColumnStore();
+        store.append("Falcon 9", "KSC LC 39A", epochMilli("2020-01-07T02:19:00Z"));
+        store.append("Falcon 9", "CCAFS SLC 40", epochMilli("2020-01-29T14:07:00Z"));
+        store.append("Falcon 9", "KSC LC 39A", epochMilli("2020-03-18T12:16:00Z"));
+        store.append("Falcon 9", "KSC LC 39A", epochMilli("2019-12-31T23:59:59Z"));
+        store.append("Falcon Heavy", "KSC LC 39A", epochMilli("2019-06-25T06:30:00Z"));
+        index = LaunchTimeIndex.build(store);
+    }
+
+    @Test
+    void testRangeCountsPerRocket() {
+        LaunchTimelineQuery query = LaunchTimelineQuery.builder()
+                .from(Instant.parse("2020-01-01T00:00:00Z"))
+                .to(Instant.parse("2020-03-18T12:16:00Z"))
+                .build();
+
+        assertEquals(Map.of("Falcon 9", 2L), index.count(query));
+        assertEquals(Map.of("Falcon 9", 4L, "Falcon Heavy", 1L), index.count(LaunchTimelineQuery.builder().build()));
+    }
+
+    @Test
+    void testMonthBucketsWithinRange() {
+        LaunchTimelineQuery query = LaunchTimelineQuery.builder()
+                .granularity(TimeGranularity.MONTH)
+                .from(Instant.parse("2019-12-15T00:00:00Z"))
+                .build();
+
+        assertEquals(Map.of("Falcon 9", Map.of("2019-12", 1L, "2020-01", 2L, "2020-03", 1L)), index.count(query));
+    }
+
+    @Test
+    void testBucketsPartlyCoveredByRangeAreClipped() {
+        LaunchTimelineQuery query = LaunchTimelineQuery.builder()
+                .granularity(TimeGranularity.MONTH)
+                .from(Instant.parse("2020-01-15T00:00:00Z"))
+                .to(Instant.parse("2020-03-18T12:16:00Z"))
+                .build();
+
+        assertEquals(Map.of("Falcon 9", Map.of("2020-01", 1L)), index.count(query));
+        assertEquals(Map.of("Falcon 9", Map.of("2020", 1L)), index.count(LaunchTimelineQuery.builder()
+                .granularity(TimeGranularity.YEAR)
+                .from(Instant.parse("2020-01-01T00:00:00Z"))
+                .to(Instant.parse("2020-01-10T00:00:00Z"))
+                .build()));
+    }
+
+    @Test
+    void testWeekBucketsAreLabelledByMondayAndFilteredByRocket() {
+        LaunchTimelineQuery query = LaunchTimelineQuery.builder()
+                .granularity(TimeGranularity.WEEK)
+                .rocket("Falcon Heavy")
+                .build();
+
+        assertEquals(Map.of("Falcon Heavy", Map.of("2019-06-24", 1L)), index.count(query));
+    }
+
+    @Test
+    void testBucketLabels() {
+        long epochMilli = epochMilli("2024-01-21T05:47:26Z");
+
+        assertEquals("2024-01-21", TimeGranularity.DAY.label(TimeGranularity.DAY.bucketOf(epochMilli)));
+        assertEquals("2024-01-15", TimeGranularity.WEEK.label(TimeGranularity.WEEK.bucketOf(epochMilli)));
+        assertEquals("2024-01", TimeGranularity.MONTH.label(TimeGranularity.MONTH.bucketOf(epochMilli)));
+        assertEquals("2024", TimeGranularity.YEAR.label(TimeGranularity.YEAR.bucketOf(epochMilli)));
+        assertEquals("1969-12-29", TimeGranularity.WEEK.label(TimeGranularity.WEEK.bucketOf(epochMilli("1970-01-01T00:00:00Z"))));
+    }
+
+    private static long epochMilli(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+}